@@ -0,0 +1,90 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.graph.Entity;
+import com.example.footprintx.graph.EntityGraph;
+import com.example.footprintx.model.PivotResult;
+import com.example.footprintx.model.QueryType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Incremental updates and pivots in a correlation graph of 1.7 million entities and two million links,
+// shaped like Clearbit results: each email links to its domain, a name, a username and a phone number,
+// and emails share 100k domains and 100k names. The graph is full, so link() includes evicting the
+// least recently used entities.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntityGraphBenchmark {
+
+    private static final int EMAILS = 500_000;
+    private static final int DOMAINS = 100_000;
+    private static final int NAMES = 100_000;
+    private static final int QUERIES = 4096;
+    private static final String OWNER = "analyst";
+
+    private EntityGraph graph;
+    private String[] emails;
+    private int nextEmail;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        graph = new EntityGraph(3 * EMAILS + DOMAINS + NAMES, 5_000_000, 10_000);
+        for (int i = 0; i < EMAILS; i++) {
+            link(graph, i);
+        }
+        // From the newer half, which link() does not evict during a run
+        Random random = new Random(42);
+        emails = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            emails[i] = email(EMAILS - 1 - random.nextInt(EMAILS / 2));
+        }
+        nextEmail = EMAILS;
+    }
+
+    @Benchmark
+    public void link() {
+        link(graph, nextEmail++);
+    }
+
+    @Benchmark
+    public List<PivotResult.Connection> pivotDepth1() {
+        return graph.neighbourhood(OWNER, QueryType.EMAIL, emails[next++ & (QUERIES - 1)], 1, 100);
+    }
+
+    @Benchmark
+    public List<PivotResult.Connection> pivotDepth2() {
+        return graph.neighbourhood(OWNER, QueryType.EMAIL, emails[next++ & (QUERIES - 1)], 2, 100);
+    }
+
+    private static void link(EntityGraph graph, int index) {
+        graph.link(OWNER, QueryType.EMAIL, email(index), List.of(
+            new Entity(QueryType.DOMAIN, domain(index)),
+            new Entity(QueryType.NAME, "name " + Math.floorMod(index * 0x9E3779B1, NAMES)),
+            new Entity(QueryType.USERNAME, "user" + index),
+            new Entity(QueryType.PHONE, "+1415" + (1_000_000 + index))));
+    }
+
+    private static String email(int index) {
+        return "user" + index + "@" + domain(index);
+    }
+
+    private static String domain(int index) {
+        return "domain" + Math.floorMod(index * 0x85EBCA6B, DOMAINS) + ".example";
+    }
+}
\ No newline at end of file
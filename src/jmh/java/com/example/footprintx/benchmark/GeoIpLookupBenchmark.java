@@ -0,0 +1,102 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.geoip.GeoIpDatabase;
+import com.example.footprintx.geoip.GeoIpDatabaseBuilder;
+import com.example.footprintx.geoip.GeoIpRecord;
+import io.netty.util.NetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Address-to-record lookup in a memory-mapped database of one million /24 IPv4 ranges and 100k /48
+// IPv6 ranges, built from a synthetic CSV at setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GeoIpLookupBenchmark {
+
+    private static final int IPV4_RANGES = 1_000_000;
+    private static final int IPV6_RANGES = 100_000;
+    private static final int ADDRESSES = 4096;
+
+    private Path directory;
+    private GeoIpDatabase database;
+    private byte[][] ipv4Addresses;
+    private byte[][] ipv6Addresses;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("geoip-bench");
+        Path csv = directory.resolve("geoip.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("network,country_code,country_name,city,latitude,longitude,asn,isp\n");
+            for (int i = 0; i < IPV4_RANGES; i++) {
+                int city = i % 5000;
+                writer.write(((i >>> 16) & 0xff) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff) + ".0/24,US,United States,City "
+                    + city + "," + (city % 180 - 90) + ".5," + (city % 360 - 180) + ".25," + (city + 1) + ",ISP " + city + "\n");
+            }
+            for (int i = 0; i < IPV6_RANGES; i++) {
+                int city = i % 5000;
+                writer.write("2001:" + Integer.toHexString(i >>> 16) + ":" + Integer.toHexString(i & 0xffff)
+                    + "::/48,DE,Germany,City " + city + ",50.1,8.6," + (city + 1) + ",ISP " + city + "\n");
+            }
+        }
+        Path file = directory.resolve("geoip.fxgeo");
+        GeoIpDatabaseBuilder builder = new GeoIpDatabaseBuilder();
+        builder.readCsv(csv);
+        builder.write(file);
+        database = GeoIpDatabase.open(file);
+
+        Random random = new Random(42);
+        ipv4Addresses = new byte[ADDRESSES][];
+        ipv6Addresses = new byte[ADDRESSES][];
+        for (int i = 0; i < ADDRESSES; i++) {
+            int range = random.nextInt(IPV4_RANGES);
+            ipv4Addresses[i] = new byte[] {(byte) (range >>> 16), (byte) (range >>> 8), (byte) range,
+                (byte) random.nextInt(256)};
+            int range6 = random.nextInt(IPV6_RANGES);
+            ipv6Addresses[i] = NetUtil.createByteArrayFromIpAddressString("2001:" + Integer.toHexString(range6 >>> 16)
+                + ":" + Integer.toHexString(range6 & 0xffff) + ":" + Integer.toHexString(random.nextInt(0x10000)) + "::1");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database = null;
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public GeoIpRecord ipv4() {
+        return database.find(ipv4Addresses[next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    public GeoIpRecord ipv6() {
+        return database.find(ipv6Addresses[next++ & (ADDRESSES - 1)]);
+    }
+}
\ No newline at end of file
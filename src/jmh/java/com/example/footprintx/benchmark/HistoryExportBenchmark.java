@@ -0,0 +1,157 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.codec.ExportEncoder;
+import com.example.footprintx.model.HistoryExportRow;
+import com.example.footprintx.service.LookupHistoryStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Gzip-compressed exports of 200k history rows, from a file-based H2 database into pooled Netty
+// buffers, in a 64 MB heap: the rows alone are several times that, so the export only fits if it is
+// streamed. encode encodes and compresses rows that are already in memory, to separate that from
+// reading them. Results are per row.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx64m")
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class HistoryExportBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int ENCODE_ROWS = 10_000;
+    private static final String USER = "analyst";
+
+    @Param({"ndjson", "csv"})
+    private String format;
+
+    @Param({"1", "6"})
+    private int gzipLevel;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private Path directory;
+    private SingleConnectionDataSource dataSource;
+    private Scheduler blockingScheduler;
+    private Scheduler cpuScheduler;
+    private LookupHistoryStore store;
+    private ExportEncoder encoder;
+    private List<HistoryExportRow> rows;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-export");
+        dataSource = new SingleConnectionDataSource("jdbc:h2:file:" + directory.resolve("history"), true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        ObjectMapper objectMapper = new ObjectMapper();
+        blockingScheduler = Schedulers.newBoundedElastic(4, 1000, "bench-blocking");
+        cpuScheduler = Schedulers.newBoundedElastic(Runtime.getRuntime().availableProcessors(), 1000, "bench-cpu");
+
+        store = new LookupHistoryStore(jdbcTemplate, objectMapper, new SimpleMeterRegistry(), blockingScheduler);
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "queueCapacity", 16);
+        ReflectionTestUtils.setField(store, "batchSize", 500);
+        ReflectionTestUtils.setField(store, "flushInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(store, "retention", Duration.ofDays(1));
+        ReflectionTestUtils.setField(store, "maxRows", Long.MAX_VALUE);
+        ReflectionTestUtils.invokeMethod(store, "start");
+        encoder = new ExportEncoder(objectMapper, cpuScheduler, gzipLevel);
+
+        long now = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < ROWS; i++) {
+            HistoryExportRow row = row(i, now);
+            batch.add(new Object[] {row.recordedAt(), row.query(), row.queryType(), row.provider(), row.source(),
+                row.success(), row.message(), row.data(), row.sessionId(), USER});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO lookup_history (recorded_at, query_value, query_type, provider, source, success, message, data,"
+                        + " session_id, username) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+
+        rows = new ArrayList<>(ENCODE_ROWS);
+        for (int i = 0; i < ENCODE_ROWS; i++) {
+            rows.add(row(i, now));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ReflectionTestUtils.invokeMethod(store, "stop");
+        dataSource.destroy();
+        blockingScheduler.dispose();
+        cpuScheduler.dispose();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long export() {
+        return compressedSize(store.export(USER, null, null, null, null, null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENCODE_ROWS)
+    public long encode() {
+        return compressedSize(Flux.fromIterable(rows));
+    }
+
+    private long compressedSize(Flux<HistoryExportRow> source) {
+        return encoder.encode(source, ExportEncoder.Format.fromKey(format), bufferFactory)
+            .map(buffer -> {
+                int size = buffer.readableByteCount();
+                DataBufferUtils.release(buffer);
+                return (long) size;
+            })
+            .reduce(0L, Long::sum)
+            .block();
+    }
+
+    // An ipstack result, in batches of 1000 rows per session
+    private static HistoryExportRow row(int index, long now) {
+        String ip = (index >>> 16 & 0xFF) + "." + (index >>> 8 & 0xFF) + "." + (index & 0xFF) + ".1";
+        String data = "{\"ip\":\"" + ip + "\",\"type\":\"ipv4\",\"continent_name\":\"North America\","
+            + "\"country_code\":\"US\",\"country_name\":\"United States\",\"region_code\":\"CA\","
+            + "\"region_name\":\"California\",\"city\":\"Los Angeles\",\"zip\":\"" + (90000 + index % 1000) + "\","
+            + "\"latitude\":" + (34 + (index % 1000) / 1000.0) + ",\"longitude\":" + (-118 - (index % 997) / 1000.0) + ","
+            + "\"isp\":\"Example Networks " + index % 50 + "\",\"asn\":" + (20000 + index % 5000) + "}";
+        return new HistoryExportRow(index + 1, now + index, ip, "ip", "ipstack", "IPStack", true,
+            "IP geolocation lookup completed successfully", data, "batch-" + index / 1000);
+    }
+}
\ No newline at end of file
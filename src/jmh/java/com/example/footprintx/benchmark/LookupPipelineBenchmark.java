@@ -0,0 +1,71 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.service.OSINTOrchestratorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end performLookup: classification, fan-out, cache, resilience guard, WebClient and
+// response decoding, with the providers' HTTP exchange stubbed in-process (see StubPipeline).
+// backend=demo measures demo-result construction instead of the WebClient path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LookupPipelineBenchmark {
+
+    @Param({"stub", "demo"})
+    public String backend;
+
+    @Param({"phone", "email", "ip"})
+    public String queryType;
+
+    private OSINTOrchestratorService orchestrator;
+    private String cachedQuery;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orchestrator = StubPipeline.orchestrator("demo".equals(backend) ? "demo_key" : "bench-key", 10_000);
+        cachedQuery = query(0);
+        orchestrator.performLookup(cachedQuery, "fast", "bench").blockLast();
+    }
+
+    // Every invocation hits the cache
+    @Benchmark
+    public List<OSINTResult> cachedLookup() {
+        return orchestrator.performLookup(cachedQuery, "fast", "bench").collectList().block();
+    }
+
+    // Every invocation misses the cache and goes to the (stubbed) provider
+    @Benchmark
+    public List<OSINTResult> uncachedLookup() {
+        return orchestrator.performLookup(query(++sequence), "fast", "bench").collectList().block();
+    }
+
+    private String query(long n) {
+        switch (queryType) {
+            case "phone":
+                return "+1415" + (1_000_000 + n % 9_000_000);
+            case "email":
+                return "user" + n + "@example.com";
+            default:
+                return "10." + ((n >> 16) & 0xff) + '.' + ((n >> 8) & 0xff) + '.' + (n & 0xff);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.phone.PhoneNumberInfo;
+import com.example.footprintx.phone.PhonePrefixTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Numbering-plan lookup of E.164 numbers in the bundled prefix trie
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PhonePrefixBenchmark {
+
+    private static final String[] NUMBERS = {
+        "+14158586273", "+14165551234", "+18005551234", "+447911123456",
+        "+442071234567", "+4915112345678", "+33612345678", "+8613812345678"
+    };
+
+    private PhonePrefixTrie trie;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/phone/numbering-plan.csv"), StandardCharsets.UTF_8))) {
+            trie = PhonePrefixTrie.load(reader, "numbering-plan.csv");
+        }
+    }
+
+    @Benchmark
+    public PhoneNumberInfo lookup() {
+        return trie.lookup(NUMBERS[next++ & (NUMBERS.length - 1)]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.model.ClassifiedQuery;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.service.QueryClassifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-query cost of type detection; run with -prof gc to check classify() stays allocation-free
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueryClassifierBenchmark {
+
+    @Param({
+        "+1 (555) 123-4567",
+        "john.doe@example.com",
+        "192.168.10.254",
+        "2001:db8::8a2e:370:7334",
+        "mail.example.co.uk",
+        "@jdoe_99",
+        "d41d8cd98f00b204e9800998ecf8427e",
+        "John Smith"
+    })
+    public String query;
+
+    @Benchmark
+    public QueryType classify() {
+        return QueryClassifier.classify(query);
+    }
+
+    @Benchmark
+    public ClassifiedQuery classifyAndNormalize() {
+        return QueryClassifier.classify(query, null);
+    }
+
+    // The regex-based detection the classifier replaced, kept as a baseline
+    @Benchmark
+    public String regexBaseline() {
+        String lowered = query.trim().toLowerCase();
+        if (lowered.matches("\\+?[1-9]\\d{1,14}") || lowered.matches("\\d{10,15}")) {
+            return "phone";
+        }
+        if (lowered.contains("@") && lowered.contains(".")) {
+            return "email";
+        }
+        if (lowered.matches("\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}")) {
+            return "ip";
+        }
+        if (lowered.matches("[a-zA-Z\\s]+")) {
+            return "name";
+        }
+        return "unknown";
+    }
+}
\ No newline at end of file
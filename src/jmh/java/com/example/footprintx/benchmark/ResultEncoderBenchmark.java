@@ -0,0 +1,76 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.codec.ResultEncoder;
+import com.example.footprintx.model.OSINTResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// SSE encoding of one provider result into a pooled Netty buffer, against the previous
+// ObjectMapper-to-String approach
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResultEncoderBenchmark {
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private ObjectMapper objectMapper;
+    private ResultEncoder encoder;
+    private OSINTResult result;
+    private long eventId;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        encoder = new ResultEncoder(objectMapper);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("ip", "134.201.250.155");
+        data.put("type", "ipv4");
+        data.put("country_name", "United States");
+        data.put("region_name", "California");
+        data.put("city", "Los Angeles");
+        data.put("latitude", 34.0453);
+        data.put("longitude", -118.2413);
+        data.put("isp", "Los Angeles Department of Water & Power");
+        result = new OSINTResult("IPStack", "ip", "134.201.250.155", "5d0f7c9e-4f43-4a59-a1a4-52b2f5d7a6c1");
+        result.setSuccess(true);
+        result.setMessage("IP geolocation lookup completed successfully");
+        result.setData(data);
+        result.setCacheStatus("miss");
+    }
+
+    @Benchmark
+    public int encodeEvent() {
+        DataBuffer buffer = encoder.encodeEvent(++eventId, result, bufferFactory);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public String objectMapperBaseline() throws JsonProcessingException {
+        return "id:" + (++eventId) + "\ndata:" + objectMapper.writeValueAsString(result) + "\n\n";
+    }
+}
\ No newline at end of file
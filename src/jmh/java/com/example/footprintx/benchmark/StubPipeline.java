@@ -0,0 +1,101 @@
+package com.example.footprintx.benchmark;
+
+import com.example.footprintx.geoip.GeoIpEngine;
+import com.example.footprintx.graph.EntityGraphEngine;
+import com.example.footprintx.phone.PhoneMetadataEngine;
+import com.example.footprintx.provider.ProviderRegistry;
+import com.example.footprintx.resilience.ProviderGuardRegistry;
+import com.example.footprintx.service.EmailInfoService;
+import com.example.footprintx.service.GeoIPService;
+import com.example.footprintx.service.LookupHistoryStore;
+import com.example.footprintx.service.OSINTOrchestratorService;
+import com.example.footprintx.service.PhoneInfoService;
+import com.example.footprintx.service.ProviderCacheSpillStore;
+import com.example.footprintx.service.ProviderResultCache;
+import com.example.footprintx.service.SocialSearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+// Wires the lookup pipeline by hand, without a Spring context, with every provider WebClient
+// answered in-process by a canned JSON body. Rate limits are lifted so they never throttle a run.
+final class StubPipeline {
+
+    static final String NUMVERIFY_JSON = """
+        {"valid":true,"number":"14158586273","local_format":"4158586273","international_format":"+14158586273",
+         "country_prefix":"+1","country_code":"US","country_name":"United States of America",
+         "location":"Novato","carrier":"AT&T Mobility LLC","line_type":"mobile"}""";
+
+    static final String IPSTACK_JSON = """
+        {"ip":"134.201.250.155","type":"ipv4","continent_code":"NA","continent_name":"North America",
+         "country_code":"US","country_name":"United States","region_code":"CA","region_name":"California",
+         "city":"Los Angeles","zip":"90013","latitude":34.0453,"longitude":-118.2413,
+         "connection":{"asn":25876,"isp":"Los Angeles Department of Water & Power"}}""";
+
+    static final String CLEARBIT_JSON = """
+        {"person":{"id":"d54c54ad-40be-4305-8a34-0ab44710b90d","name":{"fullName":"Alex MacCaw",
+         "givenName":"Alex","familyName":"MacCaw"},"email":"alex@clearbit.com","location":"San Francisco, CA, US",
+         "employment":{"domain":"clearbit.com","name":"Clearbit","title":"CEO"},
+         "linkedin":{"handle":"pub/alex-maccaw/78/929/ab5"},"twitter":{"handle":"maccaw","followers":15248}},
+         "company":{"name":"Clearbit","domain":"clearbit.com","category":{"industry":"Internet Software & Services"},
+         "metrics":{"employeesRange":"51-250"}}}""";
+
+    private StubPipeline() {}
+
+    // apiKey "demo_key" short-circuits every provider to its demo result
+    static OSINTOrchestratorService orchestrator(String apiKey, long cacheEntries) {
+        MockEnvironment environment = new MockEnvironment();
+        for (String provider : List.of("numverify", "clearbit", "ipstack")) {
+            environment.setProperty("api." + provider + ".rate-limit.requests-per-second", "1000000000");
+            environment.setProperty("api." + provider + ".rate-limit.burst", "1000000");
+            environment.setProperty("api." + provider + ".bulkhead.max-concurrent", "1000");
+            environment.setProperty("api." + provider + ".fair-scheduling.max-per-user", "1000");
+        }
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProviderGuardRegistry guards = new ProviderGuardRegistry(environment, meterRegistry);
+        ProviderResultCache cache = new ProviderResultCache(cacheEntries, Duration.ofSeconds(30),
+            new ProviderCacheSpillStore(null, null, Schedulers.boundedElastic()), meterRegistry);
+
+        // Numbering-plan lookups are off so phone queries keep exercising the provider path
+        PhoneInfoService phone = new PhoneInfoService(webClient(NUMVERIFY_JSON), cache, guards,
+            new PhoneMetadataEngine(new ClassPathResource("phone/numbering-plan.csv"), "off", meterRegistry));
+        EmailInfoService email = new EmailInfoService(webClient(CLEARBIT_JSON), cache, guards);
+        GeoIPService geo = new GeoIPService(webClient(IPSTACK_JSON), cache, guards,
+            new GeoIpEngine("", Duration.ZERO, meterRegistry, Schedulers.boundedElastic()));
+        for (Object provider : List.of(phone, email, geo)) {
+            ReflectionTestUtils.setField(provider, "apiKey", apiKey);
+            ReflectionTestUtils.setField(provider, "apiUrl", "http://stub.invalid");
+            ReflectionTestUtils.setField(provider, "cacheTtl", Duration.ofHours(1));
+        }
+
+        OSINTOrchestratorService orchestrator = new OSINTOrchestratorService(
+            new ProviderRegistry(List.of(phone, email, geo, new SocialSearchService())), meterRegistry,
+            new LookupHistoryStore(null, null, meterRegistry, Schedulers.boundedElastic()),
+            new EntityGraphEngine(false, 0, 0, 0, meterRegistry));
+        ReflectionTestUtils.setField(orchestrator, "defaultMode", "fast");
+        ReflectionTestUtils.setField(orchestrator, "lookupDeadline", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(orchestrator, "batchConcurrency", 32);
+        return orchestrator;
+    }
+
+    static WebClient webClient(String body) {
+        ExchangeFunction exchange = request -> Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(body)
+            .build());
+        return WebClient.builder().exchangeFunction(exchange).build();
+    }
+}
\ No newline at end of file
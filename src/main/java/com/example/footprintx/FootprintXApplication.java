@@ -1,11 +1,14 @@
 package com.example.footprintx;
 
+import com.example.footprintx.config.BlockHoundInstaller;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class FootprintXApplication {
     public static void main(String[] args) {
-        SpringApplication.run(FootprintXApplication.class, args);
+        SpringApplication application = new SpringApplication(FootprintXApplication.class);
+        application.addListeners(new BlockHoundInstaller());
+        application.run(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.example.footprintx.codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal CSV support for the data files the server loads and the exports it writes
+public final class Csv {
+
+    private Csv() {}
+
+    // RFC 4180 fields: commas inside double quotes, "" for a literal quote
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // The inverse of parseLine for one field: quoted only if it contains a comma, quote or line break;
+    // null is written as an empty field
+    public static void writeField(Appendable out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.append(value, start, i + 1).append('"');
+                start = i + 1;
+            }
+        }
+        out.append(value, start, value.length()).append('"');
+    }
+}
\ No newline at end of file
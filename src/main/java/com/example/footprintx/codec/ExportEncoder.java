@@ -0,0 +1,277 @@
+package com.example.footprintx.codec;
+
+import com.example.footprintx.model.HistoryExportRow;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+// Turns a stream of history rows into a gzip-compressed NDJSON or CSV file, as a stream of DataBuffers.
+// Rows are taken ROWS_PER_CHUNK at a time, only as fast as the response is written, and compressed into
+// one buffer per chunk, so memory use does not depend on the size of the export. Compression is CPU
+// work and runs on the "osint-cpu" scheduler, not on the event loop.
+@Component
+public class ExportEncoder {
+
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        private final String key;
+
+        Format(String key) {
+            this.key = key;
+        }
+
+        public String getKey() { return key; }
+
+        public static Format fromKey(String key) {
+            for (Format format : values()) {
+                if (format.key.equalsIgnoreCase(key)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int ROWS_PER_CHUNK = 256;
+    private static final int CHUNK_CAPACITY = 32 * 1024;
+    private static final String CSV_HEADER =
+        "id,recordedAt,query,queryType,provider,source,success,message,sessionId,data\r\n";
+
+    private final JsonFactory jsonFactory;
+    private final Scheduler cpuScheduler;
+    private final int gzipLevel;
+    // Deflaters holding native memory, i.e. exports that have started and not yet ended
+    private final AtomicInteger openCompressors = new AtomicInteger();
+
+    public ExportEncoder(ObjectMapper objectMapper,
+                         @Qualifier("cpuScheduler") Scheduler cpuScheduler,
+                         @Value("${osint.export.gzip-level:1}") int gzipLevel) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.cpuScheduler = cpuScheduler;
+        this.gzipLevel = gzipLevel;
+    }
+
+    public Flux<DataBuffer> encode(Flux<HistoryExportRow> rows, Format format, DataBufferFactory bufferFactory) {
+        return Flux.using(
+                () -> new GzipChunks(format, bufferFactory),
+                chunks -> rows
+                    .buffer(ROWS_PER_CHUNK)
+                    .publishOn(cpuScheduler, 2)
+                    .map(chunks::write)
+                    .concatWith(Mono.fromCallable(chunks::finish))
+                    // The compressor may hold back all of a chunk's output until it has more input
+                    .filter(buffer -> {
+                        if (buffer.readableByteCount() > 0) {
+                            return true;
+                        }
+                        DataBufferUtils.release(buffer);
+                        return false;
+                    }),
+                GzipChunks::close)
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    int openCompressors() {
+        return openCompressors.get();
+    }
+
+    // One export's compressor. Its output goes to whichever buffer the current chunk is written into.
+    private final class GzipChunks {
+
+        private final Format format;
+        private final DataBufferFactory bufferFactory;
+        private final ChunkOutputStream target = new ChunkOutputStream();
+        // Opened in the first chunk, which gets the gzip header
+        private LeveledGzipOutputStream gzip;
+        private JsonGenerator json;
+        private Writer csv;
+        private final StringBuilder csvRow = new StringBuilder(1024);
+        private boolean closed;
+
+        GzipChunks(Format format, DataBufferFactory bufferFactory) {
+            this.format = format;
+            this.bufferFactory = bufferFactory;
+        }
+
+        synchronized DataBuffer write(List<HistoryExportRow> rows) {
+            return chunk(() -> {
+                for (HistoryExportRow row : rows) {
+                    if (format == Format.NDJSON) {
+                        writeJson(row);
+                    } else {
+                        writeCsv(row);
+                    }
+                }
+                flushEncoder();
+            });
+        }
+
+        // The end of the file: whatever the compressor still holds, and the gzip trailer
+        synchronized DataBuffer finish() {
+            return chunk(() -> {
+                flushEncoder();
+                gzip.finish();
+            });
+        }
+
+        // Frees the deflater's native memory, whether or not the export was finished
+        synchronized void close() {
+            if (!closed && gzip != null) {
+                gzip.end();
+                openCompressors.decrementAndGet();
+            }
+            closed = true;
+        }
+
+        private DataBuffer chunk(ChunkWriter writer) {
+            if (closed) {
+                throw new IllegalStateException("Export already closed");
+            }
+            DataBuffer buffer = bufferFactory.allocateBuffer(CHUNK_CAPACITY);
+            target.buffer = buffer;
+            try {
+                if (gzip == null) {
+                    open();
+                }
+                writer.write();
+                return buffer;
+            } catch (IOException e) {
+                DataBufferUtils.release(buffer);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                DataBufferUtils.release(buffer);
+                throw e;
+            } finally {
+                target.buffer = null;
+            }
+        }
+
+        private void open() throws IOException {
+            gzip = new LeveledGzipOutputStream(target, gzipLevel);
+            openCompressors.incrementAndGet();
+            if (format == Format.NDJSON) {
+                json = jsonFactory.createGenerator(gzip, JsonEncoding.UTF8)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                    // Rows end with a newline instead of the default space between root values
+                    .setRootValueSeparator(null);
+            } else {
+                // OutputStreamWriter copies every string it is given into a new array first
+                csv = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+                csv.write(CSV_HEADER);
+            }
+        }
+
+        // Pushes encoded text into the compressor; GZIPOutputStream.flush does not force compressed output
+        private void flushEncoder() throws IOException {
+            if (json != null) {
+                json.flush();
+            } else {
+                csv.flush();
+            }
+        }
+
+        // Same fields and names as /api/history returns
+        private void writeJson(HistoryExportRow row) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", row.id());
+            json.writeStringField("recordedAt", Instant.ofEpochMilli(row.recordedAt()).toString());
+            json.writeStringField("query", row.query());
+            json.writeStringField("queryType", row.queryType());
+            json.writeStringField("provider", row.provider());
+            json.writeStringField("source", row.source());
+            json.writeBooleanField("success", row.success());
+            json.writeStringField("message", row.message());
+            json.writeFieldName("data");
+            if (row.data() == null) {
+                json.writeNull();
+            } else {
+                // Written by LookupHistoryStore with the same mapper, so it is valid JSON
+                json.writeRawValue(row.data());
+            }
+            json.writeStringField("sessionId", row.sessionId());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        // A row is put together in csvRow and handed to the writer whole
+        private void writeCsv(HistoryExportRow row) throws IOException {
+            StringBuilder line = csvRow;
+            line.setLength(0);
+            line.append(row.id()).append(',');
+            line.append(Instant.ofEpochMilli(row.recordedAt())).append(',');
+            Csv.writeField(line, row.query());
+            line.append(',');
+            Csv.writeField(line, row.queryType());
+            line.append(',');
+            Csv.writeField(line, row.provider());
+            line.append(',');
+            Csv.writeField(line, row.source());
+            line.append(',').append(row.success()).append(',');
+            Csv.writeField(line, row.message());
+            line.append(',');
+            Csv.writeField(line, row.sessionId());
+            line.append(',');
+            Csv.writeField(line, row.data());
+            line.append("\r\n");
+            csv.append(line);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write() throws IOException;
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, CHUNK_CAPACITY);
+            def.setLevel(level);
+        }
+
+        void end() {
+            def.end();
+        }
+    }
+
+    // Appends to the current chunk's buffer, growing it as needed
+    private static final class ChunkOutputStream extends OutputStream {
+
+        private DataBuffer buffer;
+
+        @Override
+        public void write(int b) {
+            buffer.write((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.write(bytes, offset, length);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.example.footprintx.codec;
+
+import com.example.footprintx.model.OSINTResult;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Writes OSINTResults as JSON straight into (pooled) DataBuffers with a Jackson generator,
+// without building intermediate Strings. Field order and null handling follow OSINTResult's
+// Jackson mapping, so SSE and NDJSON consumers see the same shape.
+@Component
+public class ResultEncoder {
+
+    private static final byte[] ID_PREFIX = "id:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATA_PREFIX = "data:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EVENT_END = "\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int INITIAL_CAPACITY = 512;
+
+    private final JsonFactory jsonFactory;
+
+    public ResultEncoder(ObjectMapper objectMapper) {
+        // The mapper's factory carries it as codec, so the provider data map is written with its serializers
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // One complete SSE event: "id:<id>\ndata:<json>\n\n"
+    public DataBuffer encodeEvent(long id, OSINTResult result, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_CAPACITY);
+        try {
+            buffer.write(ID_PREFIX);
+            writeDecimal(buffer, id);
+            buffer.write((byte) '\n');
+            buffer.write(DATA_PREFIX);
+            writeJson(buffer, result);
+            buffer.write(EVENT_END);
+            return buffer;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    // SSE event without an id, carrying {"error": message}
+    public DataBuffer encodeErrorEvent(String message, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(64);
+        try {
+            buffer.write(DATA_PREFIX);
+            try (JsonGenerator generator = jsonFactory.createGenerator(buffer.asOutputStream(), JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeStringField("error", message);
+                generator.writeEndObject();
+            }
+            buffer.write(EVENT_END);
+            return buffer;
+        } catch (IOException e) {
+            DataBufferUtils.release(buffer);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // One WebSocket frame of a multiplexed lookup: {"id":requestId,"event":event} plus either
+    // "result" or "message"; requestId is omitted for connection-level errors
+    public DataBuffer encodeFrame(String requestId, String event, OSINTResult result, String message,
+                                  DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(result == null ? 64 : INITIAL_CAPACITY);
+        try {
+            try (JsonGenerator generator = jsonFactory.createGenerator(buffer.asOutputStream(), JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                writeString(generator, "id", requestId);
+                generator.writeStringField("event", event);
+                if (result != null) {
+                    generator.writeFieldName("result");
+                    writeResult(generator, result);
+                }
+                writeString(generator, "message", message);
+                generator.writeEndObject();
+            }
+            return buffer;
+        } catch (IOException e) {
+            DataBufferUtils.release(buffer);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    public void writeJson(DataBuffer buffer, OSINTResult result) {
+        try (OutputStream out = buffer.asOutputStream();
+             JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            writeResult(generator, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeResult(JsonGenerator generator, OSINTResult result) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, "source", result.getSource());
+        writeString(generator, "type", result.getType());
+        writeString(generator, "query", result.getQuery());
+        generator.writeBooleanField("success", result.isSuccess());
+        writeString(generator, "message", result.getMessage());
+        if (result.getData() != null) {
+            generator.writeFieldName("data");
+            generator.writeObject(result.getData());
+        }
+        if (result.getTimestamp() != null) {
+            generator.writeStringField("timestamp", result.getTimestamp().toString());
+        }
+        writeString(generator, "sessionId", result.getSessionId());
+        writeString(generator, "cacheStatus", result.getCacheStatus());
+        generator.writeEndObject();
+    }
+
+    private void writeString(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+
+    private void writeDecimal(DataBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.write((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.write((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+}
\ No newline at end of file
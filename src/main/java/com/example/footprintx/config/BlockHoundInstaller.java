@@ -0,0 +1,26 @@
+package com.example.footprintx.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import reactor.blockhound.BlockHound;
+
+// With osint.blockhound.enabled, installs BlockHound before the server starts any Netty or Reactor
+// thread. A blocking call on an event loop or a parallel/single scheduler thread then fails with
+// BlockingOperationError instead of stalling every connection on that thread. The JVM needs
+// -XX:+AllowRedefinitionToAddDeleteMethods.
+public class BlockHoundInstaller implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockHoundInstaller.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        if (!event.getEnvironment().getProperty("osint.blockhound.enabled", Boolean.class, false)) {
+            return;
+        }
+        // Picks up BlockingCallAllowances and the Reactor and Netty integrations through ServiceLoader
+        BlockHound.install();
+        log.info("BlockHound installed: blocking calls on non-blocking threads will fail");
+    }
+}
\ No newline at end of file
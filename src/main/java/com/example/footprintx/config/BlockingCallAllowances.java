@@ -0,0 +1,18 @@
+package com.example.footprintx.config;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+// Calls BlockHound reports as blocking that never actually wait for more than a few instructions.
+// Registered through META-INF/services, so it applies both to osint.blockhound.enabled and to test runs.
+public class BlockingCallAllowances implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        // LookupHistoryStore.record offers to an ArrayBlockingQueue from event loops. offer(E) never waits
+        // for space, but parks for the queue lock while the history writer holds it to drain a batch
+        builder.allowBlockingCallsInside("java.util.concurrent.ArrayBlockingQueue", "offer");
+        // Session and batch ids: NativePRNG reads /dev/urandom, which never blocks once the kernel is seeded
+        builder.allowBlockingCallsInside("java.util.UUID", "randomUUID");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.footprintx.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+// Work that must not run on a Netty event loop gets its own named scheduler, so thread dumps and
+// BlockHound reports show which kind of work a thread is doing. Event loops and Reactor's parallel
+// scheduler only ever see non-blocking code.
+@Configuration
+public class SchedulerConfig {
+
+    private static final int CPUS = Runtime.getRuntime().availableProcessors();
+
+    // JDBC and file I/O. With osint.schedulers.virtual-threads every task gets a virtual thread instead
+    // of one of max-threads platform threads.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(@Value("${osint.schedulers.virtual-threads:false}") boolean virtualThreads,
+                                       @Value("${osint.schedulers.blocking.max-threads:0}") int maxThreads,
+                                       @Value("${osint.schedulers.blocking.max-queued:100000}") int maxQueued) {
+        if (virtualThreads) {
+            return Schedulers.fromExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("osint-blocking-", 0).factory()),
+                "osint-blocking");
+        }
+        return Schedulers.newBoundedElastic(maxThreads > 0 ? maxThreads : 10 * CPUS, maxQueued, "osint-blocking");
+    }
+
+    // CPU-bound work such as BCrypt, sized to the CPU count; a burst queues here instead of taking
+    // threads from the blocking scheduler or the event loop
+    @Bean(destroyMethod = "dispose")
+    public Scheduler cpuScheduler(@Value("${osint.schedulers.cpu.max-queued:1000}") int maxQueued) {
+        return Schedulers.newBoundedElastic(CPUS, maxQueued, "osint-cpu");
+    }
+}
\ No newline at end of file
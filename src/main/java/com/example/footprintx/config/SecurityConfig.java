@@ -1,8 +1,19 @@
 package com.example.footprintx.config;
 
+import com.example.footprintx.security.AuthTokenService;
+import com.example.footprintx.security.BearerTokenAuthenticationConverter;
+import com.example.footprintx.security.CachingBasicAuthenticationManager;
+import com.example.footprintx.security.TokenAuthenticationManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.User;
@@ -10,25 +21,55 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ReactiveAuthenticationManager basicAuthenticationManager,
+                                                         AuthTokenService tokens) {
+        // Bearer tokens are checked first; requests without one fall through to Basic
+        AuthenticationWebFilter tokenFilter = new AuthenticationWebFilter(new TokenAuthenticationManager(tokens));
+        tokenFilter.setServerAuthenticationConverter(new BearerTokenAuthenticationConverter());
+        tokenFilter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(
+            new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)));
+
         return http
             .csrf(csrf -> csrf.disable())
             .authorizeExchange(exchanges -> exchanges
                 .pathMatchers("/", "/index.html", "/styles.css", "/app.js", "/favicon.ico").permitAll()
                 .pathMatchers("/h2-console/**").permitAll()
+                .pathMatchers("/actuator/health").permitAll()
                 .anyExchange().authenticated()
             )
-            .httpBasic(httpBasic -> {})
+            .addFilterAt(tokenFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+            .httpBasic(httpBasic -> httpBasic.authenticationManager(basicAuthenticationManager))
             .headers(headers -> headers.frameOptions().disable())
             .build();
     }
 
+    // BCrypt runs on the CPU scheduler (see SchedulerConfig)
+    @Bean
+    public ReactiveAuthenticationManager basicAuthenticationManager(MapReactiveUserDetailsService userDetailsService,
+                                                                    MeterRegistry meterRegistry,
+                                                                    @Qualifier("cpuScheduler") Scheduler cpuScheduler,
+                                                                    @Value("${auth.basic-cache.ttl:5m}") Duration cacheTtl,
+                                                                    @Value("${auth.basic-cache.max-entries:10000}") long cacheEntries) {
+        UserDetailsRepositoryReactiveAuthenticationManager bcrypt =
+            new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        bcrypt.setPasswordEncoder(passwordEncoder());
+        bcrypt.setScheduler(cpuScheduler);
+        return new CachingBasicAuthenticationManager(bcrypt, cacheTtl, cacheEntries, meterRegistry);
+    }
+
     @Bean
     public MapReactiveUserDetailsService userDetailsService() {
         UserDetails user = User.builder()
@@ -1,22 +1,87 @@
 package com.example.footprintx.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebConfig {
 
+    private final Environment environment;
+
+    public WebConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean
+    public WebClient numverifyWebClient() {
+        return providerWebClient("numverify");
+    }
+
+    @Bean
+    public WebClient clearbitWebClient() {
+        return providerWebClient("clearbit");
+    }
+
     @Bean
-    public WebClient webClient() {
+    public WebClient ipstackWebClient() {
+        return providerWebClient("ipstack");
+    }
+
+    // Each provider gets its own connection pool and DNS cache, configured under
+    // api.<provider>.pool.*, api.<provider>.dns.* and api.<provider>.timeout.*
+    private WebClient providerWebClient(String provider) {
+        String prefix = "api." + provider + ".";
+        ConnectionProvider pool = ConnectionProvider.builder(provider)
+            .maxConnections(property(prefix + "pool.max-connections", Integer.class, 50))
+            .pendingAcquireMaxCount(property(prefix + "pool.pending-acquire-max", Integer.class, 200))
+            .pendingAcquireTimeout(property(prefix + "pool.pending-acquire-timeout", Duration.class, Duration.ofSeconds(2)))
+            .maxIdleTime(property(prefix + "pool.max-idle-time", Duration.class, Duration.ofSeconds(30)))
+            .maxLifeTime(property(prefix + "pool.max-life-time", Duration.class, Duration.ofMinutes(5)))
+            .evictInBackground(Duration.ofSeconds(30))
+            .build();
+
+        Duration dnsTtl = property(prefix + "dns.cache-max-ttl", Duration.class, Duration.ofMinutes(5));
+        HttpClient httpClient = HttpClient.create(pool)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                (int) property(prefix + "timeout.connect", Duration.class, Duration.ofSeconds(2)).toMillis())
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .keepAlive(true)
+            .responseTimeout(property(prefix + "timeout.response", Duration.class, Duration.ofSeconds(5)))
+            // Netty's non-blocking resolver with a TTL-bounded cache instead of per-connect JDK lookups
+            .resolver(spec -> spec
+                .cacheMaxTimeToLive(dnsTtl)
+                .cacheNegativeTimeToLive(Duration.ofSeconds(10)));
+
+        // h2 is negotiated through ALPN, so it needs TLS; a plain http:// url (such as the stub
+        // providers) stays on HTTP/1.1
+        String url = property(prefix + "url", String.class, "");
+        if (property(prefix + "pool.http2", Boolean.class, false) && url.startsWith("https:")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+
+        int maxResponseSize = property(prefix + "max-response-size", Integer.class, 256 * 1024);
         return WebClient.builder()
-            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxResponseSize))
             .build();
     }
 
+    private <T> T property(String key, Class<T> type, T defaultValue) {
+        return environment.getProperty(key, type, defaultValue);
+    }
+
     @Bean
     public CorsWebFilter corsWebFilter() {
         CorsConfiguration corsConfig = new CorsConfiguration();
@@ -0,0 +1,19 @@
+package com.example.footprintx.config;
+
+import com.example.footprintx.controller.LookupWebSocketHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+@Configuration
+public class WebSocketConfig {
+
+    // Ahead of the annotated controllers; WebFlux registers the WebSocketHandlerAdapter itself
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(LookupWebSocketHandler lookupWebSocketHandler) {
+        return new SimpleUrlHandlerMapping(Map.of("/api/ws", lookupWebSocketHandler), -1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.footprintx.controller;
+
+import com.example.footprintx.security.AuthTokenService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    private final AuthTokenService tokens;
+
+    public AuthController(AuthTokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    // Exchanges a Basic login for a bearer token. A token cannot be used to get a new one, so a leaked
+    // token stops working when it expires.
+    @PostMapping("/token")
+    public Mono<ResponseEntity<Map<String, Object>>> issueToken(Authentication authentication) {
+        if (authentication instanceof PreAuthenticatedAuthenticationToken) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", "Tokens are issued for Basic credentials only")));
+        }
+        String token = tokens.issue(authentication.getName(), authentication.getAuthorities());
+        return Mono.just(ResponseEntity.ok(Map.of(
+            "token", token,
+            "tokenType", "Bearer",
+            "expiresIn", tokens.getTtl().toSeconds()
+        )));
+    }
+}
\ No newline at end of file
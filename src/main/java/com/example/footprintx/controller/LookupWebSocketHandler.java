@@ -0,0 +1,227 @@
+package com.example.footprintx.controller;
+
+import com.example.footprintx.codec.ResultEncoder;
+import com.example.footprintx.model.LookupCommand;
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.resilience.Caller;
+import com.example.footprintx.service.OSINTOrchestratorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Many concurrent lookups over one WebSocket (see LookupCommand for the client messages). Every frame
+// sent back is tagged with the lookup's id: "result" for each OSINTResult, then exactly one of "done",
+// "cancelled" or "error".
+//
+// Per connection, osint.websocket.max-concurrent-lookups run at once and later ones queue, up to
+// osint.websocket.max-pending-lookups in total. Frames are only produced as fast as the socket
+// drains them, so a slow client holds back its own lookups rather than buffering on the server.
+// Replies to the client's own messages (errors for bad commands) are queued up to
+// osint.websocket.max-queued-control-frames; a client that keeps sending without reading is closed
+// with a policy violation.
+@Component
+public class LookupWebSocketHandler implements WebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LookupWebSocketHandler.class);
+
+    private final OSINTOrchestratorService orchestratorService;
+    private final ResultEncoder resultEncoder;
+    private final ObjectMapper objectMapper;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger activeLookups = new AtomicInteger();
+
+    @Value("${osint.websocket.max-concurrent-lookups:16}")
+    private int maxConcurrentLookups;
+
+    @Value("${osint.websocket.max-pending-lookups:256}")
+    private int maxPendingLookups;
+
+    @Value("${osint.websocket.max-queued-control-frames:64}")
+    private int maxQueuedControlFrames;
+
+    public LookupWebSocketHandler(OSINTOrchestratorService orchestratorService,
+                                  ResultEncoder resultEncoder,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.orchestratorService = orchestratorService;
+        this.resultEncoder = resultEncoder;
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("osint.websocket.connections", connections, AtomicInteger::get)
+            .description("Open lookup WebSocket connections")
+            .register(meterRegistry);
+        Gauge.builder("osint.websocket.lookups.active", activeLookups, AtomicInteger::get)
+            .description("Lookups running on WebSocket connections")
+            .register(meterRegistry);
+    }
+
+    // The handshake was authenticated, so there is always a principal
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        return session.getHandshakeInfo().getPrincipal().flatMap(principal -> {
+            Connection connection = new Connection(session, principal.getName());
+            Mono<Void> inbound = session.receive()
+                .doOnNext(connection::onMessage)
+                .doFinally(signal -> connection.close())
+                .then();
+            return session.send(connection.outbound())
+                .and(inbound)
+                .doOnSubscribe(subscription -> connections.incrementAndGet())
+                .doFinally(signal -> connections.decrementAndGet());
+        });
+    }
+
+    private final class Connection {
+
+        private final WebSocketSession session;
+        private final String user;
+        // Lookups that are queued or running, by client id
+        private final Map<String, Lookup> lookups = new ConcurrentHashMap<>();
+        private final Sinks.Many<Flux<WebSocketMessage>> pending = Sinks.many().unicast().onBackpressureBuffer();
+        private final Sinks.Many<WebSocketMessage> control;
+        // Only touched on the connection's event loop
+        private boolean closing;
+
+        Connection(WebSocketSession session, String user) {
+            this.session = session;
+            this.user = user;
+            this.control = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<WebSocketMessage>get(maxQueuedControlFrames).get());
+        }
+
+        Flux<WebSocketMessage> outbound() {
+            // Frames still queued when the connection closes hold pooled buffers
+            return Flux.merge(control.asFlux(), Flux.merge(pending.asFlux(), maxConcurrentLookups))
+                .doOnDiscard(WebSocketMessage.class, message -> DataBufferUtils.release(message.getPayload()));
+        }
+
+        // Called on the connection's event loop, one message at a time
+        void onMessage(WebSocketMessage message) {
+            LookupCommand command;
+            try (InputStream in = message.getPayload().asInputStream()) {
+                command = objectMapper.readValue(in, LookupCommand.class);
+            } catch (IOException e) {
+                sendControl(null, "error", "Malformed message");
+                return;
+            }
+            if (command.id() == null || command.id().isBlank()) {
+                sendControl(null, "error", "Every message needs an id");
+                return;
+            }
+            if ("lookup".equals(command.op())) {
+                startLookup(command);
+            } else if ("cancel".equals(command.op())) {
+                Lookup lookup = lookups.get(command.id());
+                if (lookup == null) {
+                    sendControl(command.id(), "error", "No lookup in progress with this id");
+                } else {
+                    lookup.cancel();
+                }
+            } else {
+                sendControl(command.id(), "error", "Unknown op: " + command.op());
+            }
+        }
+
+        private void startLookup(LookupCommand command) {
+            String id = command.id();
+            if (command.query() == null || command.query().isBlank()) {
+                sendControl(id, "error", "Query is required");
+                return;
+            }
+            if (lookups.size() >= maxPendingLookups) {
+                sendControl(id, "error", "Too many lookups in progress on this connection");
+                return;
+            }
+            Lookup lookup = new Lookup();
+            if (lookups.putIfAbsent(id, lookup) != null) {
+                sendControl(id, "error", "A lookup with this id is already in progress");
+                return;
+            }
+
+            Flux<WebSocketMessage> frames = Flux.defer(() -> {
+                activeLookups.incrementAndGet();
+                return orchestratorService.performLookup(command.query(), command.type(), command.mode(), session.getId())
+                    .contextWrite(Caller.interactive(user))
+                    .takeUntilOther(lookup.cancelled.asMono())
+                    .map(result -> frame(id, "result", result, null))
+                    .concatWith(Mono.fromSupplier(() -> {
+                        // Free the id before the client can see the last frame and reuse it
+                        lookups.remove(id, lookup);
+                        return frame(id, lookup.isCancelled() ? "cancelled" : "done", null, null);
+                    }))
+                    .onErrorResume(error -> {
+                        log.warn("WebSocket lookup {} failed", id, error);
+                        return Mono.just(frame(id, "error", null, "Lookup failed"));
+                    })
+                    .doFinally(signal -> activeLookups.decrementAndGet());
+            }).doFinally(signal -> lookups.remove(id, lookup));
+
+            if (pending.tryEmitNext(frames).isFailure()) {
+                lookups.remove(id, lookup);
+            }
+        }
+
+        // The client has gone: stop everything still queued or running
+        void close() {
+            lookups.values().forEach(Lookup::cancel);
+            pending.tryEmitComplete();
+            control.tryEmitComplete();
+        }
+
+        private void sendControl(String id, String event, String message) {
+            if (closing) {
+                return;
+            }
+            WebSocketMessage frame = frame(id, event, null, message);
+            Sinks.EmitResult result = control.tryEmitNext(frame);
+            if (result.isFailure()) {
+                DataBufferUtils.release(frame.getPayload());
+                if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                    closing = true;
+                    log.debug("Closing WebSocket {}: client is not reading replies", session.getId());
+                    session.close(CloseStatus.POLICY_VIOLATION.withReason("Too many unread replies")).subscribe();
+                }
+            }
+        }
+
+        private WebSocketMessage frame(String id, String event, OSINTResult result, String message) {
+            return new WebSocketMessage(WebSocketMessage.Type.TEXT,
+                resultEncoder.encodeFrame(id, event, result, message, session.bufferFactory()));
+        }
+    }
+
+    private static final class Lookup {
+
+        // Completes a queued or running lookup early; a queued one ends as soon as it is started
+        private final Sinks.One<Boolean> cancelled = Sinks.one();
+        private volatile boolean cancelRequested;
+
+        void cancel() {
+            cancelRequested = true;
+            cancelled.tryEmitValue(true);
+        }
+
+        boolean isCancelled() {
+            return cancelRequested;
+        }
+    }
+}
\ No newline at end of file
@@ -1,88 +1,194 @@
 package com.example.footprintx.controller;
 
+import com.example.footprintx.codec.ExportEncoder;
+import com.example.footprintx.codec.ResultEncoder;
+import com.example.footprintx.model.HistoryEntry;
+import com.example.footprintx.model.HistoryExportRow;
 import com.example.footprintx.model.LookupRequest;
 import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.PivotResult;
+import com.example.footprintx.resilience.Caller;
+import com.example.footprintx.service.LookupHistoryStore;
+import com.example.footprintx.service.LookupSession;
 import com.example.footprintx.service.OSINTOrchestratorService;
+import com.example.footprintx.service.SessionRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.security.Principal;
+import java.time.Instant;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api")
 public class OSINTController {
     
     private final OSINTOrchestratorService orchestratorService;
-    private final Map<String, String> activeSessions = new ConcurrentHashMap<>();
+    private final SessionRegistry sessionRegistry;
+    private final ResultEncoder resultEncoder;
+    private final LookupHistoryStore historyStore;
+    private final ExportEncoder exportEncoder;
 
-    public OSINTController(OSINTOrchestratorService orchestratorService) {
+    public OSINTController(OSINTOrchestratorService orchestratorService,
+                           SessionRegistry sessionRegistry,
+                           ResultEncoder resultEncoder,
+                           LookupHistoryStore historyStore,
+                           ExportEncoder exportEncoder) {
         this.orchestratorService = orchestratorService;
+        this.sessionRegistry = sessionRegistry;
+        this.resultEncoder = resultEncoder;
+        this.historyStore = historyStore;
+        this.exportEncoder = exportEncoder;
     }
 
     @PostMapping("/lookup")
-    public Mono<Map<String, String>> startLookup(@RequestBody LookupRequest request) {
-        String sessionId = UUID.randomUUID().toString();
-        activeSessions.put(sessionId, request.getQuery());
+    public Mono<Map<String, String>> startLookup(@RequestBody LookupRequest request, Principal principal) {
+        LookupSession session = sessionRegistry.create(request, principal.getName());
         
         return Mono.just(Map.of(
-            "sessionId", sessionId,
+            "sessionId", session.getId(),
             "status", "started",
             "query", request.getQuery()
         ));
     }
 
+    // Browsers resend the last received id in Last-Event-ID when they reconnect; clients that
+    // reconnect manually can pass it as the lastEventId query parameter instead.
+    // Events are encoded straight into the response's pooled buffers and flushed one by one.
     @GetMapping(value = "/stream/{sessionId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<String> streamResults(@PathVariable String sessionId) {
-        String query = activeSessions.get(sessionId);
+    public Mono<Void> streamResults(
+            @PathVariable String sessionId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            Principal principal,
+            ServerHttpResponse response) {
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        response.getHeaders().setCacheControl("no-cache");
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        LookupSession session = ownSession(sessionId, principal);
         
-        if (query == null) {
-            return Flux.just("data: {\"error\":\"Session not found\"}\n\n");
+        if (session == null) {
+            return response.writeWith(Mono.fromSupplier(
+                () -> resultEncoder.encodeErrorEvent("Session not found", bufferFactory)));
         }
 
-        return orchestratorService.performLookup(query)
-            .map(this::formatAsSSE)
-            .doOnComplete(() -> activeSessions.remove(sessionId))
-            .doOnError(error -> activeSessions.remove(sessionId));
+        long lastEventId = parseEventId(lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
+        Flux<Mono<DataBuffer>> events = sessionRegistry.stream(session, lastEventId)
+            .map(event -> Mono.just(resultEncoder.encodeEvent(event.id(), event.result(), bufferFactory)));
+        return response.writeAndFlushWith(events);
+    }
+
+    // Batches are bulk work: their provider calls wait for interactive ones
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OSINTResult> batchLookup(@RequestBody Flux<LookupRequest> requests, Principal principal) {
+        return orchestratorService.performBatchLookup(requests)
+            .contextWrite(Caller.bulk(principal.getName()));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.TEXT_PLAIN_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OSINTResult> batchLookupLines(@RequestBody Flux<String> lines, Principal principal) {
+        return orchestratorService.performBatchLookup(lines.map(line -> new LookupRequest(line, null)))
+            .contextWrite(Caller.bulk(principal.getName()));
     }
 
     @GetMapping("/sessions/{sessionId}/status")
-    public Mono<Map<String, Object>> getSessionStatus(@PathVariable String sessionId) {
-        boolean active = activeSessions.containsKey(sessionId);
+    public Mono<Map<String, Object>> getSessionStatus(@PathVariable String sessionId, Principal principal) {
+        LookupSession session = ownSession(sessionId, principal);
         return Mono.just(Map.of(
             "sessionId", sessionId,
-            "active", active,
-            "query", activeSessions.getOrDefault(sessionId, "")
+            "active", session != null && !session.isCompleted(),
+            "query", session != null ? session.getRequest().getQuery() : ""
         ));
     }
 
-    private String formatAsSSE(OSINTResult result) {
-        try {
-            String jsonData = String.format(
-                "{\"source\":\"%s\",\"type\":\"%s\",\"query\":\"%s\",\"success\":%s,\"message\":\"%s\",\"timestamp\":\"%s\",\"sessionId\":\"%s\"}",
-                escapeJson(result.getSource()),
-                escapeJson(result.getType()),
-                escapeJson(result.getQuery()),
-                result.isSuccess(),
-                escapeJson(result.getMessage()),
-                result.getTimestamp().toString(),
-                escapeJson(result.getSessionId())
-            );
-            return "data: " + jsonData + "\n\n";
-        } catch (Exception e) {
-            return "data: {\"error\":\"Failed to format result\"}\n\n";
+    // Entities connected to the query in earlier lookups; depth 2 also follows their connections
+    @GetMapping("/graph/pivot")
+    public Mono<PivotResult> pivot(
+            @RequestParam String query,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "1") int depth,
+            @RequestParam(defaultValue = "100") int limit,
+            Principal principal) {
+        return orchestratorService.pivot(query, type, Math.max(1, Math.min(depth, 3)), Math.max(1, Math.min(limit, 1000)))
+            .contextWrite(Caller.interactive(principal.getName()));
+    }
+
+    // The caller's own lookups only. from/to are ISO-8601 instants, e.g. 2024-05-01T00:00:00Z; newest entries first
+    @GetMapping("/history")
+    public Flux<HistoryEntry> searchHistory(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "100") int limit,
+            Principal principal) {
+        return historyStore.search(principal.getName(), query, type, from, to, Math.max(1, Math.min(limit, 1000)));
+    }
+
+    // Every matching history entry of the caller, oldest first, as a gzip-compressed NDJSON or CSV download.
+    // Rows are read and compressed only as fast as the client downloads them.
+    @GetMapping("/history/export")
+    public Mono<Void> exportHistory(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String sessionId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            Principal principal,
+            ServerHttpResponse response) {
+        return export(historyStore.export(principal.getName(), query, type, from, to, sessionId), format,
+            "history", response);
+    }
+
+    // The recorded results of one of the caller's lookup sessions, batches or WebSocket connections,
+    // also after it has ended
+    @GetMapping("/sessions/{sessionId}/export")
+    public Mono<Void> exportSession(
+            @PathVariable String sessionId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            Principal principal,
+            ServerHttpResponse response) {
+        return export(historyStore.export(principal.getName(), null, null, null, null, sessionId), format,
+            "session-" + sessionId.replaceAll("[^A-Za-z0-9_-]", "_"), response);
+    }
+
+    private Mono<Void> export(Flux<HistoryExportRow> rows, String formatKey, String name, ServerHttpResponse response) {
+        ExportEncoder.Format format = ExportEncoder.Format.fromKey(formatKey);
+        if (format == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + formatKey));
         }
+        // The file itself is gzip, not a gzip Content-Encoding of NDJSON or CSV, so clients save it compressed
+        response.getHeaders().setContentType(MediaType.parseMediaType("application/gzip"));
+        response.getHeaders().setContentDisposition(
+            ContentDisposition.attachment().filename(name + "." + format.getKey() + ".gz").build());
+        return response.writeWith(exportEncoder.encode(rows, format, response.bufferFactory()));
     }
 
-    private String escapeJson(String input) {
-        if (input == null) return "";
-        return input.replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+    // Another user's session is answered like one that does not exist, so session ids cannot be probed
+    private LookupSession ownSession(String sessionId, Principal principal) {
+        LookupSession session = sessionRegistry.get(sessionId);
+        return session != null && session.getUser().equals(principal.getName()) ? session : null;
+    }
+
+    private long parseEventId(String eventId) {
+        if (eventId == null || eventId.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(eventId.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.example.footprintx.geoip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Read-only view of a database file written by GeoIpDatabaseBuilder. The file is memory-mapped and
+// queried in place: a lookup is a binary search over a sorted range table plus one record decode.
+//
+// Layout (big-endian):
+//   header   magic "FXGEOIP1", u32 version, u32 ipv4 ranges, u32 ipv6 ranges, u32 records, i64 built-at millis
+//   ipv4     per range: u32 first, u32 last, u32 record index                          (sorted, disjoint)
+//   ipv6     per range: u64 first high, u64 first low, u64 last high, u64 last low, u32 record index
+//   records  per record: 8 string refs (continent, country code/name, region code/name, city, zip, isp),
+//            i32 latitude and longitude in millionths of a degree, u32 asn
+//   strings  per string: u16 length, UTF-8 bytes; string refs are offsets into this section
+public final class GeoIpDatabase {
+
+    static final byte[] MAGIC = "FXGEOIP1".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int IPV4_ENTRY_SIZE = 12;
+    static final int IPV6_ENTRY_SIZE = 36;
+    static final int STRING_FIELDS = 8;
+    static final int RECORD_SIZE = STRING_FIELDS * 4 + 12;
+    // Markers for absent values
+    static final int NO_STRING = -1;
+    static final int NO_COORDINATE = Integer.MIN_VALUE;
+    static final int NO_ASN = 0;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int ipv4Count;
+    private final int ipv6Count;
+    private final int recordCount;
+    private final long builtAtMillis;
+    private final int ipv4Offset;
+    private final int ipv6Offset;
+    private final int recordOffset;
+    private final int stringOffset;
+
+    private GeoIpDatabase(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE) {
+            throw new IOException(path + " is too small to be a GeoIP database");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException(path + " is not a GeoIP database");
+        }
+        int version = buffer.getInt(8);
+        if (version != VERSION) {
+            throw new IOException(path + " has unsupported version " + version);
+        }
+        this.ipv4Count = buffer.getInt(12);
+        this.ipv6Count = buffer.getInt(16);
+        this.recordCount = buffer.getInt(20);
+        this.builtAtMillis = buffer.getLong(24);
+        if (ipv4Count < 0 || ipv6Count < 0 || recordCount < 0) {
+            throw new IOException(path + " has a corrupt header");
+        }
+        long ipv6Start = HEADER_SIZE + (long) ipv4Count * IPV4_ENTRY_SIZE;
+        long recordStart = ipv6Start + (long) ipv6Count * IPV6_ENTRY_SIZE;
+        long stringStart = recordStart + (long) recordCount * RECORD_SIZE;
+        if (stringStart > buffer.capacity()) {
+            throw new IOException(path + " is truncated");
+        }
+        this.ipv4Offset = HEADER_SIZE;
+        this.ipv6Offset = (int) ipv6Start;
+        this.recordOffset = (int) recordStart;
+        this.stringOffset = (int) stringStart;
+        validate();
+    }
+
+    public static GeoIpDatabase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than 2 GB");
+            }
+            // The mapping stays valid after the channel is closed and is released with the buffer
+            return new GeoIpDatabase(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    // address is 4 (IPv4) or 16 (IPv6) bytes in network order; null when no range contains it
+    public GeoIpRecord find(byte[] address) {
+        int index = address.length == 4 ? findIpv4(address) : address.length == 16 ? findIpv6(address) : -1;
+        return index < 0 ? null : readRecord(index);
+    }
+
+    private int findIpv4(byte[] address) {
+        int key = (int) readLong(address, 0, 4);
+        int low = 0;
+        int high = ipv4Count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = ipv4Offset + mid * IPV4_ENTRY_SIZE;
+            if (Integer.compareUnsigned(key, buffer.getInt(entry)) < 0) {
+                high = mid - 1;
+            } else if (Integer.compareUnsigned(key, buffer.getInt(entry + 4)) > 0) {
+                low = mid + 1;
+            } else {
+                return buffer.getInt(entry + 8);
+            }
+        }
+        return -1;
+    }
+
+    private int findIpv6(byte[] address) {
+        long keyHigh = readLong(address, 0, 8);
+        long keyLow = readLong(address, 8, 8);
+        int low = 0;
+        int high = ipv6Count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = ipv6Offset + mid * IPV6_ENTRY_SIZE;
+            if (compare(keyHigh, keyLow, buffer.getLong(entry), buffer.getLong(entry + 8)) < 0) {
+                high = mid - 1;
+            } else if (compare(keyHigh, keyLow, buffer.getLong(entry + 16), buffer.getLong(entry + 24)) > 0) {
+                low = mid + 1;
+            } else {
+                return buffer.getInt(entry + 32);
+            }
+        }
+        return -1;
+    }
+
+    private GeoIpRecord readRecord(int index) {
+        int record = recordOffset + index * RECORD_SIZE;
+        int latitude = buffer.getInt(record + STRING_FIELDS * 4);
+        int longitude = buffer.getInt(record + STRING_FIELDS * 4 + 4);
+        long asn = Integer.toUnsignedLong(buffer.getInt(record + STRING_FIELDS * 4 + 8));
+        return new GeoIpRecord(
+            readString(record),
+            readString(record + 4),
+            readString(record + 8),
+            readString(record + 12),
+            readString(record + 16),
+            readString(record + 20),
+            readString(record + 24),
+            latitude == NO_COORDINATE ? null : latitude / 1_000_000.0,
+            longitude == NO_COORDINATE ? null : longitude / 1_000_000.0,
+            asn == NO_ASN ? null : asn,
+            readString(record + 28));
+    }
+
+    private String readString(int refPosition) {
+        int ref = buffer.getInt(refPosition);
+        if (ref == NO_STRING) {
+            return null;
+        }
+        int position = stringOffset + ref;
+        byte[] bytes = new byte[buffer.getShort(position) & 0xffff];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Checks every range and string reference once at load time, so find() cannot read out of bounds
+    private void validate() throws IOException {
+        for (int i = 0; i < ipv4Count; i++) {
+            checkRecordIndex(buffer.getInt(ipv4Offset + i * IPV4_ENTRY_SIZE + 8));
+        }
+        for (int i = 0; i < ipv6Count; i++) {
+            checkRecordIndex(buffer.getInt(ipv6Offset + i * IPV6_ENTRY_SIZE + 32));
+        }
+        int stringsSize = buffer.capacity() - stringOffset;
+        for (int i = 0; i < recordCount; i++) {
+            int record = recordOffset + i * RECORD_SIZE;
+            for (int field = 0; field < STRING_FIELDS; field++) {
+                int ref = buffer.getInt(record + field * 4);
+                if (ref == NO_STRING) {
+                    continue;
+                }
+                if (ref < 0 || ref + 2 > stringsSize
+                        || ref + 2 + (buffer.getShort(stringOffset + ref) & 0xffff) > stringsSize) {
+                    throw new IOException(path + " has a corrupt string reference in record " + i);
+                }
+            }
+        }
+    }
+
+    private void checkRecordIndex(int index) throws IOException {
+        if (index < 0 || index >= recordCount) {
+            throw new IOException(path + " has a corrupt range table");
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = (value << 8) | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+
+    private static int compare(long high, long low, long otherHigh, long otherLow) {
+        int result = Long.compareUnsigned(high, otherHigh);
+        return result != 0 ? result : Long.compareUnsigned(low, otherLow);
+    }
+
+    public Path getPath() { return path; }
+
+    public int getIpv4RangeCount() { return ipv4Count; }
+
+    public int getIpv6RangeCount() { return ipv6Count; }
+
+    public long getBuiltAtMillis() { return builtAtMillis; }
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+package com.example.footprintx.geoip;
+
+import com.example.footprintx.codec.Csv;
+import io.netty.util.NetUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Converts a CSV of IP ranges into the binary format read by GeoIpDatabase.
+//
+// The header row names the columns. A range is given either as "network" (CIDR) or as
+// "start_ip"/"end_ip"; the other columns are optional: continent_name, country_code, country_name,
+// region_code, region_name, city, zip, latitude, longitude, asn, isp. MaxMind-style names
+// (country_iso_code, subdivision_1_name, postal_code, autonomous_system_number, ...) are accepted too.
+//
+//   java -Dloader.main=com.example.footprintx.geoip.GeoIpDatabaseBuilder \
+//        -cp footprint-x-1.0.0.jar org.springframework.boot.loader.launch.PropertiesLauncher geoip.csv geoip.fxgeo
+//
+// The output is written next to the target and moved into place, so a running server never maps a half-written file.
+public final class GeoIpDatabaseBuilder {
+
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+        Map.entry("continent_name", "continent_name"),
+        Map.entry("country_code", "country_code"),
+        Map.entry("country_iso_code", "country_code"),
+        Map.entry("country_name", "country_name"),
+        Map.entry("region_code", "region_code"),
+        Map.entry("subdivision_1_iso_code", "region_code"),
+        Map.entry("region_name", "region_name"),
+        Map.entry("subdivision_1_name", "region_name"),
+        Map.entry("city", "city"),
+        Map.entry("city_name", "city"),
+        Map.entry("zip", "zip"),
+        Map.entry("postal_code", "zip"),
+        Map.entry("latitude", "latitude"),
+        Map.entry("longitude", "longitude"),
+        Map.entry("asn", "asn"),
+        Map.entry("autonomous_system_number", "asn"),
+        Map.entry("isp", "isp"),
+        Map.entry("autonomous_system_organization", "isp"),
+        Map.entry("network", "network"),
+        Map.entry("start_ip", "start_ip"),
+        Map.entry("end_ip", "end_ip"));
+
+    private final List<Range> ipv4 = new ArrayList<>();
+    private final List<Range> ipv6 = new ArrayList<>();
+    private final Map<GeoIpRecord, Integer> recordIndex = new HashMap<>();
+    private final List<GeoIpRecord> records = new ArrayList<>();
+    private final Map<String, Integer> stringRefs = new HashMap<>();
+    private final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: GeoIpDatabaseBuilder <input.csv> <output.fxgeo>");
+            System.exit(2);
+        }
+        GeoIpDatabaseBuilder builder = new GeoIpDatabaseBuilder();
+        builder.readCsv(Path.of(args[0]));
+        builder.write(Path.of(args[1]));
+        System.out.printf("Wrote %s: %d IPv4 ranges, %d IPv6 ranges, %d distinct records%n",
+            args[1], builder.ipv4.size(), builder.ipv6.size(), builder.records.size());
+    }
+
+    public void readCsv(Path csv) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException(csv + " is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> header = Csv.parseLine(headerLine.replace("\uFEFF", ""));
+            for (int i = 0; i < header.size(); i++) {
+                String column = COLUMN_ALIASES.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+                if (column != null) {
+                    columns.putIfAbsent(column, i);
+                }
+            }
+            if (!columns.containsKey("network") && !(columns.containsKey("start_ip") && columns.containsKey("end_ip"))) {
+                throw new IOException(csv + " needs a network column or start_ip and end_ip columns");
+            }
+
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    addRow(Csv.parseLine(line), columns, lineNumber);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(csv + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void addRow(List<String> row, Map<String, Integer> columns, int lineNumber) {
+        byte[] first;
+        byte[] last;
+        String network = value(row, columns, "network");
+        if (network != null) {
+            int slash = network.indexOf('/');
+            if (slash < 0) {
+                throw new IllegalArgumentException("network must be in CIDR form: " + network);
+            }
+            first = parseAddress(network.substring(0, slash));
+            int prefix = Integer.parseInt(network.substring(slash + 1));
+            if (prefix < 0 || prefix > first.length * 8) {
+                throw new IllegalArgumentException("invalid prefix length: " + network);
+            }
+            last = first.clone();
+            for (int bit = prefix; bit < first.length * 8; bit++) {
+                first[bit / 8] &= (byte) ~(0x80 >>> (bit % 8));
+                last[bit / 8] |= (byte) (0x80 >>> (bit % 8));
+            }
+        } else {
+            first = parseAddress(value(row, columns, "start_ip"));
+            last = parseAddress(value(row, columns, "end_ip"));
+            if (first.length != last.length) {
+                throw new IllegalArgumentException("start_ip and end_ip are different address families");
+            }
+            if (Arrays.compareUnsigned(first, last) > 0) {
+                throw new IllegalArgumentException("start_ip is after end_ip");
+            }
+        }
+
+        GeoIpRecord record = new GeoIpRecord(
+            value(row, columns, "continent_name"),
+            value(row, columns, "country_code"),
+            value(row, columns, "country_name"),
+            value(row, columns, "region_code"),
+            value(row, columns, "region_name"),
+            value(row, columns, "city"),
+            value(row, columns, "zip"),
+            decimal(value(row, columns, "latitude")),
+            decimal(value(row, columns, "longitude")),
+            asn(value(row, columns, "asn")),
+            value(row, columns, "isp"));
+        int index = recordIndex.computeIfAbsent(record, key -> {
+            records.add(key);
+            return records.size() - 1;
+        });
+        (first.length == 4 ? ipv4 : ipv6).add(new Range(
+            high(first), low(first), high(last), low(last), index, lineNumber));
+    }
+
+    public void write(Path output) throws IOException {
+        sortAndCheck(ipv4);
+        sortAndCheck(ipv6);
+
+        Path absolute = output.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                // Records first, so the string section is complete before anything is written
+                ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(records.size() * GeoIpDatabase.RECORD_SIZE);
+                DataOutputStream recordOut = new DataOutputStream(recordBytes);
+                for (GeoIpRecord record : records) {
+                    writeRecord(recordOut, record);
+                }
+
+                out.write(GeoIpDatabase.MAGIC);
+                out.writeInt(GeoIpDatabase.VERSION);
+                out.writeInt(ipv4.size());
+                out.writeInt(ipv6.size());
+                out.writeInt(records.size());
+                out.writeLong(System.currentTimeMillis());
+                for (Range range : ipv4) {
+                    out.writeInt((int) range.firstLow);
+                    out.writeInt((int) range.lastLow);
+                    out.writeInt(range.record);
+                }
+                for (Range range : ipv6) {
+                    out.writeLong(range.firstHigh);
+                    out.writeLong(range.firstLow);
+                    out.writeLong(range.lastHigh);
+                    out.writeLong(range.lastLow);
+                    out.writeInt(range.record);
+                }
+                recordBytes.writeTo(out);
+                strings.writeTo(out);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeRecord(DataOutputStream out, GeoIpRecord record) throws IOException {
+        out.writeInt(stringRef(record.continentName()));
+        out.writeInt(stringRef(record.countryCode()));
+        out.writeInt(stringRef(record.countryName()));
+        out.writeInt(stringRef(record.regionCode()));
+        out.writeInt(stringRef(record.regionName()));
+        out.writeInt(stringRef(record.city()));
+        out.writeInt(stringRef(record.zip()));
+        out.writeInt(stringRef(record.isp()));
+        out.writeInt(microdegrees(record.latitude()));
+        out.writeInt(microdegrees(record.longitude()));
+        out.writeInt(record.asn() == null ? GeoIpDatabase.NO_ASN : (int) (long) record.asn());
+    }
+
+    // Identical strings (country and region names above all) are stored once
+    private int stringRef(String value) {
+        if (value == null) {
+            return GeoIpDatabase.NO_STRING;
+        }
+        return stringRefs.computeIfAbsent(value, key -> {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xffff) {
+                throw new IllegalArgumentException("value longer than 65535 bytes: " + key.substring(0, 32) + "...");
+            }
+            int ref = strings.size();
+            strings.write(bytes.length >>> 8);
+            strings.write(bytes.length);
+            strings.writeBytes(bytes);
+            return ref;
+        });
+    }
+
+    private static void sortAndCheck(List<Range> ranges) throws IOException {
+        ranges.sort(Comparator.comparing((Range range) -> range.firstHigh, Long::compareUnsigned)
+            .thenComparing(range -> range.firstLow, Long::compareUnsigned));
+        for (int i = 1; i < ranges.size(); i++) {
+            Range previous = ranges.get(i - 1);
+            Range current = ranges.get(i);
+            int order = Long.compareUnsigned(current.firstHigh, previous.lastHigh);
+            if (order < 0 || (order == 0 && Long.compareUnsigned(current.firstLow, previous.lastLow) <= 0)) {
+                throw new IOException("range on line " + current.line + " overlaps the range on line " + previous.line);
+            }
+        }
+    }
+
+    private static String value(List<String> row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static byte[] parseAddress(String value) {
+        byte[] address = value == null ? null : NetUtil.createByteArrayFromIpAddressString(value);
+        if (address == null) {
+            throw new IllegalArgumentException("not an IP address: " + value);
+        }
+        return address;
+    }
+
+    // Upper 64 bits of an IPv6 address; 0 for IPv4
+    private static long high(byte[] address) {
+        return address.length == 16 ? bits(address, 0) : 0;
+    }
+
+    private static long low(byte[] address) {
+        return address.length == 16 ? bits(address, 8) : bits(address, 0) & 0xffffffffL;
+    }
+
+    private static long bits(byte[] address, int offset) {
+        long value = 0;
+        for (int i = offset; i < Math.min(offset + 8, address.length); i++) {
+            value = (value << 8) | (address[i] & 0xff);
+        }
+        return value;
+    }
+
+    private static Double decimal(String value) {
+        return value == null ? null : Double.valueOf(value);
+    }
+
+    private static Long asn(String value) {
+        if (value == null) {
+            return null;
+        }
+        long asn = Long.parseLong(value.regionMatches(true, 0, "AS", 0, 2) ? value.substring(2) : value);
+        if (asn <= 0 || asn > 0xffffffffL) {
+            throw new IllegalArgumentException("invalid ASN: " + value);
+        }
+        return asn;
+    }
+
+    private static int microdegrees(Double degrees) {
+        return degrees == null ? GeoIpDatabase.NO_COORDINATE : (int) Math.round(degrees * 1_000_000);
+    }
+
+    private record Range(long firstHigh, long firstLow, long lastHigh, long lastLow, int record, int line) {}
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.example.footprintx.geoip;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.NetUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Local IP geolocation from the database file at geoip.database. The file is checked every
+// geoip.reload-interval and, when it has been replaced, the new version is mapped and validated in the
+// background and then swapped in atomically; lookups keep using the previous one until then.
+@Component
+public class GeoIpEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIpEngine.class);
+    private static final Object MISSING = new Object();
+
+    private final Path path;
+    private final Duration reloadInterval;
+    private final Scheduler blockingScheduler;
+    private final AtomicReference<GeoIpDatabase> database = new AtomicReference<>();
+    private volatile Object loadedVersion;
+    private Disposable reloader;
+
+    public GeoIpEngine(@Value("${geoip.database:}") String databasePath,
+                       @Value("${geoip.reload-interval:30s}") Duration reloadInterval,
+                       MeterRegistry meterRegistry,
+                       @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.path = databasePath.isBlank() ? null : Path.of(databasePath);
+        this.reloadInterval = reloadInterval;
+        this.blockingScheduler = blockingScheduler;
+
+        Gauge.builder("osint.geoip.ranges", database, current -> current.get() == null ? 0
+                : current.get().getIpv4RangeCount() + current.get().getIpv6RangeCount())
+            .description("IP ranges in the loaded GeoIP database")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (path == null) {
+            return;
+        }
+        reloadIfChanged();
+        if (!reloadInterval.isZero()) {
+            // The timer only ticks; the file check and mapping run on the blocking scheduler, one at a time
+            reloader = Flux.interval(reloadInterval, reloadInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::reloadIfChanged).subscribeOn(blockingScheduler), 1)
+                .subscribe();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reloader != null) {
+            reloader.dispose();
+        }
+    }
+
+    // Canonical IPv4/IPv6 literal in, record out; null when no database is loaded or no range matches
+    public GeoIpRecord lookup(String ipAddress) {
+        GeoIpDatabase current = database.get();
+        if (current == null) {
+            return null;
+        }
+        byte[] address = NetUtil.createByteArrayFromIpAddressString(ipAddress);
+        return address == null ? null : current.find(address);
+    }
+
+    public boolean isLoaded() {
+        return database.get() != null;
+    }
+
+    // The builder replaces the file by renaming, which gives it a new file key and modification time.
+    // A file that fails to load is reported once and not retried until it changes again.
+    synchronized void reloadIfChanged() {
+        Object version;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            version = attributes.fileKey() != null
+                ? attributes.fileKey() + "@" + attributes.lastModifiedTime()
+                : attributes.lastModifiedTime() + "/" + attributes.size();
+        } catch (IOException e) {
+            if (loadedVersion != MISSING) {
+                log.warn("GeoIP database {} is not readable, keeping the current one: {}", path, e.getMessage());
+                loadedVersion = MISSING;
+            }
+            return;
+        }
+        if (version.equals(loadedVersion)) {
+            return;
+        }
+        loadedVersion = version;
+        try {
+            GeoIpDatabase loaded = GeoIpDatabase.open(path);
+            // The old mapping is released by the GC once in-flight lookups no longer reference it
+            database.set(loaded);
+            log.info("Loaded GeoIP database {}: {} IPv4 and {} IPv6 ranges", path,
+                loaded.getIpv4RangeCount(), loaded.getIpv6RangeCount());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load GeoIP database {}, keeping the current one: {}", path, e.getMessage());
+        }
+    }
+}
\ No newline at end of file
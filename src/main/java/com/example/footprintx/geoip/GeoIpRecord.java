@@ -0,0 +1,74 @@
+package com.example.footprintx.geoip;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Location data for one IP range. Every field is optional; toData() uses the same keys as
+// IpstackResponse so local and remote results look alike to the client.
+public record GeoIpRecord(
+    String continentName,
+    String countryCode,
+    String countryName,
+    String regionCode,
+    String regionName,
+    String city,
+    String zip,
+    Double latitude,
+    Double longitude,
+    Long asn,
+    String isp
+) {
+    public Map<String, Object> toData(String ip, String type) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("ip", ip);
+        data.put("type", type);
+        putIfPresent(data, "continent_name", continentName);
+        putIfPresent(data, "country_code", countryCode);
+        putIfPresent(data, "country_name", countryName);
+        putIfPresent(data, "region_code", regionCode);
+        putIfPresent(data, "region_name", regionName);
+        putIfPresent(data, "city", city);
+        putIfPresent(data, "zip", zip);
+        putIfPresent(data, "latitude", latitude);
+        putIfPresent(data, "longitude", longitude);
+        putIfPresent(data, "asn", asn);
+        putIfPresent(data, "isp", isp);
+        return data;
+    }
+
+    // Whether the field with the given data key is known
+    public boolean has(String field) {
+        switch (field) {
+            case "continent_name":
+                return continentName != null;
+            case "country_code":
+                return countryCode != null;
+            case "country_name":
+                return countryName != null;
+            case "region_code":
+                return regionCode != null;
+            case "region_name":
+                return regionName != null;
+            case "city":
+                return city != null;
+            case "zip":
+                return zip != null;
+            case "latitude":
+                return latitude != null;
+            case "longitude":
+                return longitude != null;
+            case "asn":
+                return asn != null;
+            case "isp":
+                return isp != null;
+            default:
+                return false;
+        }
+    }
+
+    private static void putIfPresent(Map<String, Object> data, String key, Object value) {
+        if (value != null) {
+            data.put(key, value);
+        }
+    }
+}
\ No newline at end of file
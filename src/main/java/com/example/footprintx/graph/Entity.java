@@ -0,0 +1,6 @@
+package com.example.footprintx.graph;
+
+import com.example.footprintx.model.QueryType;
+
+// value is normalized the same way as a query of that type
+public record Entity(QueryType type, String value) {}
\ No newline at end of file
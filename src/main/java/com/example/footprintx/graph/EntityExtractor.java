@@ -0,0 +1,68 @@
+package com.example.footprintx.graph;
+
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.service.QueryClassifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Finds the entities in a provider result's data by field name, at any depth. A value only counts if it
+// also looks like its type, so placeholders and malformed values stay out of the graph. Every email
+// also contributes its domain.
+public final class EntityExtractor {
+
+    private static final Map<String, QueryType> FIELDS = Map.of(
+        "email", QueryType.EMAIL,
+        "international_format", QueryType.PHONE,
+        "ip", QueryType.IP,
+        "domain", QueryType.DOMAIN
+    );
+
+    private EntityExtractor() {}
+
+    public static List<Entity> extract(Map<String, Object> data) {
+        List<Entity> entities = new ArrayList<>();
+        collect(data, null, entities);
+        return entities;
+    }
+
+    private static void collect(Map<?, ?> data, Object parentKey, List<Entity> entities) {
+        for (Map.Entry<?, ?> field : data.entrySet()) {
+            Object value = field.getValue();
+            if (value instanceof Map<?, ?> nested) {
+                collect(nested, field.getKey(), entities);
+            } else if (value instanceof List<?> list) {
+                for (Object element : list) {
+                    if (element instanceof Map<?, ?> nested) {
+                        collect(nested, field.getKey(), entities);
+                    }
+                }
+            } else if (value instanceof String text && !text.isBlank()) {
+                collectValue(String.valueOf(field.getKey()), parentKey, text, entities);
+            }
+        }
+    }
+
+    private static void collectValue(String key, Object parentKey, String text, List<Entity> entities) {
+        QueryType type = FIELDS.get(key);
+        if (type != null) {
+            if (QueryClassifier.classify(text) == type) {
+                String normalized = QueryClassifier.normalize(type, text);
+                entities.add(new Entity(type, normalized));
+                if (type == QueryType.EMAIL) {
+                    entities.add(new Entity(QueryType.DOMAIN, normalized.substring(normalized.lastIndexOf('@') + 1)));
+                }
+            }
+        } else if ("name".equals(key) && "person".equals(parentKey)) {
+            // Company names share the "name" field, so only a person's counts
+            entities.add(new Entity(QueryType.NAME, QueryClassifier.normalize(QueryType.NAME, text)));
+        } else if ("twitter".equals(key)) {
+            // Profile URLs end in the handle
+            String handle = text.substring(text.lastIndexOf('/') + 1);
+            if (!handle.isBlank()) {
+                entities.add(new Entity(QueryType.USERNAME, QueryClassifier.normalize(QueryType.USERNAME, handle)));
+            }
+        }
+    }
+}
\ No newline at end of file
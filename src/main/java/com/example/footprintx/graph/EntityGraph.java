@@ -0,0 +1,316 @@
+package com.example.footprintx.graph;
+
+import com.example.footprintx.model.PivotResult;
+import com.example.footprintx.model.QueryType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Undirected graph of entities (a type and a normalized value) that turned up together in one user's
+// lookup results. Every user has their own copy of an entity, so links never lead from one user's
+// findings to another's, while all of them share the limits below. Every entity is interned to an int id; all per-entity state lives in arrays indexed by it,
+// and adjacency lists are plain int arrays, so an edge costs eight bytes and no objects.
+//
+// Bounded by maxNodes and maxEdges: once either is exceeded, least recently used entities are evicted
+// together with their edges and their ids are reused. No entity keeps more than maxDegree edges, so a
+// hub such as a webmail domain cannot make eviction or traversal expensive. Not thread-safe; see
+// EntityGraphEngine.
+public final class EntityGraph {
+
+    private static final QueryType[] TYPES = QueryType.values();
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxNodes;
+    private final long maxEdges;
+    private final int maxDegree;
+
+    // Per entity, by id
+    private String[] owners = new String[INITIAL_CAPACITY];
+    private String[] values = new String[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[][] adjacency = new int[INITIAL_CAPACITY][];
+    private int[] degree = new int[INITIAL_CAPACITY];
+    // Recency as a doubly linked list through the ids, most recent at head
+    private int[] newer = new int[INITIAL_CAPACITY];
+    private int[] older = new int[INITIAL_CAPACITY];
+    private int head = NONE;
+    private int tail = NONE;
+    // Traversal marks: an id is visited when mark[id] == generation, so no per-query set is needed
+    private int[] mark = new int[INITIAL_CAPACITY];
+    private int generation;
+
+    // Open-addressing index from (owner, type, value) to id + 1, with linear probing; 0 is an empty slot
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+    private int nodeCount;
+    private long edgeCount;
+    private long evictions;
+
+    public EntityGraph(int maxNodes, long maxEdges, int maxDegree) {
+        this.maxNodes = maxNodes;
+        this.maxEdges = maxEdges;
+        this.maxDegree = maxDegree;
+    }
+
+    // Adds the entities that are missing and an edge from the first to each of the others, marks them
+    // all as recently used, then evicts down to the limits
+    public void link(String owner, QueryType type, String value, List<Entity> related) {
+        int from = intern(owner, type, value);
+        for (Entity entity : related) {
+            int to = intern(owner, entity.type(), entity.value());
+            if (to != from) {
+                addEdge(from, to);
+            }
+        }
+        // The entities just linked are at the head, so they are the last to go
+        while ((nodeCount > maxNodes || edgeCount > maxEdges) && tail != from) {
+            evict(tail);
+        }
+    }
+
+    // Entities up to depth hops away, nearest first, at most limit of them, each with the entity it was
+    // reached through; null if the owner has not seen the entity
+    public List<PivotResult.Connection> neighbourhood(String owner, QueryType type, String value, int depth, int limit) {
+        int start = find(owner, type, value);
+        if (start == NONE) {
+            return null;
+        }
+        touch(start);
+        if (++generation == 0) {
+            Arrays.fill(mark, 0);
+            generation = 1;
+        }
+        mark[start] = generation;
+
+        List<PivotResult.Connection> connections = new ArrayList<>();
+        int[] frontier = {start};
+        int frontierSize = 1;
+        for (int hop = 1; hop <= depth && frontierSize > 0 && connections.size() < limit; hop++) {
+            int[] next = new int[16];
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize && connections.size() < limit; i++) {
+                int node = frontier[i];
+                int[] neighbours = adjacency[node];
+                for (int j = 0; j < degree[node] && connections.size() < limit; j++) {
+                    int neighbour = neighbours[j];
+                    if (mark[neighbour] == generation) {
+                        continue;
+                    }
+                    mark[neighbour] = generation;
+                    connections.add(new PivotResult.Connection(TYPES[types[neighbour]].getKey(), values[neighbour],
+                        hop, hop == 1 ? null : values[node]));
+                    if (nextSize == next.length) {
+                        next = Arrays.copyOf(next, nextSize * 2);
+                    }
+                    next[nextSize++] = neighbour;
+                }
+            }
+            frontier = next;
+            frontierSize = nextSize;
+        }
+        return connections;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    private int intern(String owner, QueryType type, String value) {
+        int id = find(owner, type, value);
+        if (id != NONE) {
+            touch(id);
+            return id;
+        }
+        id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == values.length) {
+            grow();
+        }
+        owners[id] = owner;
+        values[id] = value;
+        types[id] = (byte) type.ordinal();
+        degree[id] = 0;
+        insertSlot(id);
+        nodeCount++;
+        pushHead(id);
+        return id;
+    }
+
+    private void addEdge(int a, int b) {
+        // Scan the shorter list for an existing edge
+        int shorter = degree[a] <= degree[b] ? a : b;
+        int other = shorter == a ? b : a;
+        int[] neighbours = adjacency[shorter];
+        for (int i = 0; i < degree[shorter]; i++) {
+            if (neighbours[i] == other) {
+                return;
+            }
+        }
+        if (degree[a] >= maxDegree || degree[b] >= maxDegree) {
+            return;
+        }
+        append(a, b);
+        append(b, a);
+        edgeCount++;
+    }
+
+    private void append(int node, int neighbour) {
+        int[] neighbours = adjacency[node];
+        if (neighbours == null) {
+            neighbours = adjacency[node] = new int[4];
+        } else if (degree[node] == neighbours.length) {
+            neighbours = adjacency[node] = Arrays.copyOf(neighbours, Math.min(neighbours.length * 2, maxDegree));
+        }
+        neighbours[degree[node]++] = neighbour;
+    }
+
+    private void evict(int id) {
+        int[] neighbours = adjacency[id];
+        for (int i = 0; i < degree[id]; i++) {
+            removeNeighbour(neighbours[i], id);
+            edgeCount--;
+        }
+        removeSlot(id);
+        unlink(id);
+        owners[id] = null;
+        values[id] = null;
+        adjacency[id] = null;
+        degree[id] = 0;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        nodeCount--;
+        evictions++;
+    }
+
+    // Order within an adjacency list does not matter, so the last entry fills the gap
+    private void removeNeighbour(int node, int neighbour) {
+        int[] neighbours = adjacency[node];
+        int last = --degree[node];
+        for (int i = 0; i <= last; i++) {
+            if (neighbours[i] == neighbour) {
+                neighbours[i] = neighbours[last];
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = values.length * 2;
+        owners = Arrays.copyOf(owners, capacity);
+        values = Arrays.copyOf(values, capacity);
+        types = Arrays.copyOf(types, capacity);
+        adjacency = Arrays.copyOf(adjacency, capacity);
+        degree = Arrays.copyOf(degree, capacity);
+        newer = Arrays.copyOf(newer, capacity);
+        older = Arrays.copyOf(older, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+
+        // Keep the index at most half full
+        slots = new int[capacity * 2];
+        for (int id = 0; id < nextId; id++) {
+            if (values[id] != null) {
+                insertSlot(id);
+            }
+        }
+    }
+
+    // Index
+
+    // Package-private so tests can pick keys that collide
+    static int hash(String owner, int type, String value) {
+        int h = (value.hashCode() * 31 + owner.hashCode()) * 31 + type;
+        return h ^ (h >>> 16);
+    }
+
+    private int find(String owner, QueryType type, String value) {
+        int typeIndex = type.ordinal();
+        int mask = slots.length - 1;
+        for (int slot = hash(owner, typeIndex, value) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return NONE;
+            }
+            int id = entry - 1;
+            if (types[id] == typeIndex && values[id].equals(value) && owners[id].equals(owner)) {
+                return id;
+            }
+        }
+    }
+
+    private void insertSlot(int id) {
+        int mask = slots.length - 1;
+        int slot = hash(owners[id], types[id], values[id]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+    }
+
+    // Backward-shift deletion, so lookups never need tombstones
+    private void removeSlot(int id) {
+        int mask = slots.length - 1;
+        int gap = hash(owners[id], types[id], values[id]) & mask;
+        while (slots[gap] != id + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int slot = (gap + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            int home = hash(owners[entry], types[entry], values[entry]) & mask;
+            // The entry may move into the gap if its home slot is not between the gap and its position
+            boolean movable = gap <= slot ? (home <= gap || home > slot) : (home <= gap && home > slot);
+            if (movable) {
+                slots[gap] = slots[slot];
+                gap = slot;
+            }
+        }
+        slots[gap] = 0;
+    }
+
+    // Recency list
+
+    private void touch(int id) {
+        if (id != head) {
+            unlink(id);
+            pushHead(id);
+        }
+    }
+
+    private void pushHead(int id) {
+        newer[id] = NONE;
+        older[id] = head;
+        if (head != NONE) {
+            newer[head] = id;
+        }
+        head = id;
+        if (tail == NONE) {
+            tail = id;
+        }
+    }
+
+    private void unlink(int id) {
+        if (newer[id] != NONE) {
+            older[newer[id]] = older[id];
+        } else {
+            head = older[id];
+        }
+        if (older[id] != NONE) {
+            newer[older[id]] = newer[id];
+        } else {
+            tail = newer[id];
+        }
+    }
+}
\ No newline at end of file
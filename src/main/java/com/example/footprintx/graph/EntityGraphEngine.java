@@ -0,0 +1,79 @@
+package com.example.footprintx.graph;
+
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.PivotResult;
+import com.example.footprintx.model.QueryType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Correlates lookups: every successful provider result links the query to the entities in its data
+// (see EntityExtractor), so a later pivot to one of them can be answered from memory. Like the lookup
+// history, each user only sees what their own lookups found. Sized by
+// osint.graph.max-nodes and max-edges; least recently used entities are dropped beyond that.
+//
+// Updates take a few microseconds, so the graph is guarded by its monitor rather than handed to
+// another thread.
+@Component
+public class EntityGraphEngine {
+
+    private final EntityGraph graph;
+
+    public EntityGraphEngine(@Value("${osint.graph.enabled:false}") boolean enabled,
+                             @Value("${osint.graph.max-nodes:500000}") int maxNodes,
+                             @Value("${osint.graph.max-edges:5000000}") long maxEdges,
+                             @Value("${osint.graph.max-degree:10000}") int maxDegree,
+                             MeterRegistry meterRegistry) {
+        this.graph = enabled ? new EntityGraph(maxNodes, maxEdges, maxDegree) : null;
+
+        Gauge.builder("osint.graph.nodes", this, engine -> engine.read(EntityGraph::getNodeCount))
+            .description("Entities in the correlation graph")
+            .register(meterRegistry);
+        Gauge.builder("osint.graph.edges", this, engine -> engine.read(EntityGraph::getEdgeCount))
+            .description("Links between entities in the correlation graph")
+            .register(meterRegistry);
+        FunctionCounter.builder("osint.graph.evictions", this, engine -> engine.read(EntityGraph::getEvictions))
+            .description("Entities dropped from the correlation graph to stay within its limits")
+            .register(meterRegistry);
+    }
+
+    // query is normalized. Demo results are made up, so they are not correlated.
+    public void record(String user, String query, QueryType queryType, OSINTResult result) {
+        Map<String, Object> data = result.getData();
+        if (graph == null || !result.isSuccess() || data == null || Boolean.TRUE.equals(data.get("demo_mode"))) {
+            return;
+        }
+        List<Entity> entities = EntityExtractor.extract(data);
+        if (entities.isEmpty()) {
+            return;
+        }
+        synchronized (graph) {
+            graph.link(user, queryType, query, entities);
+        }
+    }
+
+    // null when none of the user's lookups has found the entity
+    public List<PivotResult.Connection> neighbourhood(String user, QueryType type, String value, int depth, int limit) {
+        if (graph == null) {
+            return null;
+        }
+        synchronized (graph) {
+            return graph.neighbourhood(user, type, value, depth, limit);
+        }
+    }
+
+    private double read(ToLongFunction<EntityGraph> metric) {
+        if (graph == null) {
+            return 0;
+        }
+        synchronized (graph) {
+            return metric.applyAsLong(graph);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.example.footprintx.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load against a running server: each of --concurrency users POSTs /api/lookup with a fresh
+// random query, reads /api/stream/{sessionId} to the end and starts over, for --duration after --warmup.
+// Reports lookups per second and p50/p99/p99.9 of the whole lookup (POST until the stream ends) and of
+// the POST alone. Queries are never repeated, so the provider cache does not hide the upstream calls.
+//
+//   java -Dloader.main=com.example.footprintx.loadtest.LoadDriver \
+//        -cp target/footprint-x-1.0.0.jar org.springframework.boot.loader.launch.PropertiesLauncher \
+//        --url=http://localhost:8080 --concurrency=64 --duration=60s --types=ip,phone,email
+public final class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final List<String> types;
+    // Up to an hour, at three significant digits
+    private final Histogram lookupLatency = new ConcurrentHistogram(Duration.ofHours(1).toNanos(), 3);
+    private final Histogram startLatency = new ConcurrentHistogram(Duration.ofHours(1).toNanos(), 3);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong results = new AtomicLong();
+    private final AtomicLong failedResults = new AtomicLong();
+
+    private LoadDriver(HttpClient client, List<String> types) {
+        this.client = client;
+        this.types = types;
+    }
+
+    public static void main(String[] args) {
+        quietLogging();
+        Map<String, String> options = parseOptions(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        String credentials = options.getOrDefault("user", "admin") + ":" + options.getOrDefault("password", "admin123");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        List<String> types = List.of(options.getOrDefault("types", "ip,phone,email").split(","));
+
+        ConnectionProvider pool = ConnectionProvider.builder("load-driver")
+            .maxConnections(concurrency * 2)
+            .pendingAcquireMaxCount(-1)
+            .build();
+        HttpClient client = HttpClient.create(pool)
+            .baseUrl(url)
+            .headers(headers -> headers.set(HttpHeaderNames.AUTHORIZATION, "Basic "
+                + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8))));
+
+        System.out.printf("%d users against %s for %s after %s warm-up, queries: %s%n",
+            concurrency, url, duration, warmup, String.join(",", types));
+        new LoadDriver(client, types).run(concurrency, warmup, duration);
+        pool.disposeLater().block();
+    }
+
+    private void run(int concurrency, Duration warmup, Duration duration) {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Flux.range(0, concurrency)
+            .flatMap(user -> Mono.defer(() -> lookup(measureFrom)).repeat(() -> System.nanoTime() < end), concurrency)
+            .blockLast();
+        double seconds = (System.nanoTime() - measureFrom) / 1e9;
+
+        long lookups = lookupLatency.getTotalCount();
+        System.out.printf("Lookups: %d in %.1fs = %.1f/s, errors: %d%n", lookups, seconds, lookups / seconds, errors.get());
+        System.out.printf("Provider results: %d, failed: %d (%.2f%%)%n", results.get(), failedResults.get(),
+            results.get() == 0 ? 0.0 : 100.0 * failedResults.get() / results.get());
+        printLatency("Lookup, POST to end of stream", lookupLatency);
+        printLatency("POST /api/lookup", startLatency);
+    }
+
+    // Only lookups started after the warm-up are measured
+    private Mono<Void> lookup(long measureFrom) {
+        long started = System.nanoTime();
+        boolean measured = started >= measureFrom;
+        String body = "{\"query\":\"" + randomQuery() + "\"}";
+        return client.headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON))
+            .post()
+            .uri("/api/lookup")
+            .send((request, outbound) -> outbound.sendString(Mono.just(body)))
+            .responseSingle((response, content) -> response.status().code() == 200
+                ? content.asString()
+                : Mono.error(new IllegalStateException("POST /api/lookup returned " + response.status())))
+            .flatMap(json -> {
+                if (measured) {
+                    startLatency.recordValue(System.nanoTime() - started);
+                }
+                String sessionId;
+                try {
+                    sessionId = MAPPER.readTree(json).path("sessionId").asText();
+                } catch (JsonProcessingException e) {
+                    return Mono.error(e);
+                }
+                return client.get()
+                    .uri("/api/stream/" + sessionId)
+                    .responseSingle((response, content) -> content.asString());
+            })
+            .doOnNext(stream -> {
+                if (measured) {
+                    lookupLatency.recordValue(System.nanoTime() - started);
+                    countResults(stream);
+                }
+            })
+            .onErrorResume(error -> {
+                if (measured) {
+                    errors.incrementAndGet();
+                }
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private void countResults(String stream) {
+        for (String line : stream.split("\n")) {
+            if (line.startsWith("data:")) {
+                results.incrementAndGet();
+                if (line.contains("\"success\":false")) {
+                    failedResults.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private String randomQuery() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (types.get(random.nextInt(types.size())).trim()) {
+            case "phone" -> "+1415" + (1_000_000 + random.nextInt(9_000_000));
+            case "email" -> "user" + random.nextLong(1L << 40) + "@example.com";
+            default -> (1 + random.nextInt(223)) + "." + random.nextInt(256) + "."
+                + random.nextInt(256) + "." + (1 + random.nextInt(254));
+        };
+    }
+
+    private static void printLatency(String label, Histogram histogram) {
+        System.out.printf("%s, ms: p50 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n", label,
+            histogram.getValueAtPercentile(50) / 1e6,
+            histogram.getValueAtPercentile(99) / 1e6,
+            histogram.getValueAtPercentile(99.9) / 1e6,
+            histogram.getMaxValue() / 1e6);
+    }
+
+    // Outside Spring Boot, Logback defaults to DEBUG, and logging every Netty event would cost the driver
+    // more CPU than the requests
+    static void quietLogging() {
+        LoggingSystem loggingSystem = LoggingSystem.get(LoadDriver.class.getClassLoader());
+        loggingSystem.beforeInitialize();
+        loggingSystem.setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+    }
+
+    // --name=value
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.footprintx.loadtest;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The "stub" profile runs StubProviderServer inside the app on stub.port; application-stub.yml points
+// api.<provider>.url at it. Behaviour per provider comes from stub.<provider>.*.
+@Configuration
+@Profile("stub")
+public class StubProviderConfig {
+
+    @Bean(destroyMethod = "stop")
+    public StubProviderServer stubProviderServer(Environment environment) {
+        Map<String, StubProviderServer.Behaviour> behaviours = new HashMap<>();
+        StubProviderServer.Behaviour defaults = StubProviderServer.Behaviour.DEFAULT;
+        for (String provider : List.of("numverify", "clearbit", "ipstack")) {
+            String prefix = "stub." + provider + ".";
+            behaviours.put(provider, new StubProviderServer.Behaviour(
+                environment.getProperty(prefix + "latency.median", Duration.class, defaults.medianLatency()),
+                environment.getProperty(prefix + "latency.p99", Duration.class, defaults.p99Latency()),
+                environment.getProperty(prefix + "error-rate", Double.class, defaults.errorRate()),
+                environment.getProperty(prefix + "rate-limit", Integer.class, defaults.rateLimit())));
+        }
+        return new StubProviderServer(behaviours).start(environment.getProperty("stub.port", Integer.class, 8089));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.example.footprintx.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Stand-in for the Numverify, Clearbit and IPStack APIs on one Reactor Netty server, so the whole HTTP
+// path can be load-tested without keys or quotas. Point api.<provider>.url at:
+//   numverify  http://localhost:<port>/numverify/api/validate
+//   clearbit   http://localhost:<port>/clearbit/v2/combined/find
+//   ipstack    http://localhost:<port>/ipstack
+// Each provider answers after a log-normal delay with the configured median and p99, fails with HTTP 500
+// at its error rate and with 429 beyond its rate limit (requests per second, 0 for none).
+//
+// Started by the "stub" Spring profile (StubProviderConfig), or on its own:
+//   java -Dloader.main=com.example.footprintx.loadtest.StubProviderServer \
+//        -cp target/footprint-x-1.0.0.jar org.springframework.boot.loader.launch.PropertiesLauncher [port]
+public class StubProviderServer {
+
+    private static final double Z_99 = 2.3263;
+
+    public record Behaviour(Duration medianLatency, Duration p99Latency, double errorRate, int rateLimit) {
+        public static final Behaviour DEFAULT = new Behaviour(Duration.ofMillis(80), Duration.ofMillis(400), 0.01, 0);
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProviderStub numverify;
+    private final ProviderStub clearbit;
+    private final ProviderStub ipstack;
+    private DisposableServer server;
+
+    public StubProviderServer(Map<String, Behaviour> behaviours) {
+        this.numverify = new ProviderStub(behaviours.getOrDefault("numverify", Behaviour.DEFAULT));
+        this.clearbit = new ProviderStub(behaviours.getOrDefault("clearbit", Behaviour.DEFAULT));
+        this.ipstack = new ProviderStub(behaviours.getOrDefault("ipstack", Behaviour.DEFAULT));
+    }
+
+    public static void main(String[] args) {
+        LoadDriver.quietLogging();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        StubProviderServer stub = new StubProviderServer(Map.of()).start(port);
+        System.out.println("Stub providers listening on port " + stub.port());
+        stub.server.onDispose().block();
+    }
+
+    // port 0 picks a free one; see port()
+    public StubProviderServer start(int port) {
+        server = HttpServer.create()
+            .port(port)
+            .route(routes -> routes
+                .get("/numverify/api/validate", (request, response) -> respond(numverify, request, response, this::numverifyBody))
+                .get("/clearbit/v2/combined/find", (request, response) -> {
+                    if (!request.requestHeaders().contains(HttpHeaderNames.AUTHORIZATION)) {
+                        return response.status(HttpResponseStatus.UNAUTHORIZED).send();
+                    }
+                    return respond(clearbit, request, response, this::clearbitBody);
+                })
+                .get("/ipstack/{ip}", (request, response) -> respond(ipstack, request, response,
+                    params -> ipstackBody(request.param("ip"), params))))
+            .bindNow();
+        return this;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Publisher<Void> respond(ProviderStub stub, HttpServerRequest request, HttpServerResponse response,
+                                    Function<Map<String, List<String>>, Map<String, Object>> body) {
+        if (!stub.tryAcquire()) {
+            return response.status(HttpResponseStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaderNames.RETRY_AFTER, "1")
+                .send();
+        }
+        boolean fail = ThreadLocalRandom.current().nextDouble() < stub.behaviour.errorRate();
+        Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+        return Mono.delay(stub.nextLatency())
+            .then(Mono.defer(() -> fail
+                ? response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send().then()
+                : response.header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                    .sendByteArray(Mono.just(toJson(body.apply(params))))
+                    .then()));
+    }
+
+    // apilayer reports a missing key with HTTP 200 and an error object
+    private Map<String, Object> numverifyBody(Map<String, List<String>> params) {
+        if (param(params, "access_key") == null) {
+            return apilayerError();
+        }
+        String number = param(params, "number");
+        String digits = number == null ? "" : number.replaceAll("\\D", "");
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("valid", !digits.isEmpty());
+        body.put("number", digits);
+        body.put("international_format", "+" + digits);
+        body.put("country_code", "US");
+        body.put("country_name", "United States of America");
+        body.put("location", "Novato");
+        body.put("carrier", "Stub Mobile");
+        body.put("line_type", digits.hashCode() % 3 == 0 ? "landline" : "mobile");
+        return body;
+    }
+
+    private Map<String, Object> clearbitBody(Map<String, List<String>> params) {
+        String email = param(params, "email");
+        String localPart = email == null ? "user" : email.substring(0, Math.max(0, email.indexOf('@')));
+        String domain = email == null || email.indexOf('@') < 0 ? "example.com" : email.substring(email.indexOf('@') + 1);
+        return Map.of(
+            "person", Map.of(
+                "name", Map.of("fullName", localPart),
+                "email", String.valueOf(email),
+                "location", "San Francisco, CA, US",
+                "employment", Map.of("name", domain, "title", "Engineer", "domain", domain),
+                "twitter", Map.of("handle", localPart)),
+            "company", Map.of(
+                "name", domain,
+                "domain", domain,
+                "category", Map.of("industry", "Internet Software & Services"),
+                "metrics", Map.of("employeesRange", "51-250")));
+    }
+
+    private Map<String, Object> ipstackBody(String ip, Map<String, List<String>> params) {
+        if (param(params, "access_key") == null) {
+            return apilayerError();
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("ip", ip);
+        body.put("type", ip != null && ip.indexOf(':') >= 0 ? "ipv6" : "ipv4");
+        body.put("continent_name", "North America");
+        body.put("country_code", "US");
+        body.put("country_name", "United States");
+        body.put("region_code", "CA");
+        body.put("region_name", "California");
+        body.put("city", "Los Angeles");
+        body.put("zip", "90013");
+        body.put("latitude", 34.0453);
+        body.put("longitude", -118.2413);
+        body.put("connection", Map.of("asn", 25876, "isp", "Stub Networks"));
+        return body;
+    }
+
+    private static Map<String, Object> apilayerError() {
+        return Map.of("success", false, "error", Map.of(
+            "code", 101, "type", "missing_access_key", "info", "You have not supplied an API Access Key."));
+    }
+
+    private static String param(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private byte[] toJson(Map<String, Object> body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize stub response", e);
+        }
+    }
+
+    private static final class ProviderStub {
+
+        private final Behaviour behaviour;
+        private final double mu;
+        private final double sigma;
+        private long windowSecond;
+        private int windowCount;
+
+        ProviderStub(Behaviour behaviour) {
+            this.behaviour = behaviour;
+            double median = Math.max(1, behaviour.medianLatency().toNanos());
+            double p99 = Math.max(median, behaviour.p99Latency().toNanos());
+            this.mu = Math.log(median);
+            this.sigma = Math.log(p99 / median) / Z_99;
+        }
+
+        Duration nextLatency() {
+            return Duration.ofNanos((long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        // Fixed one-second windows
+        synchronized boolean tryAcquire() {
+            if (behaviour.rateLimit() <= 0) {
+                return true;
+            }
+            long second = System.nanoTime() / 1_000_000_000L;
+            if (second != windowSecond) {
+                windowSecond = second;
+                windowCount = 0;
+            }
+            return ++windowCount <= behaviour.rateLimit();
+        }
+    }
+}
\ No newline at end of file
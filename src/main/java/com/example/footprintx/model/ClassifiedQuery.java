@@ -0,0 +1,5 @@
+package com.example.footprintx.model;
+
+// A query together with its detected (or requested) type and the canonical form providers and caches key on
+public record ClassifiedQuery(QueryType type, String normalized) {
+}
\ No newline at end of file
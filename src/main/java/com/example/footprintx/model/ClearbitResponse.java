@@ -0,0 +1,65 @@
+package com.example.footprintx.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.footprintx.model.ResultData.putIfPresent;
+
+// Only the Clearbit Combined API fields shown to the user; everything else is skipped while parsing
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ClearbitResponse(Person person, Company company) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Person(Name name, String email, String location, Employment employment,
+                         Handle linkedin, Handle twitter) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Name(String fullName) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Employment(String name, String title, String domain) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Handle(String handle) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Company(String name, String domain, Category category, Metrics metrics) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Category(String industry) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Metrics(String employeesRange) {}
+
+    public Map<String, Object> toData() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        if (person != null) {
+            Map<String, Object> personData = new LinkedHashMap<>();
+            putIfPresent(personData, "email", person.email());
+            putIfPresent(personData, "name", person.name() != null ? person.name().fullName() : null);
+            putIfPresent(personData, "location", person.location());
+            if (person.employment() != null) {
+                putIfPresent(personData, "title", person.employment().title());
+                putIfPresent(personData, "employer", person.employment().name());
+            }
+            if (person.linkedin() != null && person.linkedin().handle() != null) {
+                personData.put("linkedin", "https://linkedin.com/" + person.linkedin().handle());
+            }
+            if (person.twitter() != null && person.twitter().handle() != null) {
+                personData.put("twitter", "https://twitter.com/" + person.twitter().handle());
+            }
+            data.put("person", personData);
+        }
+        if (company != null) {
+            Map<String, Object> companyData = new LinkedHashMap<>();
+            putIfPresent(companyData, "name", company.name());
+            putIfPresent(companyData, "domain", company.domain());
+            putIfPresent(companyData, "industry", company.category() != null ? company.category().industry() : null);
+            putIfPresent(companyData, "size", company.metrics() != null ? company.metrics().employeesRange() : null);
+            data.put("company", companyData);
+        }
+        return data;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.footprintx.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+// One provider result as recorded by LookupHistoryStore
+public record HistoryEntry(
+    long id,
+    Instant recordedAt,
+    String query,
+    String queryType,
+    String provider,
+    String source,
+    boolean success,
+    String message,
+    Map<String, Object> data,
+    String sessionId
+) {}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.footprintx.model;
+
+// A HistoryEntry as read for an export: data is left as the JSON text it was stored as, so it is
+// copied into the export instead of being parsed and written again
+public record HistoryExportRow(
+    long id,
+    long recordedAt,
+    String query,
+    String queryType,
+    String provider,
+    String source,
+    boolean success,
+    String message,
+    String data,
+    String sessionId
+) {}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.footprintx.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.footprintx.model.ResultData.putIfPresent;
+
+// Only the IPStack fields shown to the user; everything else is skipped while parsing
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record IpstackResponse(
+    String ip,
+    String type,
+    String continentName,
+    String countryCode,
+    String countryName,
+    String regionCode,
+    String regionName,
+    String city,
+    String zip,
+    Double latitude,
+    Double longitude,
+    Connection connection,
+    ProviderError error
+) {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Connection(Long asn, String isp) {}
+
+    public Map<String, Object> toData() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        putIfPresent(data, "ip", ip);
+        putIfPresent(data, "type", type);
+        putIfPresent(data, "continent_name", continentName);
+        putIfPresent(data, "country_code", countryCode);
+        putIfPresent(data, "country_name", countryName);
+        putIfPresent(data, "region_code", regionCode);
+        putIfPresent(data, "region_name", regionName);
+        putIfPresent(data, "city", city);
+        putIfPresent(data, "zip", zip);
+        putIfPresent(data, "latitude", latitude);
+        putIfPresent(data, "longitude", longitude);
+        if (connection != null) {
+            putIfPresent(data, "asn", connection.asn());
+            putIfPresent(data, "isp", connection.isp());
+        }
+        return data;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.footprintx.model;
+
+// A client message on the lookup WebSocket:
+//   {"op":"lookup","id":"r1","query":"8.8.8.8","type":"auto","mode":"fast"}
+//   {"op":"cancel","id":"r1"}
+// id is chosen by the client and tags every frame sent back for that lookup
+public record LookupCommand(String op, String id, String query, String type, String mode) {}
\ No newline at end of file
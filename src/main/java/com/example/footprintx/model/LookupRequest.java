@@ -2,7 +2,8 @@ package com.example.footprintx.model;
 
 public class LookupRequest {
     private String query;
-    private String type; // "phone", "email", "name", "ip"
+    private String type; // "phone", "email", "ip", "domain", "username", "hash", "name" - detected when absent or "auto"
+    private String mode; // "fast", "paced" - defaults to osint.stream.mode when absent
 
     public LookupRequest() {}
 
@@ -11,9 +12,17 @@ public class LookupRequest {
         this.type = type;
     }
 
+    public LookupRequest(String query, String type, String mode) {
+        this(query, type);
+        this.mode = mode;
+    }
+
     public String getQuery() { return query; }
     public void setQuery(String query) { this.query = query; }
 
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.footprintx.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.footprintx.model.ResultData.putIfPresent;
+
+// Only the Numverify fields shown to the user; everything else is skipped while parsing
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record NumverifyResponse(
+    Boolean valid,
+    String number,
+    String internationalFormat,
+    String countryCode,
+    String countryName,
+    String location,
+    String carrier,
+    String lineType,
+    ProviderError error
+) {
+    public Map<String, Object> toData() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        putIfPresent(data, "number", number);
+        putIfPresent(data, "valid", valid);
+        putIfPresent(data, "international_format", internationalFormat);
+        putIfPresent(data, "country_code", countryCode);
+        putIfPresent(data, "country_name", countryName);
+        putIfPresent(data, "location", location);
+        putIfPresent(data, "carrier", carrier);
+        putIfPresent(data, "line_type", lineType);
+        return data;
+    }
+}
\ No newline at end of file
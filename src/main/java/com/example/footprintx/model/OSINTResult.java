@@ -14,6 +14,7 @@ public class OSINTResult {
     private Map<String, Object> data;
     private LocalDateTime timestamp;
     private String sessionId;
+    private String cacheStatus; // "hit", "miss" or "coalesced" for cached provider lookups
 
     public OSINTResult() {
         this.timestamp = LocalDateTime.now();
@@ -51,4 +52,7 @@ public class OSINTResult {
 
     public String getSessionId() { return sessionId; }
     public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public String getCacheStatus() { return cacheStatus; }
+    public void setCacheStatus(String cacheStatus) { this.cacheStatus = cacheStatus; }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.footprintx.model;
+
+import java.util.List;
+
+// Answer to GET /api/graph/pivot. source is "graph" when the entity was already known, "providers"
+// when it had to be looked up first.
+public record PivotResult(String type, String value, String source, List<Connection> connections) {
+
+    // via is the entity this one was reached through, null for direct connections
+    public record Connection(String type, String value, int depth, String via) {}
+}
\ No newline at end of file
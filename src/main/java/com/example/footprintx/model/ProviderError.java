@@ -0,0 +1,7 @@
+package com.example.footprintx.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// Error object apilayer APIs (Numverify, IPStack) return with HTTP 200 and "success": false
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ProviderError(Integer code, String type, String info) {}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.footprintx.model;
+
+public enum QueryType {
+    PHONE("phone"),
+    EMAIL("email"),
+    IP("ip"),
+    DOMAIN("domain"),
+    USERNAME("username"),
+    HASH("hash"),
+    NAME("name"),
+    UNKNOWN("unknown");
+
+    private static final QueryType[] TYPES = values();
+
+    private final String key;
+
+    QueryType(String key) {
+        this.key = key;
+    }
+
+    // Lower-case name used in results, LookupRequest.type and api.* configuration
+    public String getKey() { return key; }
+
+    // Resolves an explicit LookupRequest.type; null for absent, "auto" or unrecognized values
+    public static QueryType fromKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        for (QueryType type : TYPES) {
+            if (type != UNKNOWN && type.key.equalsIgnoreCase(key.trim())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
\ No newline at end of file
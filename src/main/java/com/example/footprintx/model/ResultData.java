@@ -0,0 +1,14 @@
+package com.example.footprintx.model;
+
+import java.util.Map;
+
+final class ResultData {
+
+    private ResultData() {}
+
+    static void putIfPresent(Map<String, Object> data, String key, Object value) {
+        if (value != null) {
+            data.put(key, value);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.example.footprintx.phone;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Numbering-plan lookups from the prefix file at phone.numbering-plan (a bundled plan by default).
+// phone.local-mode decides how PhoneInfoService uses it: "off" always asks Numverify, "prefer" asks
+// Numverify only for what the plan cannot answer, "only" never leaves the process.
+@Component
+public class PhoneMetadataEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PhoneMetadataEngine.class);
+
+    public enum Mode { OFF, PREFER, ONLY }
+
+    private final Mode mode;
+    private final PhonePrefixTrie trie;
+
+    public PhoneMetadataEngine(@Value("${phone.numbering-plan:classpath:phone/numbering-plan.csv}") Resource numberingPlan,
+                               @Value("${phone.local-mode:prefer}") String mode,
+                               MeterRegistry meterRegistry) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.trie = this.mode == Mode.OFF ? null : load(numberingPlan);
+
+        Gauge.builder("osint.phone.prefixes", this, engine -> engine.trie == null ? 0 : engine.trie.getPrefixCount())
+            .description("Prefixes in the loaded numbering plan")
+            .register(meterRegistry);
+    }
+
+    // A plan that is configured but unreadable fails startup rather than silently sending all traffic upstream
+    private static PhonePrefixTrie load(Resource numberingPlan) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(numberingPlan.getInputStream(), StandardCharsets.UTF_8))) {
+            PhonePrefixTrie trie = PhonePrefixTrie.load(reader, numberingPlan.getDescription());
+            log.info("Loaded numbering plan {}: {} prefixes", numberingPlan.getDescription(), trie.getPrefixCount());
+            return trie;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load numbering plan " + numberingPlan.getDescription(), e);
+        }
+    }
+
+    // Normalized "+digits" number in; null when local lookups are off or no country prefix matches
+    public PhoneNumberInfo lookup(String e164) {
+        return trie == null ? null : trie.lookup(e164);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+}
\ No newline at end of file
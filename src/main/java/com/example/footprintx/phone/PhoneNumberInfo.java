@@ -0,0 +1,54 @@
+package com.example.footprintx.phone;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// What the numbering plan says about a number. Everything except the country is optional; toData()
+// uses the same keys as NumverifyResponse so local and remote results look alike to the client.
+public record PhoneNumberInfo(
+    String countryPrefix,
+    String countryCode,
+    String countryName,
+    String location,
+    String carrier,
+    String lineType
+) {
+    // e164 is the normalized "+digits" form
+    public Map<String, Object> toData(String e164) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("number", e164.substring(1));
+        data.put("international_format", e164);
+        data.put("country_prefix", countryPrefix);
+        data.put("country_code", countryCode);
+        putIfPresent(data, "country_name", countryName);
+        putIfPresent(data, "location", location);
+        putIfPresent(data, "carrier", carrier);
+        putIfPresent(data, "line_type", lineType);
+        return data;
+    }
+
+    // Whether the field with the given data key is known
+    public boolean has(String field) {
+        switch (field) {
+            case "country_prefix":
+            case "country_code":
+                return true;
+            case "country_name":
+                return countryName != null;
+            case "location":
+                return location != null;
+            case "carrier":
+                return carrier != null;
+            case "line_type":
+                return lineType != null;
+            default:
+                return false;
+        }
+    }
+
+    private static void putIfPresent(Map<String, Object> data, String key, Object value) {
+        if (value != null) {
+            data.put(key, value);
+        }
+    }
+}
\ No newline at end of file
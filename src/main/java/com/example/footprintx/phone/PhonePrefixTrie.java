@@ -0,0 +1,194 @@
+package com.example.footprintx.phone;
+
+import com.example.footprintx.codec.Csv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Decimal digit trie over E.164 prefixes, held in two int arrays: children[node * 10 + digit] is the
+// child node (0 = none, since the root is never a child) and entries[node] the row stored at that node
+// (-1 = none). Row values live in one String array per column.
+//
+// A lookup walks the number's digits once. Each column takes its value from the deepest row on the path
+// that sets it, so a plan file can give the country at "44", the line type at "447" and a location at
+// "4420" without repeating anything. The country prefix is the shallowest row that names a country,
+// which keeps "+1" for Canadian area codes and "+7" for Kazakhstan.
+public final class PhonePrefixTrie {
+
+    static final String[] COLUMNS = {"country_code", "country_name", "location", "carrier", "line_type"};
+    private static final int COUNTRY_CODE = 0;
+    private static final int COUNTRY_NAME = 1;
+    private static final int LOCATION = 2;
+    private static final int CARRIER = 3;
+    private static final int LINE_TYPE = 4;
+    // E.164 allows at most 15 digits after the "+"
+    private static final int MAX_DIGITS = 15;
+
+    private int[] children = new int[10 * 1024];
+    private int[] entries = new int[1024];
+    private int nodeCount = 1;
+    private final String[][] values = new String[COLUMNS.length][];
+    private int rowCount;
+
+    private PhonePrefixTrie() {
+        Arrays.fill(entries, -1);
+        for (int column = 0; column < COLUMNS.length; column++) {
+            values[column] = new String[256];
+        }
+    }
+
+    // CSV with a "prefix" column (digits, country calling code included) and any of COLUMNS; empty cells
+    // inherit from shorter prefixes
+    public static PhonePrefixTrie load(BufferedReader reader, String source) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new IOException(source + " is empty");
+        }
+        List<String> header = Csv.parseLine(headerLine.replace("\uFEFF", ""));
+        int prefixColumn = -1;
+        int[] columnIndex = new int[COLUMNS.length];
+        Arrays.fill(columnIndex, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (name.equals("prefix")) {
+                prefixColumn = i;
+            }
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (COLUMNS[column].equals(name)) {
+                    columnIndex[column] = i;
+                }
+            }
+        }
+        if (prefixColumn < 0) {
+            throw new IOException(source + " needs a prefix column");
+        }
+
+        PhonePrefixTrie trie = new PhonePrefixTrie();
+        Map<String, String> interned = new HashMap<>();
+        Map<String, Integer> seen = new HashMap<>();
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> row = Csv.parseLine(line);
+            String prefix = cell(row, prefixColumn);
+            if (prefix == null || prefix.length() > MAX_DIGITS || !prefix.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                throw new IOException(source + " line " + lineNumber + ": invalid prefix " + prefix);
+            }
+            Integer previous = seen.putIfAbsent(prefix, lineNumber);
+            if (previous != null) {
+                throw new IOException(source + " line " + lineNumber + ": prefix " + prefix
+                    + " is already defined on line " + previous);
+            }
+            String[] rowValues = new String[COLUMNS.length];
+            for (int column = 0; column < COLUMNS.length; column++) {
+                String value = cell(row, columnIndex[column]);
+                rowValues[column] = value == null ? null : interned.computeIfAbsent(value, key -> key);
+            }
+            trie.insert(prefix, rowValues);
+        }
+        trie.trim();
+        return trie;
+    }
+
+    // number is E.164, with or without the leading "+"; null when it is not a number or no country matches
+    public PhoneNumberInfo lookup(CharSequence number) {
+        int start = number.length() > 0 && number.charAt(0) == '+' ? 1 : 0;
+        int length = number.length() - start;
+        if (length == 0 || length > MAX_DIGITS) {
+            return null;
+        }
+        int[] found = {-1, -1, -1, -1, -1};
+        int countryDepth = -1;
+        int node = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = number.charAt(start + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            if (node >= 0) {
+                node = children[node * 10 + digit];
+                if (node == 0) {
+                    node = -1;
+                } else if (entries[node] >= 0) {
+                    int row = entries[node];
+                    for (int column = 0; column < COLUMNS.length; column++) {
+                        if (values[column][row] != null) {
+                            found[column] = row;
+                        }
+                    }
+                    if (countryDepth < 0 && values[COUNTRY_CODE][row] != null) {
+                        countryDepth = i + 1;
+                    }
+                }
+            }
+        }
+        if (countryDepth < 0) {
+            return null;
+        }
+        return new PhoneNumberInfo(
+            "+" + number.subSequence(start, start + countryDepth),
+            value(COUNTRY_CODE, found),
+            value(COUNTRY_NAME, found),
+            value(LOCATION, found),
+            value(CARRIER, found),
+            value(LINE_TYPE, found));
+    }
+
+    public int getPrefixCount() {
+        return rowCount;
+    }
+
+    private String value(int column, int[] found) {
+        return found[column] < 0 ? null : values[column][found[column]];
+    }
+
+    private void insert(String prefix, String[] rowValues) {
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            int slot = node * 10 + (prefix.charAt(i) - '0');
+            if (children[slot] == 0) {
+                if (nodeCount == entries.length) {
+                    children = Arrays.copyOf(children, children.length * 2);
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                    Arrays.fill(entries, nodeCount, entries.length, -1);
+                }
+                children[slot] = nodeCount++;
+            }
+            node = children[slot];
+        }
+        if (rowCount == values[0].length) {
+            for (int column = 0; column < COLUMNS.length; column++) {
+                values[column] = Arrays.copyOf(values[column], rowCount * 2);
+            }
+        }
+        for (int column = 0; column < COLUMNS.length; column++) {
+            values[column][rowCount] = rowValues[column];
+        }
+        entries[node] = rowCount++;
+    }
+
+    private void trim() {
+        children = Arrays.copyOf(children, nodeCount * 10);
+        entries = Arrays.copyOf(entries, nodeCount);
+        for (int column = 0; column < COLUMNS.length; column++) {
+            values[column] = Arrays.copyOf(values[column], rowCount);
+        }
+    }
+
+    private static String cell(List<String> row, int index) {
+        if (index < 0 || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+}
\ No newline at end of file
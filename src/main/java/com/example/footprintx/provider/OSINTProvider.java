@@ -0,0 +1,26 @@
+package com.example.footprintx.provider;
+
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// A source of OSINT data. Every Spring bean implementing this interface is picked up by the
+// ProviderRegistry and queried in parallel for each query type it declares.
+public interface OSINTProvider {
+
+    // Short, stable identifier; also the api.<name>.* configuration prefix
+    String getName();
+
+    // Label shown to the user when the provider produced no result of its own (e.g. on timeout)
+    default String getDisplayName() {
+        return getName();
+    }
+
+    Set<QueryType> getQueryTypes();
+
+    // The query arrives already normalized for its type. Must not error; failures are
+    // reported as an unsuccessful OSINTResult
+    Mono<OSINTResult> lookup(String query, QueryType queryType, String sessionId);
+}
\ No newline at end of file
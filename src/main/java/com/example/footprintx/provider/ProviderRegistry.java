@@ -0,0 +1,34 @@
+package com.example.footprintx.provider;
+
+import com.example.footprintx.model.QueryType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class ProviderRegistry {
+
+    private final List<OSINTProvider> providers;
+    private final Map<QueryType, List<OSINTProvider>> providersByType = new EnumMap<>(QueryType.class);
+
+    public ProviderRegistry(List<OSINTProvider> providers) {
+        this.providers = List.copyOf(providers);
+        for (OSINTProvider provider : providers) {
+            for (QueryType queryType : provider.getQueryTypes()) {
+                providersByType.computeIfAbsent(queryType, type -> new ArrayList<>()).add(provider);
+            }
+        }
+        providersByType.replaceAll((type, list) -> List.copyOf(list));
+    }
+
+    public List<OSINTProvider> providersFor(QueryType queryType) {
+        return providersByType.getOrDefault(queryType, List.of());
+    }
+
+    public List<OSINTProvider> getProviders() {
+        return providers;
+    }
+}
\ No newline at end of file
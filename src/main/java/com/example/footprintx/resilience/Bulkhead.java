@@ -0,0 +1,113 @@
+package com.example.footprintx.resilience;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Caps concurrent calls to a provider. Callers over the cap wait asynchronously in a bounded
+// FIFO queue and are rejected immediately once it is full.
+public class Bulkhead {
+
+    private final String provider;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    public Bulkhead(String provider, int maxConcurrent, int maxQueued) {
+        this.provider = provider;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    public Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                if (tryAcquire()) {
+                    sink.success(new Permit());
+                    return;
+                }
+                if (queued.incrementAndGet() > maxQueued) {
+                    queued.decrementAndGet();
+                    sink.error(new ProviderRejectedException(provider, "too many queued requests"));
+                    return;
+                }
+                Waiter waiter = new Waiter(sink);
+                sink.onCancel(waiter::cancel);
+                waiters.offer(waiter);
+                // A permit may have been released between tryAcquire and offer
+                drain();
+            })
+            // A permit granted to a caller that cancelled concurrently is discarded, not leaked
+            .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    public int activeCount() {
+        return active.get();
+    }
+
+    public int queuedCount() {
+        return queued.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.grant()) {
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    public class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                drain();
+            }
+        }
+    }
+
+    private class Waiter {
+        private final MonoSink<Permit> sink;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            sink.success(new Permit());
+            return true;
+        }
+
+        void cancel() {
+            if (done.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                waiters.remove(this);
+            }
+        }
+    }
+}
\ No newline at end of file
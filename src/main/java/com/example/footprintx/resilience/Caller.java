@@ -0,0 +1,32 @@
+package com.example.footprintx.resilience;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Function;
+
+// Who a provider call is made for. Entry points put it in the Reactor context (contextWrite) and
+// ProviderGuard reads it there, so the services between them do not have to pass it along.
+public record Caller(String user, Priority priority) {
+
+    public enum Priority { INTERACTIVE, BULK }
+
+    // Calls made outside any request, e.g. from benchmarks
+    public static final Caller SYSTEM = new Caller("system", Priority.INTERACTIVE);
+
+    private static final Object KEY = Caller.class;
+
+    public static Function<Context, Context> interactive(String user) {
+        Caller caller = new Caller(user, Priority.INTERACTIVE);
+        return context -> context.put(KEY, caller);
+    }
+
+    public static Function<Context, Context> bulk(String user) {
+        Caller caller = new Caller(user, Priority.BULK);
+        return context -> context.put(KEY, caller);
+    }
+
+    public static Caller from(ContextView context) {
+        return context.getOrDefault(KEY, SYSTEM);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.example.footprintx.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Count-based circuit breaker: opens when the failure rate over the last windowSize calls reaches
+// the threshold, rejects calls while open, then lets a few trial calls through to decide whether to close.
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int permittedHalfOpenCalls;
+    private final boolean[] outcomes;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int failures;
+    private int next;
+    private long openedAt;
+    private int halfOpenCalls;
+
+    public CircuitBreaker(int failureRateThreshold, int windowSize, int minimumCalls,
+                          Duration openDuration, int permittedHalfOpenCalls) {
+        this(failureRateThreshold, windowSize, minimumCalls, openDuration, permittedHalfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureRateThreshold, int windowSize, int minimumCalls,
+                   Duration openDuration, int permittedHalfOpenCalls, LongSupplier nanoClock) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openDurationNanos = openDuration.toNanos();
+        this.permittedHalfOpenCalls = permittedHalfOpenCalls;
+        this.outcomes = new boolean[windowSize];
+        this.nanoClock = nanoClock;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenCalls = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenCalls >= permittedHalfOpenCalls) {
+                return false;
+            }
+            halfOpenCalls++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    // The call ended without a verdict on the provider (cancelled or rejected locally)
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenCalls > 0) {
+            halfOpenCalls--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        recorded = 0;
+        failures = 0;
+        next = 0;
+        halfOpenCalls = 0;
+    }
+}
\ No newline at end of file
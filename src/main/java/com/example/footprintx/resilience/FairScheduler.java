@@ -0,0 +1,209 @@
+package com.example.footprintx.resilience;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+// Decides whose call gets a provider next when users compete for it. Interactive calls always go
+// before bulk ones, so batches only use the capacity interactive users leave free. Within a priority,
+// users are served by start-time fair queueing: each call is tagged with its user's virtual finish
+// time, which advances by 1/weight per call, and the smallest tag goes next. A user with a thousand
+// queued calls and one with a single call are therefore interleaved by weight, not served in order
+// of arrival.
+//
+// At most maxConcurrent calls hold a permit at once, at most maxBulk of them bulk, and one user holds
+// at most maxPerUser of each priority, so an analyst's own batch never holds back their lookups.
+// Callers wait asynchronously; beyond maxQueued waiting calls, new ones are rejected. State is guarded
+// by the scheduler's monitor, and permits are handed out after leaving it.
+public class FairScheduler {
+
+    private static final Caller.Priority[] PRIORITIES = Caller.Priority.values();
+    private static final int INTERACTIVE = Caller.Priority.INTERACTIVE.ordinal();
+    private static final int BULK = Caller.Priority.BULK.ordinal();
+
+    private final String provider;
+    private final int maxConcurrent;
+    private final int maxBulk;
+    private final int maxPerUser;
+    private final int maxQueued;
+    private final ToDoubleFunction<String> weights;
+    // Only users with running or waiting calls
+    private final Map<String, User> users = new HashMap<>();
+    private final int[] active = new int[PRIORITIES.length];
+    private final int[] queued = new int[PRIORITIES.length];
+    private final double[] virtualTime = new double[PRIORITIES.length];
+
+    public FairScheduler(String provider, int maxConcurrent, int maxBulk, int maxPerUser, int maxQueued,
+                         ToDoubleFunction<String> weights) {
+        this.provider = provider;
+        this.maxConcurrent = maxConcurrent;
+        this.maxBulk = maxBulk;
+        this.maxPerUser = maxPerUser;
+        this.maxQueued = maxQueued;
+        this.weights = weights;
+    }
+
+    public Mono<Permit> acquire(Caller caller) {
+        return Mono.<Permit>create(sink -> {
+                Waiter waiter;
+                List<Waiter> granted;
+                synchronized (this) {
+                    if (queued[INTERACTIVE] + queued[BULK] >= maxQueued) {
+                        sink.error(new ProviderRejectedException(provider, "scheduler queue full"));
+                        return;
+                    }
+                    User user = users.computeIfAbsent(caller.user(), User::new);
+                    int priority = caller.priority().ordinal();
+                    waiter = new Waiter(sink, user, priority,
+                        Math.max(virtualTime[priority], user.lastTag[priority]) + 1 / user.weight);
+                    user.lastTag[priority] = waiter.tag;
+                    user.waiting[priority].add(waiter);
+                    queued[priority]++;
+                    granted = dispatch();
+                }
+                sink.onCancel(waiter::cancel);
+                deliver(granted);
+            })
+            // A permit granted to a caller that cancelled concurrently is discarded, not leaked
+            .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    public synchronized int activeCount(Caller.Priority priority) {
+        return active[priority.ordinal()];
+    }
+
+    public synchronized int queuedCount(Caller.Priority priority) {
+        return queued[priority.ordinal()];
+    }
+
+    // Hands out permits while there is room, interactive first
+    private List<Waiter> dispatch() {
+        List<Waiter> granted = List.of();
+        while (active[INTERACTIVE] + active[BULK] < maxConcurrent) {
+            Waiter next = next(INTERACTIVE);
+            if (next == null && active[BULK] < maxBulk) {
+                next = next(BULK);
+            }
+            if (next == null) {
+                break;
+            }
+            int priority = next.priority;
+            next.user.waiting[priority].poll();
+            next.done = true;
+            queued[priority]--;
+            active[priority]++;
+            next.user.active[priority]++;
+            virtualTime[priority] = Math.max(virtualTime[priority], next.tag);
+            if (granted.isEmpty()) {
+                granted = new ArrayList<>(2);
+            }
+            granted.add(next);
+        }
+        return granted;
+    }
+
+    // The waiting call with the smallest tag among users below their cap; only the head of each
+    // user's queue can have it
+    private Waiter next(int priority) {
+        Waiter best = null;
+        for (User user : users.values()) {
+            if (user.active[priority] >= maxPerUser) {
+                continue;
+            }
+            Waiter head = user.waiting[priority].peek();
+            if (head != null && (best == null || head.tag < best.tag)) {
+                best = head;
+            }
+        }
+        return best;
+    }
+
+    private void removeIfIdle(User user) {
+        if (user.active[INTERACTIVE] + user.active[BULK] == 0
+                && user.waiting[INTERACTIVE].isEmpty() && user.waiting[BULK].isEmpty()) {
+            users.remove(user.name);
+        }
+    }
+
+    private void deliver(List<Waiter> granted) {
+        for (Waiter waiter : granted) {
+            waiter.sink.success(new Permit(waiter.user, waiter.priority));
+        }
+    }
+
+    public class Permit {
+        private final User user;
+        private final int priority;
+        private boolean released;
+
+        Permit(User user, int priority) {
+            this.user = user;
+            this.priority = priority;
+        }
+
+        public void release() {
+            List<Waiter> granted;
+            synchronized (FairScheduler.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                active[priority]--;
+                user.active[priority]--;
+                removeIfIdle(user);
+                granted = dispatch();
+            }
+            deliver(granted);
+        }
+    }
+
+    private final class User {
+        final String name;
+        final double weight;
+        // Waiting calls by priority, oldest first; their tags only increase
+        @SuppressWarnings("unchecked")
+        final ArrayDeque<Waiter>[] waiting = new ArrayDeque[] {new ArrayDeque<>(), new ArrayDeque<>()};
+        // Tag of the user's latest call, and calls holding a permit, by priority
+        final double[] lastTag = new double[PRIORITIES.length];
+        final int[] active = new int[PRIORITIES.length];
+
+        User(String name) {
+            this.name = name;
+            this.weight = Math.max(0.01, weights.applyAsDouble(name));
+        }
+    }
+
+    private final class Waiter {
+        final MonoSink<Permit> sink;
+        final User user;
+        final int priority;
+        final double tag;
+        // Granted or cancelled
+        boolean done;
+
+        Waiter(MonoSink<Permit> sink, User user, int priority, double tag) {
+            this.sink = sink;
+            this.user = user;
+            this.priority = priority;
+            this.tag = tag;
+        }
+
+        void cancel() {
+            synchronized (FairScheduler.this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                user.waiting[priority].remove(this);
+                queued[priority]--;
+                removeIfIdle(user);
+            }
+        }
+    }
+}
\ No newline at end of file
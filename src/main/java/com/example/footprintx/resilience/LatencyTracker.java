@@ -0,0 +1,42 @@
+package com.example.footprintx.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Keeps the most recent upstream latencies in a ring and periodically recomputes their p95,
+// which is used as the hedging delay
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final AtomicLongArray samples;
+    private final AtomicInteger count = new AtomicInteger();
+    private volatile long p95Nanos = -1;
+
+    public LatencyTracker(int size) {
+        this.samples = new AtomicLongArray(size);
+    }
+
+    public void record(long nanos) {
+        int n = count.getAndIncrement();
+        samples.set(Math.floorMod(n, samples.length()), nanos);
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute(n + 1 > 0 && n + 1 < samples.length() ? n + 1 : samples.length());
+        }
+    }
+
+    // Returns -1 until enough samples have been recorded
+    public long p95Nanos() {
+        return p95Nanos;
+    }
+
+    private void recompute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        p95Nanos = sorted[(int) Math.ceil(size * 0.95) - 1];
+    }
+}
\ No newline at end of file
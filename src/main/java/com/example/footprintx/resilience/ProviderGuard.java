@@ -0,0 +1,210 @@
+package com.example.footprintx.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Per-provider protection applied around each upstream call. From the outside in:
+// circuit breaker -> fair scheduler -> retries with jittered backoff -> optional hedging -> token bucket
+// -> bulkhead -> timeout. The fair scheduler orders calls by the Caller in the subscriber's context.
+// Scheduler, rate limit and bulkhead wait asynchronously and fail fast when full.
+public class ProviderGuard {
+
+    private final String provider;
+    private final TokenBucket rateLimiter;
+    private final Bulkhead bulkhead;
+    private final FairScheduler scheduler;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration responseTimeout;
+    private final Retry retry;
+    private final Duration hedgeDelay;
+    private final LatencyTracker latencies = new LatencyTracker(256);
+    private final MeterRegistry meterRegistry;
+    // Meters keyed by outcome or rejection reason, both small fixed sets
+    private final Map<String, Timer> callTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Timer[] waitTimers = new Timer[Caller.Priority.values().length];
+
+    // hedgeDelay is the minimum delay before a hedged request, or null to disable hedging
+    public ProviderGuard(String provider, TokenBucket rateLimiter, Bulkhead bulkhead, FairScheduler scheduler,
+                         CircuitBreaker circuitBreaker, Duration responseTimeout, int maxRetries, Duration retryBackoff,
+                         Duration hedgeDelay, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.rateLimiter = rateLimiter;
+        this.bulkhead = bulkhead;
+        this.scheduler = scheduler;
+        this.circuitBreaker = circuitBreaker;
+        this.responseTimeout = responseTimeout;
+        this.hedgeDelay = hedgeDelay;
+        this.retry = Retry.backoff(maxRetries, retryBackoff)
+            .jitter(0.5)
+            .filter(ProviderGuard::isUpstreamFailure)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("osint.provider.bulkhead.active", bulkhead, Bulkhead::activeCount)
+            .description("Calls currently holding a bulkhead permit")
+            .tag("provider", provider)
+            .register(meterRegistry);
+        Gauge.builder("osint.provider.bulkhead.queued", bulkhead, Bulkhead::queuedCount)
+            .description("Calls waiting for a bulkhead permit")
+            .tag("provider", provider)
+            .register(meterRegistry);
+        for (Caller.Priority priority : Caller.Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("osint.provider.scheduler.active", scheduler, fair -> fair.activeCount(priority))
+                .description("Calls holding a fair scheduler permit")
+                .tags("provider", provider, "priority", tag)
+                .register(meterRegistry);
+            Gauge.builder("osint.provider.scheduler.queued", scheduler, fair -> fair.queuedCount(priority))
+                .description("Calls waiting in the fair scheduler")
+                .tags("provider", provider, "priority", tag)
+                .register(meterRegistry);
+            waitTimers[priority.ordinal()] = Timer.builder("osint.provider.scheduler.wait")
+                .description("Time calls waited for a fair scheduler permit")
+                .tags("provider", provider, "priority", tag)
+                .register(meterRegistry);
+        }
+        Gauge.builder("osint.provider.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+            .description("0 = closed, 1 = open, 2 = half-open")
+            .tag("provider", provider)
+            .register(meterRegistry);
+    }
+
+    public <T> Mono<T> protect(Supplier<Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new ProviderRejectedException(provider, "circuit open"));
+            }
+            return Mono.usingWhen(
+                    scheduled(Caller.from(context)),
+                    permit -> hedged(call).retryWhen(retry),
+                    permit -> Mono.fromRunnable(permit::release))
+                .doOnEach(signal -> {
+                    if (signal.isOnComplete()) {
+                        circuitBreaker.onSuccess();
+                    } else if (signal.isOnError()) {
+                        if (isUpstreamFailure(signal.getThrowable())) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onIgnored();
+                        }
+                    }
+                })
+                .doOnCancel(circuitBreaker::onIgnored);
+        }).doOnError(ProviderRejectedException.class, rejected -> rejectionCounter(rejected.getReason()).increment());
+    }
+
+    private Mono<FairScheduler.Permit> scheduled(Caller caller) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return scheduler.acquire(caller)
+                .doOnNext(permit -> waitTimers[caller.priority().ordinal()]
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    // Fires a second identical request if the first has not answered after the provider's p95
+    // latency; whichever answers first wins and the other is cancelled. Only used for idempotent GETs.
+    private <T> Mono<T> hedged(Supplier<Mono<T>> call) {
+        if (hedgeDelay == null) {
+            return attempt(call);
+        }
+        long p95 = latencies.p95Nanos();
+        Duration delay = p95 > hedgeDelay.toNanos() ? Duration.ofNanos(p95) : hedgeDelay;
+        return Flux.merge(
+                attempt(call),
+                Mono.delay(delay).then(attempt(call)))
+            .next();
+    }
+
+    private <T> Mono<T> attempt(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long waitNanos = rateLimiter.reserve();
+            if (waitNanos < 0) {
+                return Mono.error(new ProviderRejectedException(provider, "rate limit exceeded"));
+            }
+            Mono<Long> token = waitNanos == 0 ? Mono.just(0L) : Mono.delay(Duration.ofNanos(waitNanos));
+            return token.then(Mono.usingWhen(
+                bulkhead.acquire(),
+                permit -> timed(call),
+                permit -> Mono.fromRunnable(permit::release)));
+        });
+    }
+
+    private <T> Mono<T> timed(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get()
+                .timeout(responseTimeout)
+                .doOnSuccess(value -> {
+                    long elapsed = System.nanoTime() - start;
+                    latencies.record(elapsed);
+                    callTimer("success").record(elapsed, TimeUnit.NANOSECONDS);
+                })
+                .doOnError(error -> callTimer(outcome(error)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                // Hedge losers and calls abandoned by the caller
+                .doOnCancel(() -> callTimer("cancelled").record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Timer callTimer(String outcome) {
+        return callTimers.computeIfAbsent(outcome, key -> Timer.builder("osint.provider.requests")
+            .description("Upstream provider calls, one per attempt including retries and hedges")
+            .tags("provider", provider, "outcome", key)
+            .register(meterRegistry));
+    }
+
+    private Counter rejectionCounter(String reason) {
+        return rejections.computeIfAbsent(reason, key -> Counter.builder("osint.provider.rejections")
+            .description("Provider calls refused locally by the circuit breaker, fair scheduler, rate limiter or bulkhead")
+            .tags("provider", provider, "reason", key.replace(' ', '_'))
+            .register(meterRegistry));
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientRequestException) {
+            return "connect_error";
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() ? "server_error" : "client_error";
+        }
+        return "error";
+    }
+
+    // Timeouts, connection errors, 5xx and 429 are worth retrying and count against the circuit;
+    // other 4xx responses and local rejections say nothing about the provider's health
+    static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof TimeoutException || error instanceof WebClientRequestException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return false;
+    }
+
+    public String getProvider() { return provider; }
+
+    public Bulkhead getBulkhead() { return bulkhead; }
+
+    public FairScheduler getScheduler() { return scheduler; }
+
+    public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+}
\ No newline at end of file
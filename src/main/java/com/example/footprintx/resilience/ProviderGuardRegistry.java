@@ -0,0 +1,59 @@
+package com.example.footprintx.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Builds one ProviderGuard per provider from the api.<provider>.rate-limit.*, bulkhead.*, batch-concurrency,
+// fair-scheduling.*, timeout.*, retry.*, hedge.* and circuit-breaker.* properties. User weights for fair
+// scheduling are shared by all providers (osint.fair-scheduling.weights.<user>, 1 by default).
+@Component
+public class ProviderGuardRegistry {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ProviderGuard> guards = new ConcurrentHashMap<>();
+
+    public ProviderGuardRegistry(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ProviderGuard forProvider(String provider) {
+        return guards.computeIfAbsent(provider, this::createGuard);
+    }
+
+    private ProviderGuard createGuard(String provider) {
+        String prefix = "api." + provider + ".";
+        TokenBucket rateLimiter = new TokenBucket(
+            environment.getProperty(prefix + "rate-limit.requests-per-second", Double.class, 10.0),
+            environment.getProperty(prefix + "rate-limit.burst", Integer.class, 20),
+            environment.getProperty(prefix + "rate-limit.max-wait", Duration.class, Duration.ofSeconds(2)));
+        int maxConcurrent = environment.getProperty(prefix + "bulkhead.max-concurrent", Integer.class, 10);
+        Bulkhead bulkhead = new Bulkhead(provider, maxConcurrent,
+            environment.getProperty(prefix + "bulkhead.max-queued", Integer.class, 100));
+        // As many permits as the bulkhead allows calls; the bulkhead still caps hedged attempts
+        int maxBulk = environment.getProperty(prefix + "batch-concurrency", Integer.class, 8);
+        FairScheduler scheduler = new FairScheduler(provider, maxConcurrent, maxBulk,
+            environment.getProperty(prefix + "fair-scheduling.max-per-user", Integer.class, maxBulk),
+            environment.getProperty(prefix + "fair-scheduling.max-queued", Integer.class, 1000),
+            user -> environment.getProperty("osint.fair-scheduling.weights." + user, Double.class, 1.0));
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+            environment.getProperty(prefix + "circuit-breaker.failure-rate-threshold", Integer.class, 50),
+            environment.getProperty(prefix + "circuit-breaker.window-size", Integer.class, 20),
+            environment.getProperty(prefix + "circuit-breaker.minimum-calls", Integer.class, 10),
+            environment.getProperty(prefix + "circuit-breaker.open-duration", Duration.class, Duration.ofSeconds(30)),
+            environment.getProperty(prefix + "circuit-breaker.half-open-calls", Integer.class, 1));
+        boolean hedging = environment.getProperty(prefix + "hedge.enabled", Boolean.class, false);
+        return new ProviderGuard(provider, rateLimiter, bulkhead, scheduler, circuitBreaker,
+            environment.getProperty(prefix + "timeout.response", Duration.class, Duration.ofSeconds(5)),
+            environment.getProperty(prefix + "retry.max-retries", Integer.class, 2),
+            environment.getProperty(prefix + "retry.backoff", Duration.class, Duration.ofMillis(100)),
+            hedging ? environment.getProperty(prefix + "hedge.min-delay", Duration.class, Duration.ofMillis(200)) : null,
+            meterRegistry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.footprintx.resilience;
+
+// Raised locally when a provider call is refused before reaching the upstream API
+public class ProviderRejectedException extends RuntimeException {
+
+    private final String provider;
+    private final String reason;
+
+    public ProviderRejectedException(String provider, String reason) {
+        super(provider + ": " + reason);
+        this.provider = provider;
+        this.reason = reason;
+    }
+
+    public String getProvider() { return provider; }
+
+    public String getReason() { return reason; }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.footprintx.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Lock-free token bucket in its GCRA form: a single "theoretical arrival time" replaces the
+// token counter, so a reservation is one CAS and callers are told how long to wait instead of blocking.
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final long maxWaitNanos;
+    private final AtomicLong theoreticalArrival;
+    private final LongSupplier nanoClock;
+
+    public TokenBucket(double permitsPerSecond, int burst, Duration maxWait) {
+        this(permitsPerSecond, burst, maxWait, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, Duration maxWait, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst >= 1");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = intervalNanos * (burst - 1);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    // Reserves one token; returns the nanos to wait before using it, or -1 if that exceeds maxWait
+    public long reserve() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long arrival = theoreticalArrival.get();
+            long wait = Math.max(0, arrival - burstToleranceNanos - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            long next = Math.max(arrival, now) + intervalNanos;
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return wait;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.example.footprintx.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Short-lived bearer tokens, issued once after a Basic login and then checked with an HMAC instead
+// of BCrypt. A token is base64url("username\nexpiry-epoch-seconds\nrole,role") "." base64url(HMAC-SHA256).
+// Without auth.token.secret a random key is generated at startup, so tokens do not survive a restart.
+@Component
+public class AuthTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record VerifiedToken(String username, Collection<? extends GrantedAuthority> authorities, long expiresAtSeconds) {}
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    // Mac instances are not thread-safe and relatively costly to create
+    private final ThreadLocal<Mac> macs;
+
+    public AuthTokenService(@Value("${auth.token.secret:}") String secret,
+                            @Value("${auth.token.ttl:15m}") Duration ttl) {
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            keyBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+            log.info("auth.token.secret is not set; using a random key, tokens will not survive a restart");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(String username, Collection<? extends GrantedAuthority> authorities) {
+        if (username.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("username must not contain line breaks");
+        }
+        long expiresAt = System.currentTimeMillis() / 1000 + ttl.toSeconds();
+        String roles = authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
+        byte[] payload = (username + "\n" + expiresAt + "\n" + roles).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    // null for a malformed, forged or expired token
+    public VerifiedToken verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split("\n", -1);
+        if (fields.length != 3) {
+            return null;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(fields[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (expiresAt <= System.currentTimeMillis() / 1000) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = fields[2].isEmpty()
+            ? List.of()
+            : AuthorityUtils.commaSeparatedStringToAuthorityList(fields[2]);
+        return new VerifiedToken(fields[0], authorities, expiresAt);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
\ No newline at end of file
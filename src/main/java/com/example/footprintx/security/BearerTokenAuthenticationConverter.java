@@ -0,0 +1,32 @@
+package com.example.footprintx.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Picks a bearer token from the Authorization header or, for EventSource and WebSocket clients that
+// cannot set headers, from the access_token query parameter. Empty when the request carries none, so
+// the request falls through to Basic authentication.
+public class BearerTokenAuthenticationConverter implements ServerAuthenticationConverter {
+
+    private static final String PREFIX = "Bearer ";
+    public static final String QUERY_PARAMETER = "access_token";
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String token = null;
+        if (header != null && header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            token = header.substring(PREFIX.length()).trim();
+        } else if (header == null) {
+            token = exchange.getRequest().getQueryParams().getFirst(QUERY_PARAMETER);
+        }
+        if (token == null || token.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.just(new PreAuthenticatedAuthenticationToken(null, token));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.example.footprintx.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+// Remembers Basic credentials that recently passed the (BCrypt) delegate, so clients that send Basic
+// on every request pay for one BCrypt check per TTL instead of one per request. Only successes are
+// cached, so guessing passwords stays as slow as before. Passwords are held as an HMAC under a key
+// generated at startup, never in plain text.
+public class CachingBasicAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final ReactiveAuthenticationManager delegate;
+    private final Cache<String, CachedCredential> verified;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final Counter hits;
+    private final Counter misses;
+
+    private record CachedCredential(byte[] passwordMac, Authentication authentication) {}
+
+    public CachingBasicAuthenticationManager(ReactiveAuthenticationManager delegate, Duration ttl, long maxEntries,
+                                             MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .build();
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.hits = Counter.builder("osint.auth.basic.cache").tag("status", "hit")
+            .description("Basic logins answered from the verified-credential cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("osint.auth.basic.cache").tag("status", "miss")
+            .description("Basic logins verified with BCrypt")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || !(credentials instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        byte[] passwordMac = mac(username, password);
+        CachedCredential cached = verified.getIfPresent(username);
+        if (cached != null && MessageDigest.isEqual(cached.passwordMac(), passwordMac)) {
+            hits.increment();
+            return Mono.just(cached.authentication());
+        }
+        misses.increment();
+        return delegate.authenticate(authentication)
+            .doOnNext(result -> {
+                if (result.isAuthenticated()) {
+                    // The cached copy must not carry the password
+                    verified.put(username, new CachedCredential(passwordMac,
+                        UsernamePasswordAuthenticationToken.authenticated(result.getPrincipal(), null, result.getAuthorities())));
+                }
+            });
+    }
+
+    private byte[] mac(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
\ No newline at end of file
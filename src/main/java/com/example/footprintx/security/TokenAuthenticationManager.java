@@ -0,0 +1,27 @@
+package com.example.footprintx.security;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+// Authenticates the tokens found by BearerTokenAuthenticationConverter. Verification is one HMAC, cheap
+// enough to run inline on the event loop.
+public class TokenAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final AuthTokenService tokens;
+
+    public TokenAuthenticationManager(AuthTokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        AuthTokenService.VerifiedToken verified = tokens.verify((String) authentication.getCredentials());
+        if (verified == null) {
+            return Mono.error(new BadCredentialsException("Invalid or expired token"));
+        }
+        return Mono.just(new PreAuthenticatedAuthenticationToken(verified.username(), null, verified.authorities()));
+    }
+}
\ No newline at end of file
@@ -1,18 +1,29 @@
 package com.example.footprintx.service;
 
+import com.example.footprintx.model.ClearbitResponse;
 import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.provider.OSINTProvider;
+import com.example.footprintx.resilience.ProviderGuard;
+import com.example.footprintx.resilience.ProviderGuardRegistry;
+import com.example.footprintx.resilience.ProviderRejectedException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
-public class EmailInfoService {
+public class EmailInfoService implements OSINTProvider {
     
     private final WebClient webClient;
+    private final ProviderResultCache resultCache;
+    private final ProviderGuard guard;
     
     @Value("${api.clearbit.key}")
     private String apiKey;
@@ -20,34 +31,68 @@ public class EmailInfoService {
     @Value("${api.clearbit.url}")
     private String apiUrl;
 
-    public EmailInfoService(WebClient webClient) {
+    @Value("${api.clearbit.cache-ttl:6h}")
+    private Duration cacheTtl;
+
+    public EmailInfoService(@Qualifier("clearbitWebClient") WebClient webClient,
+                            ProviderResultCache resultCache,
+                            ProviderGuardRegistry guards) {
         this.webClient = webClient;
+        this.resultCache = resultCache;
+        this.guard = guards.forProvider("clearbit");
+    }
+
+    @Override
+    public String getName() {
+        return "clearbit";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Clearbit";
+    }
+
+    @Override
+    public Set<QueryType> getQueryTypes() {
+        return Set.of(QueryType.EMAIL, QueryType.NAME);
+    }
+
+    @Override
+    public Mono<OSINTResult> lookup(String query, QueryType queryType, String sessionId) {
+        return queryType == QueryType.NAME
+            // Person names are tried as a Gmail address
+            ? lookupEmail(query + "@gmail.com", sessionId)
+            : lookupEmail(query, sessionId);
     }
 
     public Mono<OSINTResult> lookupEmail(String email, String sessionId) {
+        String normalized = QueryNormalizer.normalizeEmail(email);
+        return resultCache.lookup("clearbit", normalized, cacheTtl, email, sessionId,
+                () -> fetchEmail(email, normalized, sessionId))
+            .onErrorResume(ProviderRejectedException.class,
+                error -> Mono.just(createRejectedResult(email, sessionId, error)));
+    }
+
+    private Mono<OSINTResult> fetchEmail(String email, String normalized, String sessionId) {
         OSINTResult result = new OSINTResult("Clearbit", "email", email, sessionId);
         
         if ("demo_key".equals(apiKey)) {
             return createDemoEmailResult(email, sessionId);
         }
         
-        return webClient.get()
-            .uri(uriBuilder -> uriBuilder
-                .scheme("https")
-                .host("person.clearbit.com")
-                .path("/v2/combined/find")
-                .queryParam("email", email)
-                .build())
-            .header("Authorization", "Bearer " + apiKey)
-            .retrieve()
-            .bodyToMono(Map.class)
+        return guard.protect(() -> webClient.get()
+                .uri(apiUrl + "?email={email}", normalized)
+                .header("Authorization", "Bearer " + apiKey)
+                .retrieve()
+                .bodyToMono(ClearbitResponse.class))
             .map(response -> {
                 result.setSuccess(true);
-                result.setData(response);
+                result.setData(response.toData());
                 result.setMessage("Email lookup completed successfully");
                 return result;
             })
-            .onErrorReturn(createErrorResult(result, "Failed to lookup email"));
+            .onErrorReturn(error -> !(error instanceof ProviderRejectedException),
+                createErrorResult(result, "Failed to lookup email"));
     }
     
     private Mono<OSINTResult> createDemoEmailResult(String email, String sessionId) {
@@ -78,6 +123,11 @@ public class EmailInfoService {
         return Mono.just(result);
     }
     
+    private OSINTResult createRejectedResult(String email, String sessionId, ProviderRejectedException error) {
+        OSINTResult result = new OSINTResult("Clearbit", "email", email, sessionId);
+        return createErrorResult(result, "Clearbit is temporarily unavailable (" + error.getMessage() + "), try again shortly");
+    }
+    
     private OSINTResult createErrorResult(OSINTResult result, String errorMessage) {
         result.setSuccess(false);
         result.setMessage(errorMessage);
@@ -1,18 +1,33 @@
 package com.example.footprintx.service;
 
+import com.example.footprintx.geoip.GeoIpEngine;
+import com.example.footprintx.geoip.GeoIpRecord;
+import com.example.footprintx.model.IpstackResponse;
 import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.provider.OSINTProvider;
+import com.example.footprintx.resilience.ProviderGuard;
+import com.example.footprintx.resilience.ProviderGuardRegistry;
+import com.example.footprintx.resilience.ProviderRejectedException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
-public class GeoIPService {
+public class GeoIPService implements OSINTProvider {
     
     private final WebClient webClient;
+    private final ProviderResultCache resultCache;
+    private final ProviderGuard guard;
+    private final GeoIpEngine geoIpEngine;
     
     @Value("${api.ipstack.key}")
     private String apiKey;
@@ -20,33 +35,118 @@ public class GeoIPService {
     @Value("${api.ipstack.url}")
     private String apiUrl;
 
-    public GeoIPService(WebClient webClient) {
+    @Value("${api.ipstack.cache-ttl:1h}")
+    private Duration cacheTtl;
+
+    // IPStack is only asked when the local GeoIP database lacks one of these fields
+    @Value("${geoip.required-fields:country_code,country_name,city,latitude,longitude}")
+    private String[] requiredFields;
+
+    public GeoIPService(@Qualifier("ipstackWebClient") WebClient webClient,
+                        ProviderResultCache resultCache,
+                        ProviderGuardRegistry guards,
+                        GeoIpEngine geoIpEngine) {
         this.webClient = webClient;
+        this.resultCache = resultCache;
+        this.guard = guards.forProvider("ipstack");
+        this.geoIpEngine = geoIpEngine;
+    }
+
+    @Override
+    public String getName() {
+        return "ipstack";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "IPStack";
+    }
+
+    @Override
+    public Set<QueryType> getQueryTypes() {
+        return Set.of(QueryType.IP);
+    }
+
+    @Override
+    public Mono<OSINTResult> lookup(String query, QueryType queryType, String sessionId) {
+        return lookupIP(query, sessionId);
     }
 
     public Mono<OSINTResult> lookupIP(String ipAddress, String sessionId) {
+        String normalized = QueryNormalizer.normalizeIp(ipAddress);
+        GeoIpRecord local = geoIpEngine.lookup(normalized);
+        if (local != null && (isComplete(local) || "demo_key".equals(apiKey))) {
+            return Mono.just(createLocalResult(ipAddress, normalized, sessionId, local, null));
+        }
+
+        Mono<OSINTResult> remote = resultCache.lookup("ipstack", normalized, cacheTtl, ipAddress, sessionId,
+                () -> fetchIP(ipAddress, normalized, sessionId))
+            .onErrorResume(ProviderRejectedException.class,
+                error -> Mono.just(createRejectedResult(ipAddress, sessionId, error)));
+        return local == null ? remote : remote.map(result -> mergeLocal(result, local, normalized));
+    }
+
+    private boolean isComplete(GeoIpRecord local) {
+        for (String field : requiredFields) {
+            if (!local.has(field.trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Local fields take precedence; IPStack only fills the gaps. If IPStack failed, the partial
+    // local answer is still returned.
+    private OSINTResult mergeLocal(OSINTResult remote, GeoIpRecord local, String normalized) {
+        if (!remote.isSuccess()) {
+            return createLocalResult(remote.getQuery(), normalized, remote.getSessionId(), local, remote.getMessage());
+        }
+        Map<String, Object> merged = new LinkedHashMap<>();
+        if (remote.getData() != null) {
+            merged.putAll(remote.getData());
+        }
+        merged.putAll(local.toData(normalized, ipType(normalized)));
+        remote.setData(merged);
+        return remote;
+    }
+
+    private OSINTResult createLocalResult(String ipAddress, String normalized, String sessionId,
+                                          GeoIpRecord local, String remoteFailure) {
+        OSINTResult result = new OSINTResult("GeoIP (local)", "ip", ipAddress, sessionId);
+        result.setSuccess(true);
+        result.setData(local.toData(normalized, ipType(normalized)));
+        result.setMessage(remoteFailure == null
+            ? "IP geolocation lookup completed from the local database"
+            : "IP geolocation from the local database only (" + remoteFailure + ")");
+        return result;
+    }
+
+    private static String ipType(String normalized) {
+        return normalized.indexOf(':') >= 0 ? "ipv6" : "ipv4";
+    }
+
+    private Mono<OSINTResult> fetchIP(String ipAddress, String normalized, String sessionId) {
         OSINTResult result = new OSINTResult("IPStack", "ip", ipAddress, sessionId);
         
         if ("demo_key".equals(apiKey)) {
             return createDemoIPResult(ipAddress, sessionId);
         }
         
-        return webClient.get()
-            .uri(uriBuilder -> uriBuilder
-                .scheme("http")
-                .host("api.ipstack.com")
-                .path("/" + ipAddress)
-                .queryParam("access_key", apiKey)
-                .build())
-            .retrieve()
-            .bodyToMono(Map.class)
+        return guard.protect(() -> webClient.get()
+                .uri(apiUrl + "/{ip}?access_key={key}", normalized, apiKey)
+                .retrieve()
+                .bodyToMono(IpstackResponse.class))
             .map(response -> {
+                if (response.error() != null) {
+                    return createErrorResult(result, "Failed to lookup IP address: " + response.error().info());
+                }
                 result.setSuccess(true);
-                result.setData(response);
+                result.setData(response.toData());
                 result.setMessage("IP geolocation lookup completed successfully");
                 return result;
             })
-            .onErrorReturn(createErrorResult(result, "Failed to lookup IP address"));
+            .onErrorReturn(error -> !(error instanceof ProviderRejectedException),
+                createErrorResult(result, "Failed to lookup IP address"));
     }
     
     private Mono<OSINTResult> createDemoIPResult(String ipAddress, String sessionId) {
@@ -71,6 +171,11 @@ public class GeoIPService {
         return Mono.just(result);
     }
     
+    private OSINTResult createRejectedResult(String ipAddress, String sessionId, ProviderRejectedException error) {
+        OSINTResult result = new OSINTResult("IPStack", "ip", ipAddress, sessionId);
+        return createErrorResult(result, "IPStack is temporarily unavailable (" + error.getMessage() + "), try again shortly");
+    }
+    
     private OSINTResult createErrorResult(OSINTResult result, String errorMessage) {
         result.setSuccess(false);
         result.setMessage(errorMessage);
@@ -0,0 +1,358 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.HistoryEntry;
+import com.example.footprintx.model.HistoryExportRow;
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind history of provider results in the configured H2 datasource. record() only offers to a
+// bounded queue, so it never blocks or slows the stream; a single "history-writer" thread drains the
+// queue every osint.history.flush-interval in batched inserts. When the database falls behind and the
+// queue is full, new results are dropped and counted instead of buffered.
+//
+// Every row belongs to the user whose lookup produced it, and searches and exports only ever see the
+// asking user's rows.
+@Component
+public class LookupHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LookupHistoryStore.class);
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    // H2's longest VARCHAR. Unlike a CLOB it is stored in the row, which makes exports read about ten
+    // times faster; larger provider data is not kept.
+    private static final int MAX_DATA_LENGTH = 1_000_000;
+    private static final Duration FINAL_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+    private static final String COLUMNS =
+        "id, recorded_at, query_value, query_type, provider, source, success, message, data, session_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Scheduler blockingScheduler;
+    private ArrayBlockingQueue<PendingEntry> queue;
+    private Scheduler writer;
+    private final Disposable.Composite periodicTasks = Disposables.composite();
+    private Counter written;
+    private Counter dropped;
+    private Counter failed;
+
+    @Value("${osint.history.enabled:false}")
+    private boolean enabled;
+
+    @Value("${osint.history.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${osint.history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${osint.history.flush-interval:250ms}")
+    private Duration flushInterval;
+
+    // Rows older than this, or beyond the newest max-rows, are deleted once a minute. max-rows counts the
+    // rows of all users together, so it is also the most any one export can return.
+    @Value("${osint.history.retention:24h}")
+    private Duration retention;
+
+    @Value("${osint.history.max-rows:100000}")
+    private long maxRows;
+
+    private record PendingEntry(long recordedAt, String user, String query, QueryType queryType, String provider,
+                                OSINTResult result) {}
+
+    public LookupHistoryStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS lookup_history (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                recorded_at BIGINT NOT NULL,
+                query_value VARCHAR(512) NOT NULL,
+                query_type VARCHAR(16) NOT NULL,
+                provider VARCHAR(64) NOT NULL,
+                source VARCHAR(128),
+                success BOOLEAN NOT NULL,
+                message VARCHAR(1024),
+                data VARCHAR(%d),
+                session_id VARCHAR(64),
+                username VARCHAR(64)
+            )""".formatted(MAX_DATA_LENGTH));
+        // Tables from before rows had an owner; their rows stay invisible to every user
+        jdbcTemplate.execute("ALTER TABLE lookup_history ADD COLUMN IF NOT EXISTS username VARCHAR(64)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS lookup_history_query ON lookup_history (query_value, recorded_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS lookup_history_type ON lookup_history (query_type, recorded_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS lookup_history_time ON lookup_history (recorded_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS lookup_history_session ON lookup_history (session_id, id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS lookup_history_user ON lookup_history (username, recorded_at)");
+        // Exports page through one user's rows by id
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS lookup_history_user_id ON lookup_history (username, id)");
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        written = historyCounter("written");
+        dropped = historyCounter("dropped");
+        failed = historyCounter("failed");
+        Gauge.builder("osint.history.queue", queue, ArrayBlockingQueue::size)
+            .description("Results waiting to be written to the history")
+            .register(meterRegistry);
+
+        // One platform thread that may block; Schedulers.newSingle threads are reserved for non-blocking work
+        writer = Schedulers.newBoundedElastic(1, 16, "history-writer");
+        long flushMillis = flushInterval.toMillis();
+        periodicTasks.add(writer.schedulePeriodically(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS));
+        periodicTasks.add(writer.schedulePeriodically(this::purge, 1, 1, TimeUnit.MINUTES));
+    }
+
+    // The last flush runs on the writer after any flush or purge in progress, and the periodic tasks
+    // are cancelled from that thread too: cancelling them from another thread, or disposing the
+    // writer, would interrupt a running batch insert.
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            Mono.fromRunnable(() -> {
+                    periodicTasks.dispose();
+                    flush();
+                })
+                .subscribeOn(writer)
+                .block(FINAL_FLUSH_TIMEOUT);
+        } catch (RuntimeException e) {
+            log.warn("Final history flush did not finish, {} entries not written: {}", queue.size(), e.getMessage());
+        }
+        writer.dispose();
+    }
+
+    // user is the principal the lookup ran for; query is the normalized query the provider was asked about
+    public void record(String user, String query, QueryType queryType, String provider, OSINTResult result) {
+        if (!enabled) {
+            return;
+        }
+        if (!queue.offer(new PendingEntry(System.currentTimeMillis(), user, query, queryType, provider, result))) {
+            dropped.increment();
+        }
+    }
+
+    // The user's entries, newest first. query is matched exactly after the same normalization as lookups;
+    // every other filter is optional.
+    public Flux<HistoryEntry> search(String user, String query, String type, Instant from, Instant to, int limit) {
+        if (!enabled) {
+            return Flux.empty();
+        }
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM lookup_history WHERE ")
+            .append(filter(user, query, type, from, to, null, args));
+        sql.append(" ORDER BY recorded_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        return Mono.fromCallable(() -> jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new HistoryEntry(
+                    rs.getLong("id"),
+                    Instant.ofEpochMilli(rs.getLong("recorded_at")),
+                    rs.getString("query_value"),
+                    rs.getString("query_type"),
+                    rs.getString("provider"),
+                    rs.getString("source"),
+                    rs.getBoolean("success"),
+                    rs.getString("message"),
+                    readData(rs.getString("data")),
+                    rs.getString("session_id")),
+                args.toArray()))
+            .subscribeOn(blockingScheduler)
+            .flatMapIterable(rows -> rows);
+    }
+
+    // Oldest first, with the same filters as search plus sessionId (a lookup session, WebSocket connection
+    // or batch), and no limit. Rows are read by id in pages of EXPORT_PAGE_SIZE, and a page is only read
+    // once the one before it is being consumed, so an export of any size holds at most two pages and
+    // no connection between them.
+    public Flux<HistoryExportRow> export(String user, String query, String type, Instant from, Instant to,
+                                         String sessionId) {
+        if (!enabled) {
+            return Flux.empty();
+        }
+        List<Object> filterArgs = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM lookup_history WHERE "
+            + filter(user, query, type, from, to, sessionId, filterArgs) + " AND id > ? ORDER BY id LIMIT " + EXPORT_PAGE_SIZE;
+        return exportPage(sql, filterArgs, 0)
+            .expand(page -> page.size() < EXPORT_PAGE_SIZE
+                ? Mono.empty()
+                : exportPage(sql, filterArgs, page.get(page.size() - 1).id()))
+            .concatMapIterable(page -> page, 1);
+    }
+
+    private Mono<List<HistoryExportRow>> exportPage(String sql, List<Object> filterArgs, long afterId) {
+        Object[] args = filterArgs.toArray(new Object[filterArgs.size() + 1]);
+        args[filterArgs.size()] = afterId;
+        return Mono.fromCallable(() -> jdbcTemplate.query(sql, (rs, rowNum) -> new HistoryExportRow(
+                    rs.getLong("id"),
+                    rs.getLong("recorded_at"),
+                    rs.getString("query_value"),
+                    rs.getString("query_type"),
+                    rs.getString("provider"),
+                    rs.getString("source"),
+                    rs.getBoolean("success"),
+                    rs.getString("message"),
+                    rs.getString("data"),
+                    rs.getString("session_id")),
+                args))
+            .subscribeOn(blockingScheduler);
+    }
+
+    // WHERE conditions for the user and the filters that are set, with their arguments appended to args
+    private String filter(String user, String query, String type, Instant from, Instant to, String sessionId,
+                          List<Object> args) {
+        StringBuilder sql = new StringBuilder("username = ?");
+        args.add(user);
+        QueryType queryType = QueryType.fromKey(type);
+        if (query != null && !query.isBlank()) {
+            sql.append(" AND query_value = ?");
+            args.add(QueryClassifier.classify(query, type).normalized());
+        }
+        if (queryType != null) {
+            sql.append(" AND query_type = ?");
+            args.add(queryType.getKey());
+        }
+        if (from != null) {
+            sql.append(" AND recorded_at >= ?");
+            args.add(from.toEpochMilli());
+        }
+        if (to != null) {
+            sql.append(" AND recorded_at < ?");
+            args.add(to.toEpochMilli());
+        }
+        if (sessionId != null && !sessionId.isBlank()) {
+            sql.append(" AND session_id = ?");
+            args.add(sessionId);
+        }
+        return sql.toString();
+    }
+
+    // Runs on the writer thread, and once more at shutdown for whatever is still queued
+    private void flush() {
+        List<PendingEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO lookup_history (recorded_at, query_value, query_type, provider, source, success, message, data,"
+                        + " session_id, username) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    batch, batch.size(), this::bind);
+                written.increment(batch.size());
+            } catch (RuntimeException e) {
+                failed.increment(batch.size());
+                log.warn("Failed to write {} history entries: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void bind(PreparedStatement statement, PendingEntry entry) throws SQLException {
+        OSINTResult result = entry.result();
+        statement.setLong(1, entry.recordedAt());
+        statement.setString(2, truncate(entry.query(), 512));
+        statement.setString(3, entry.queryType().getKey());
+        statement.setString(4, entry.provider());
+        statement.setString(5, truncate(result.getSource(), 128));
+        statement.setBoolean(6, result.isSuccess());
+        statement.setString(7, truncate(result.getMessage(), 1024));
+        String data;
+        try {
+            data = writeData(result.getData());
+        } catch (IllegalStateException e) {
+            // Keep the rest of the entry, and the rest of the batch
+            data = null;
+        }
+        if (data == null || data.length() > MAX_DATA_LENGTH) {
+            statement.setNull(8, Types.VARCHAR);
+        } else {
+            statement.setString(8, data);
+        }
+        statement.setString(9, truncate(result.getSessionId(), 64));
+        statement.setString(10, truncate(entry.user(), 64));
+    }
+
+    private void purge() {
+        try {
+            jdbcTemplate.update("DELETE FROM lookup_history WHERE recorded_at < ?",
+                System.currentTimeMillis() - retention.toMillis());
+            Long newest = jdbcTemplate.queryForObject("SELECT MAX(id) FROM lookup_history", Long.class);
+            if (newest != null && newest > maxRows) {
+                jdbcTemplate.update("DELETE FROM lookup_history WHERE id <= ?", newest - maxRows);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge the lookup history: {}", e.getMessage());
+        }
+    }
+
+    private Counter historyCounter(String outcome) {
+        return Counter.builder("osint.history.entries")
+            .tag("outcome", outcome)
+            .description("Provider results offered to the lookup history")
+            .register(meterRegistry);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private String writeData(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize provider data", e);
+        }
+    }
+
+    private Map<String, Object> readData(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize provider data", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.LookupRequest;
+import com.example.footprintx.model.OSINTResult;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// A lookup started through /api/lookup. The provider calls run once per session and every result
+// is numbered and kept in a bounded replay buffer, so a reconnecting client resumes from its
+// Last-Event-ID instead of triggering the lookup again.
+public class LookupSession {
+
+    public record Event(long id, OSINTResult result) {}
+
+    private final String id;
+    private final LookupRequest request;
+    // The user who started the lookup; provider calls are scheduled on their behalf
+    private final String user;
+    private final Sinks.Many<Event> events;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Disposable lookup;
+    private volatile boolean completed;
+    private volatile boolean closed;
+
+    public LookupSession(String id, LookupRequest request, String user, int replaySize) {
+        this.id = id;
+        this.request = request;
+        this.user = user;
+        this.events = Sinks.many().replay().limit(replaySize);
+    }
+
+    // Starts the lookup on first use and returns the events after lastEventId still in the buffer.
+    // A session that was already closed (expired or evicted) never starts it.
+    public Flux<Event> events(long lastEventId, Supplier<Flux<OSINTResult>> lookupSource) {
+        if (started.compareAndSet(false, true)) {
+            Disposable running = lookupSource.get().subscribe(
+                result -> events.tryEmitNext(new Event(sequence.incrementAndGet(), result)),
+                error -> {
+                    completed = true;
+                    events.tryEmitError(error);
+                },
+                () -> {
+                    completed = true;
+                    events.tryEmitComplete();
+                });
+            lookup = running;
+            // close() may have run before the lookup was stored
+            if (closed) {
+                running.dispose();
+            }
+        }
+        return events.asFlux().filter(event -> event.id() > lastEventId);
+    }
+
+    public void close() {
+        closed = true;
+        started.set(true);
+        Disposable running = lookup;
+        if (running != null) {
+            running.dispose();
+        }
+        events.tryEmitComplete();
+    }
+
+    public String getId() { return id; }
+
+    public LookupRequest getRequest() { return request; }
+
+    public String getUser() { return user; }
+
+    public boolean isCompleted() { return completed; }
+}
\ No newline at end of file
@@ -1,116 +1,249 @@
 package com.example.footprintx.service;
 
+import com.example.footprintx.graph.EntityGraphEngine;
+import com.example.footprintx.model.ClassifiedQuery;
+import com.example.footprintx.model.LookupRequest;
 import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.PivotResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.provider.OSINTProvider;
+import com.example.footprintx.provider.ProviderRegistry;
+import com.example.footprintx.resilience.Caller;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class OSINTOrchestratorService {
     
-    private final PhoneInfoService phoneInfoService;
-    private final EmailInfoService emailInfoService;
-    private final GeoIPService geoIPService;
+    private final ProviderRegistry providerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final LookupHistoryStore historyStore;
+    private final EntityGraphEngine entityGraph;
+    private final AtomicInteger activeBatches;
 
-    public OSINTOrchestratorService(PhoneInfoService phoneInfoService, 
-                                   EmailInfoService emailInfoService,
-                                   GeoIPService geoIPService) {
-        this.phoneInfoService = phoneInfoService;
-        this.emailInfoService = emailInfoService;
-        this.geoIPService = geoIPService;
+    // "fast" emits every result as soon as it is ready, "paced" keeps the
+    // original cosmetic delays between terminal lines
+    @Value("${osint.stream.mode:fast}")
+    private String defaultMode;
+
+    // Overall time budget for all providers of one query
+    @Value("${osint.lookup.deadline:10s}")
+    private Duration lookupDeadline;
+
+    @Value("${osint.batch.concurrency:32}")
+    private int batchConcurrency;
+
+    public OSINTOrchestratorService(ProviderRegistry providerRegistry, MeterRegistry meterRegistry,
+                                    LookupHistoryStore historyStore, EntityGraphEngine entityGraph) {
+        this.providerRegistry = providerRegistry;
+        this.meterRegistry = meterRegistry;
+        this.historyStore = historyStore;
+        this.entityGraph = entityGraph;
+        this.activeBatches = meterRegistry.gauge("osint.batch.active", new AtomicInteger());
     }
 
     public Flux<OSINTResult> performLookup(String query) {
-        String sessionId = UUID.randomUUID().toString();
-        String queryType = detectQueryType(query);
+        return performLookup(query, null);
+    }
+
+    public Flux<OSINTResult> performLookup(String query, String mode) {
+        return performLookup(query, mode, UUID.randomUUID().toString());
+    }
+
+    public Flux<OSINTResult> performLookup(String query, String mode, String sessionId) {
+        return performLookup(query, null, mode, sessionId);
+    }
+
+    // An explicit type ("phone", "email", ...) skips detection; null or "auto" detects it
+    public Flux<OSINTResult> performLookup(String rawQuery, String type, String mode, String sessionId) {
+        ClassifiedQuery classified = QueryClassifier.classify(rawQuery, type);
+        QueryType queryType = classified.type();
+        String query = classified.normalized();
+        countQuery(queryType, "lookup");
+        String streamMode = resolveMode(mode);
+        boolean paced = "paced".equals(streamMode);
         
-        return Flux.concat(
-            createStartMessage(query, sessionId, queryType),
-            performActualLookup(query, queryType, sessionId),
-            createEndMessage(sessionId)
-        );
+        return Flux.defer(() -> {
+            long startNanos = System.nanoTime();
+            return Flux.concat(
+                createStartMessage(query, sessionId, queryType, paced),
+                performActualLookup(query, queryType, sessionId, paced),
+                Mono.fromSupplier(() -> createEndMessage(sessionId, streamMode, startNanos))
+                    .flux()
+                    .transform(end -> pace(end, 1000, paced))
+            );
+        });
+    }
+
+    // Streams results for every request as they complete. Requests are pulled on demand, so only
+    // osint.batch.concurrency of them are in flight at any time. Subscribe with a bulk Caller in the
+    // context: provider calls then queue behind interactive ones and, across all batches, hold at most
+    // api.<provider>.batch-concurrency permits (see FairScheduler).
+    public Flux<OSINTResult> performBatchLookup(Flux<LookupRequest> requests) {
+        String batchId = UUID.randomUUID().toString();
+
+        return requests
+            .filter(request -> request.getQuery() != null && !request.getQuery().isBlank())
+            .flatMap(request -> {
+                ClassifiedQuery classified = QueryClassifier.classify(request.getQuery(), request.getType());
+                QueryType queryType = classified.type();
+                String query = classified.normalized();
+                countQuery(queryType, "batch");
+                List<OSINTProvider> providers = providerRegistry.providersFor(queryType);
+                if (providers.isEmpty()) {
+                    return createUnknownQueryResult(query, queryType, batchId);
+                }
+                return Flux.fromIterable(providers)
+                    .flatMap(provider -> callProvider(provider, query, queryType, batchId));
+            }, batchConcurrency)
+            .doOnSubscribe(subscription -> activeBatches.incrementAndGet())
+            .doFinally(signal -> activeBatches.decrementAndGet());
+    }
+
+    // What is already known to be connected to the query, up to depth hops away. Only an entity the graph
+    // has never seen is looked up with the providers first, which adds it and its findings to the graph.
+    // Only the graph of the Caller in the context is followed.
+    public Mono<PivotResult> pivot(String rawQuery, String type, int depth, int limit) {
+        ClassifiedQuery classified = QueryClassifier.classify(rawQuery, type);
+        QueryType queryType = classified.type();
+        String query = classified.normalized();
+        return Mono.deferContextual(context -> {
+            String user = Caller.from(context).user();
+            List<PivotResult.Connection> known = entityGraph.neighbourhood(user, queryType, query, depth, limit);
+            if (known != null) {
+                return Mono.just(new PivotResult(queryType.getKey(), query, "graph", known));
+            }
+            return performLookup(rawQuery, type, "fast", UUID.randomUUID().toString())
+                .then(Mono.fromSupplier(() -> {
+                    List<PivotResult.Connection> found = entityGraph.neighbourhood(user, queryType, query, depth, limit);
+                    return new PivotResult(queryType.getKey(), query, "providers", found != null ? found : List.of());
+                }));
+        });
+    }
+
+    // Only the detected type and entry point are used as tags, never the query itself
+    private void countQuery(QueryType queryType, String endpoint) {
+        meterRegistry.counter("osint.queries", "type", queryType.getKey(), "endpoint", endpoint).increment();
+    }
+
+    private String resolveMode(String mode) {
+        String resolved = mode == null || mode.isBlank() ? defaultMode : mode;
+        return "paced".equalsIgnoreCase(resolved.trim()) ? "paced" : "fast";
+    }
+
+    private Flux<OSINTResult> pace(Flux<OSINTResult> results, long millis, boolean paced) {
+        return paced ? results.delayElements(Duration.ofMillis(millis)) : results;
+    }
+
+    private Mono<OSINTResult> pace(Mono<OSINTResult> result, long millis, boolean paced) {
+        return paced ? result.delayElement(Duration.ofMillis(millis)) : result;
     }
 
-    private Flux<OSINTResult> createStartMessage(String query, String sessionId, String queryType) {
+    private Flux<OSINTResult> createStartMessage(String query, String sessionId, QueryType queryType, boolean paced) {
         OSINTResult startResult = new OSINTResult("System", "status", query, sessionId);
         startResult.setSuccess(true);
         startResult.setMessage("Starting OSINT lookup for: " + query + " (detected as: " + queryType + ")");
-        return Flux.just(startResult).delayElements(Duration.ofMillis(500));
+        return pace(Flux.just(startResult), 500, paced);
     }
 
-    private Flux<OSINTResult> createEndMessage(String sessionId) {
-        OSINTResult endResult = new OSINTResult("System", "status", "", sessionId);
+    private OSINTResult createEndMessage(String sessionId, String streamMode, long startNanos) {
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        // Its own type, so clients can tell the end of a lookup from provider messages
+        OSINTResult endResult = new OSINTResult("System", "end", "", sessionId);
+        Map<String, Object> timing = new HashMap<>();
+        timing.put("mode", streamMode);
+        timing.put("elapsed_ms", elapsedMillis);
         endResult.setSuccess(true);
-        endResult.setMessage("OSINT lookup completed. Type another query or 'help' for commands.");
-        return Flux.just(endResult).delayElements(Duration.ofMillis(1000));
+        endResult.setData(timing);
+        endResult.setMessage("OSINT lookup completed in " + elapsedMillis + " ms (" + streamMode
+            + " mode). Type another query or 'help' for commands.");
+        return endResult;
     }
 
-    private Flux<OSINTResult> performActualLookup(String query, String queryType, String sessionId) {
-        switch (queryType) {
-            case "phone":
-                return phoneInfoService.lookupPhone(query, sessionId)
-                    .flux()
-                    .delayElements(Duration.ofMillis(800));
-            
-            case "email":
-                return emailInfoService.lookupEmail(query, sessionId)
-                    .flux()
-                    .delayElements(Duration.ofMillis(1200));
-            
-            case "ip":
-                return geoIPService.lookupIP(query, sessionId)
-                    .flux()
-                    .delayElements(Duration.ofMillis(600));
-            
-            case "name":
-                return Flux.merge(
-                    emailInfoService.lookupEmail(query + "@gmail.com", sessionId)
-                        .delayElement(Duration.ofMillis(1000)),
-                    createNameSearchResult(query, sessionId)
-                        .delayElement(Duration.ofMillis(1500))
-                );
-            
-            default:
-                return createUnknownQueryResult(query, sessionId).flux();
+    // Fans out to every provider registered for the query type at once and emits results in
+    // completion order; each provider is cut off when the query's deadline expires. Paced mode asks
+    // the providers one after another instead, so results arrive one line at a time.
+    private Flux<OSINTResult> performActualLookup(String query, QueryType queryType, String sessionId, boolean paced) {
+        List<OSINTProvider> providers = providerRegistry.providersFor(queryType);
+        if (providers.isEmpty()) {
+            return createUnknownQueryResult(query, queryType, sessionId).flux();
+        }
+        if (paced) {
+            long pacing = pacingDelay(queryType);
+            return Flux.fromIterable(providers)
+                .concatMap(provider -> pace(callProvider(provider, query, queryType, sessionId), pacing, true));
         }
+        return Flux.fromIterable(providers)
+            .flatMap(provider -> callProvider(provider, query, queryType, sessionId), providers.size());
     }
 
-    private String detectQueryType(String query) {
-        query = query.trim().toLowerCase();
-        
-        if (query.matches("\\+?[1-9]\\d{1,14}") || query.matches("\\d{10,15}")) {
-            return "phone";
-        }
-        
-        if (query.contains("@") && query.contains(".")) {
-            return "email";
-        }
-        
-        if (query.matches("\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}")) {
-            return "ip";
-        }
-        
-        if (query.matches("[a-zA-Z\\s]+")) {
-            return "name";
+    private Mono<OSINTResult> callProvider(OSINTProvider provider, String query, QueryType queryType, String sessionId) {
+        return Mono.defer(() -> provider.lookup(query, queryType, sessionId))
+            .doOnNext(result -> countResult(provider, result.isSuccess() ? "success" : "failure"))
+            .timeout(lookupDeadline, Mono.fromSupplier(() -> {
+                countResult(provider, "deadline");
+                return createProviderFailure(provider, query, queryType, sessionId,
+                    provider.getDisplayName() + " did not respond within " + lookupDeadline.toMillis() + " ms");
+            }))
+            .onErrorResume(error -> {
+                countResult(provider, "error");
+                return Mono.just(createProviderFailure(provider, query, queryType,
+                    sessionId, provider.getDisplayName() + " lookup failed"));
+            })
+            // The Caller in the context is whose history and graph the result goes into
+            .doOnEach(signal -> {
+                if (!signal.isOnNext()) {
+                    return;
+                }
+                OSINTResult result = signal.get();
+                String user = Caller.from(signal.getContextView()).user();
+                historyStore.record(user, query, queryType, provider.getName(), result);
+                entityGraph.record(user, query, queryType, result);
+            });
+    }
+
+    // Results as seen by the user, including cached and locally rejected ones
+    private void countResult(OSINTProvider provider, String outcome) {
+        meterRegistry.counter("osint.provider.results", "provider", provider.getName(), "outcome", outcome).increment();
+    }
+
+    private long pacingDelay(QueryType queryType) {
+        switch (queryType) {
+            case PHONE:
+                return 800;
+            case EMAIL:
+                return 1200;
+            case IP:
+                return 600;
+            default:
+                return 1000;
         }
-        
-        return "unknown";
     }
 
-    private Mono<OSINTResult> createNameSearchResult(String name, String sessionId) {
-        OSINTResult result = new OSINTResult("Social Search (Demo)", "name", name, sessionId);
-        result.setSuccess(true);
-        result.setMessage("Social media search completed for: " + name);
-        return Mono.just(result);
+    private OSINTResult createProviderFailure(OSINTProvider provider, String query, QueryType queryType,
+                                              String sessionId, String message) {
+        OSINTResult result = new OSINTResult(provider.getDisplayName(), queryType.getKey(), query, sessionId);
+        result.setSuccess(false);
+        result.setMessage(message);
+        return result;
     }
 
-    private Mono<OSINTResult> createUnknownQueryResult(String query, String sessionId) {
+    private Mono<OSINTResult> createUnknownQueryResult(String query, QueryType queryType, String sessionId) {
         OSINTResult result = new OSINTResult("System", "error", query, sessionId);
         result.setSuccess(false);
-        result.setMessage("Unknown query type. Try: phone number, email, IP address, or person name");
+        result.setMessage(queryType == QueryType.UNKNOWN
+            ? "Unknown query type. Try: phone number, email, IP address, or person name"
+            : "No providers available for " + queryType.getKey() + " queries yet");
         return Mono.just(result);
     }
 }
\ No newline at end of file
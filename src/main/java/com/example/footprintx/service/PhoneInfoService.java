@@ -1,18 +1,32 @@
 package com.example.footprintx.service;
 
+import com.example.footprintx.model.NumverifyResponse;
 import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.phone.PhoneMetadataEngine;
+import com.example.footprintx.phone.PhoneNumberInfo;
+import com.example.footprintx.provider.OSINTProvider;
+import com.example.footprintx.resilience.ProviderGuard;
+import com.example.footprintx.resilience.ProviderGuardRegistry;
+import com.example.footprintx.resilience.ProviderRejectedException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
-public class PhoneInfoService {
+public class PhoneInfoService implements OSINTProvider {
     
     private final WebClient webClient;
+    private final ProviderResultCache resultCache;
+    private final ProviderGuard guard;
+    private final PhoneMetadataEngine phoneMetadata;
     
     @Value("${api.numverify.key}")
     private String apiKey;
@@ -20,34 +34,122 @@ public class PhoneInfoService {
     @Value("${api.numverify.url}")
     private String apiUrl;
 
-    public PhoneInfoService(WebClient webClient) {
+    @Value("${api.numverify.cache-ttl:24h}")
+    private Duration cacheTtl;
+
+    // In "prefer" mode Numverify is only asked when the numbering plan lacks one of these fields
+    @Value("${phone.required-fields:country_code,line_type}")
+    private String[] requiredFields;
+
+    public PhoneInfoService(@Qualifier("numverifyWebClient") WebClient webClient,
+                            ProviderResultCache resultCache,
+                            ProviderGuardRegistry guards,
+                            PhoneMetadataEngine phoneMetadata) {
         this.webClient = webClient;
+        this.resultCache = resultCache;
+        this.guard = guards.forProvider("numverify");
+        this.phoneMetadata = phoneMetadata;
+    }
+
+    @Override
+    public String getName() {
+        return "numverify";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Numverify";
+    }
+
+    @Override
+    public Set<QueryType> getQueryTypes() {
+        return Set.of(QueryType.PHONE);
+    }
+
+    @Override
+    public Mono<OSINTResult> lookup(String query, QueryType queryType, String sessionId) {
+        return lookupPhone(query, sessionId);
     }
 
     public Mono<OSINTResult> lookupPhone(String phoneNumber, String sessionId) {
+        String normalized = QueryNormalizer.normalizePhone(phoneNumber);
+        PhoneNumberInfo local = phoneMetadata.lookup(normalized);
+        PhoneMetadataEngine.Mode mode = phoneMetadata.getMode();
+        if (local != null && (mode == PhoneMetadataEngine.Mode.ONLY || isComplete(local) || "demo_key".equals(apiKey))) {
+            return Mono.just(createLocalResult(phoneNumber, normalized, sessionId, local, null));
+        }
+        if (mode == PhoneMetadataEngine.Mode.ONLY) {
+            OSINTResult result = new OSINTResult("Numbering plan (local)", "phone", phoneNumber, sessionId);
+            return Mono.just(createErrorResult(result, "Number does not match any known country prefix"));
+        }
+
+        Mono<OSINTResult> remote = resultCache.lookup("numverify", normalized, cacheTtl, phoneNumber, sessionId,
+                () -> fetchPhone(phoneNumber, normalized, sessionId))
+            .onErrorResume(ProviderRejectedException.class,
+                error -> Mono.just(createRejectedResult(phoneNumber, sessionId, error)));
+        return local == null ? remote : remote.map(result -> mergeLocal(result, local, normalized));
+    }
+
+    private boolean isComplete(PhoneNumberInfo local) {
+        for (String field : requiredFields) {
+            if (!local.has(field.trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Numverify's answer wins where it has one (it knows about ported numbers); the plan fills the rest.
+    // If Numverify failed, the partial local answer is still returned.
+    private OSINTResult mergeLocal(OSINTResult remote, PhoneNumberInfo local, String normalized) {
+        if (!remote.isSuccess()) {
+            return createLocalResult(remote.getQuery(), normalized, remote.getSessionId(), local, remote.getMessage());
+        }
+        Map<String, Object> merged = local.toData(normalized);
+        if (remote.getData() != null) {
+            remote.getData().forEach((key, value) -> {
+                if (value != null && !"".equals(value)) {
+                    merged.put(key, value);
+                }
+            });
+        }
+        remote.setData(merged);
+        return remote;
+    }
+
+    private OSINTResult createLocalResult(String phoneNumber, String normalized, String sessionId,
+                                          PhoneNumberInfo local, String remoteFailure) {
+        OSINTResult result = new OSINTResult("Numbering plan (local)", "phone", phoneNumber, sessionId);
+        result.setSuccess(true);
+        result.setData(local.toData(normalized));
+        result.setMessage(remoteFailure == null
+            ? "Phone lookup completed from the numbering plan"
+            : "Phone details from the numbering plan only (" + remoteFailure + ")");
+        return result;
+    }
+
+    private Mono<OSINTResult> fetchPhone(String phoneNumber, String normalized, String sessionId) {
         OSINTResult result = new OSINTResult("Numverify", "phone", phoneNumber, sessionId);
         
         if ("demo_key".equals(apiKey)) {
             return createDemoPhoneResult(phoneNumber, sessionId);
         }
         
-        return webClient.get()
-            .uri(uriBuilder -> uriBuilder
-                .scheme("http")
-                .host("apilayer.net")
-                .path("/api/validate")
-                .queryParam("access_key", apiKey)
-                .queryParam("number", phoneNumber)
-                .build())
-            .retrieve()
-            .bodyToMono(Map.class)
+        return guard.protect(() -> webClient.get()
+                .uri(apiUrl + "?access_key={key}&number={number}", apiKey, normalized)
+                .retrieve()
+                .bodyToMono(NumverifyResponse.class))
             .map(response -> {
+                if (response.error() != null) {
+                    return createErrorResult(result, "Failed to lookup phone number: " + response.error().info());
+                }
                 result.setSuccess(true);
-                result.setData(response);
+                result.setData(response.toData());
                 result.setMessage("Phone lookup completed successfully");
                 return result;
             })
-            .onErrorReturn(createErrorResult(result, "Failed to lookup phone number"));
+            .onErrorReturn(error -> !(error instanceof ProviderRejectedException),
+                createErrorResult(result, "Failed to lookup phone number"));
     }
     
     private Mono<OSINTResult> createDemoPhoneResult(String phoneNumber, String sessionId) {
@@ -68,6 +170,11 @@ public class PhoneInfoService {
         return Mono.just(result);
     }
     
+    private OSINTResult createRejectedResult(String phoneNumber, String sessionId, ProviderRejectedException error) {
+        OSINTResult result = new OSINTResult("Numverify", "phone", phoneNumber, sessionId);
+        return createErrorResult(result, "Numverify is temporarily unavailable (" + error.getMessage() + "), try again shortly");
+    }
+    
     private OSINTResult createErrorResult(OSINTResult result, String errorMessage) {
         result.setSuccess(false);
         result.setMessage(errorMessage);
@@ -0,0 +1,124 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.service.ProviderResultCache.CachedLookup;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+
+// Second-level store for provider results evicted from memory, backed by the configured H2 datasource.
+// JDBC is blocking, so every call is shifted onto the blocking scheduler.
+@Component
+public class ProviderCacheSpillStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderCacheSpillStore.class);
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+
+    @Value("${osint.cache.spill-enabled:false}")
+    private boolean enabled;
+
+    public ProviderCacheSpillStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                   @Qualifier("blockingScheduler") Scheduler blockingScheduler) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @PostConstruct
+    void createTable() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS provider_cache (
+                cache_key VARCHAR(512) PRIMARY KEY,
+                source VARCHAR(128),
+                result_type VARCHAR(32),
+                success BOOLEAN,
+                message VARCHAR(1024),
+                data CLOB,
+                expires_at BIGINT NOT NULL
+            )""");
+    }
+
+    public void save(String key, CachedLookup entry) {
+        if (!enabled || entry.remainingMillis() == 0) {
+            return;
+        }
+        Mono.fromRunnable(() -> jdbcTemplate.update(
+                "MERGE INTO provider_cache KEY (cache_key) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                key, entry.source, entry.type, entry.success, entry.message,
+                writeData(entry.data), entry.expiresAtMillis))
+            .subscribeOn(blockingScheduler)
+            .subscribe(null, error -> log.warn("Failed to spill cache entry {}: {}", key, error.getMessage()));
+    }
+
+    public Mono<CachedLookup> find(String key) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> {
+                List<CachedLookup> rows = jdbcTemplate.query(
+                    "SELECT source, result_type, success, message, data, expires_at FROM provider_cache WHERE cache_key = ?",
+                    (rs, rowNum) -> new CachedLookup(
+                        rs.getString("source"),
+                        rs.getString("result_type"),
+                        rs.getBoolean("success"),
+                        rs.getString("message"),
+                        readData(rs.getString("data")),
+                        rs.getLong("expires_at")),
+                    key);
+                if (rows.isEmpty()) {
+                    return null;
+                }
+                CachedLookup entry = rows.get(0);
+                if (entry.remainingMillis() == 0) {
+                    jdbcTemplate.update("DELETE FROM provider_cache WHERE cache_key = ?", key);
+                    return null;
+                }
+                return entry;
+            })
+            .subscribeOn(blockingScheduler)
+            .onErrorResume(error -> {
+                log.warn("Failed to read spilled cache entry {}: {}", key, error.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private String writeData(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize cached provider data", e);
+        }
+    }
+
+    private Map<String, Object> readData(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize cached provider data", e);
+        }
+    }
+}
\ No newline at end of file
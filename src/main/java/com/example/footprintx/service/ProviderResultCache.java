@@ -0,0 +1,171 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.OSINTResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Component
+public class ProviderResultCache {
+
+    private final Cache<String, CachedLookup> cache;
+    // One upstream call per key at a time; concurrent callers for the same key subscribe to it
+    private final Map<String, Mono<CachedLookup>> inFlight = new ConcurrentHashMap<>();
+    private final ProviderCacheSpillStore spillStore;
+    private final Duration negativeTtl;
+    private final MeterRegistry meterRegistry;
+
+    public ProviderResultCache(@Value("${osint.cache.max-entries:10000}") long maxEntries,
+                               @Value("${osint.cache.negative-ttl:30s}") Duration negativeTtl,
+                               ProviderCacheSpillStore spillStore,
+                               MeterRegistry meterRegistry) {
+        this.spillStore = spillStore;
+        this.negativeTtl = negativeTtl;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(new LookupExpiry())
+            .removalListener((String key, CachedLookup entry, RemovalCause cause) -> {
+                if (cause == RemovalCause.SIZE && key != null && entry != null) {
+                    spillStore.save(key, entry);
+                }
+            })
+            .build();
+
+        Gauge.builder("osint.cache.entries", this, ProviderResultCache::size)
+            .description("Provider results held in memory")
+            .register(meterRegistry);
+    }
+
+    public Mono<OSINTResult> lookup(String provider, String normalizedQuery, Duration ttl,
+                                    String query, String sessionId, Supplier<Mono<OSINTResult>> loader) {
+        String key = provider + '|' + normalizedQuery;
+
+        return Mono.defer(() -> {
+            CachedLookup cached = cache.getIfPresent(key);
+            if (cached != null) {
+                countLookup(provider, "hit");
+                return Mono.just(cached.toResult(query, sessionId, "hit"));
+            }
+
+            return spillStore.find(key)
+                .map(spilled -> {
+                    cache.put(key, spilled);
+                    countLookup(provider, "spill_hit");
+                    return spilled.toResult(query, sessionId, "hit");
+                })
+                .switchIfEmpty(Mono.defer(() -> join(provider, key, ttl, loader, query, sessionId)));
+        });
+    }
+
+    private Mono<OSINTResult> join(String provider, String key, Duration ttl, Supplier<Mono<OSINTResult>> loader,
+                                   String query, String sessionId) {
+        boolean[] leader = new boolean[1];
+        Mono<CachedLookup> flight = inFlight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            return newFlight(k, ttl, loader);
+        });
+        String status = leader[0] ? "miss" : "coalesced";
+        countLookup(provider, status);
+        return flight.map(entry -> entry.toResult(query, sessionId, status));
+    }
+
+    // The upstream call is shared with publish().refCount(1): a subscriber that cancels only
+    // detaches itself, and the call is cancelled once every subscriber has gone away.
+    private Mono<CachedLookup> newFlight(String key, Duration ttl, Supplier<Mono<OSINTResult>> loader) {
+        AtomicReference<Mono<CachedLookup>> self = new AtomicReference<>();
+        Mono<CachedLookup> flight = Mono.defer(loader)
+            .map(result -> CachedLookup.of(result, result.isSuccess() ? ttl : negativeTtl))
+            .doOnNext(entry -> {
+                // Publish to the cache before leaving the in-flight map so late callers see a hit
+                cache.put(key, entry);
+                inFlight.remove(key, self.get());
+            })
+            .doFinally(signal -> inFlight.remove(key, self.get()))
+            .flux()
+            .publish()
+            .refCount(1)
+            .singleOrEmpty();
+        self.set(flight);
+        return flight;
+    }
+
+    private void countLookup(String provider, String status) {
+        meterRegistry.counter("osint.cache.lookups", "provider", provider, "status", status).increment();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    static final class CachedLookup {
+        final String source;
+        final String type;
+        final boolean success;
+        final String message;
+        final Map<String, Object> data;
+        final long expiresAtMillis;
+
+        CachedLookup(String source, String type, boolean success, String message,
+                     Map<String, Object> data, long expiresAtMillis) {
+            this.source = source;
+            this.type = type;
+            this.success = success;
+            this.message = message;
+            this.data = data;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        static CachedLookup of(OSINTResult result, Duration ttl) {
+            Map<String, Object> data = result.getData() == null
+                ? null
+                : Collections.unmodifiableMap(new HashMap<>(result.getData()));
+            return new CachedLookup(result.getSource(), result.getType(), result.isSuccess(),
+                result.getMessage(), data, System.currentTimeMillis() + ttl.toMillis());
+        }
+
+        long remainingMillis() {
+            return Math.max(0, expiresAtMillis - System.currentTimeMillis());
+        }
+
+        OSINTResult toResult(String query, String sessionId, String cacheStatus) {
+            OSINTResult result = new OSINTResult(source, type, query, sessionId);
+            result.setSuccess(success);
+            result.setMessage(message);
+            result.setData(data);
+            result.setCacheStatus(cacheStatus);
+            return result;
+        }
+    }
+
+    private static final class LookupExpiry implements Expiry<String, CachedLookup> {
+        @Override
+        public long expireAfterCreate(String key, CachedLookup entry, long currentTime) {
+            return Duration.ofMillis(entry.remainingMillis()).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedLookup entry, long currentTime, long currentDuration) {
+            return Duration.ofMillis(entry.remainingMillis()).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedLookup entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.ClassifiedQuery;
+import com.example.footprintx.model.QueryType;
+import io.netty.util.NetUtil;
+
+// Works out what a free-text query is in a single scan: every candidate type's rules are
+// evaluated side by side on each character, so there are no regexes, no lower-casing copies
+// and no allocation in classify(CharSequence).
+public final class QueryClassifier {
+
+    private static final int MAX_PHONE_DIGITS = 15;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int MIN_USERNAME_LENGTH = 3;
+    private static final int MAX_USERNAME_LENGTH = 30;
+
+    private QueryClassifier() {}
+
+    // Uses the explicit type when the client asked for one, otherwise detects it
+    public static ClassifiedQuery classify(String query, String explicitType) {
+        QueryType requested = QueryType.fromKey(explicitType);
+        QueryType type = requested != null ? requested : classify(query);
+        return new ClassifiedQuery(type, normalize(type, query));
+    }
+
+    public static QueryType classify(CharSequence query) {
+        int start = 0;
+        int end = query.length();
+        while (start < end && Character.isWhitespace(query.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(query.charAt(end - 1))) {
+            end--;
+        }
+        int length = end - start;
+        if (length == 0) {
+            return QueryType.UNKNOWN;
+        }
+
+        boolean leadingAt = query.charAt(start) == '@';
+
+        boolean allHex = true;
+
+        boolean phoneChars = true;
+        int phoneDigits = 0;
+        char firstDigit = 0;
+
+        boolean nameChars = true;
+        int letters = 0;
+
+        boolean usernameChars = true;
+        boolean usernameMarks = leadingAt;
+
+        boolean ipv4 = true;
+        int octets = 0;
+        int octetDigits = 0;
+        int octetValue = 0;
+
+        boolean ipv6Chars = true;
+        int colons = 0;
+
+        int ats = 0;
+        int atIndex = -1;
+        boolean localChars = true;
+
+        // Domain rules apply to the whole query, or to the part after the last '@'
+        boolean domainChars = true;
+        int domainDots = 0;
+        int labelLength = 0;
+        boolean labelAlpha = true;
+        boolean lastHyphen = false;
+
+        for (int i = start; i < end; i++) {
+            char c = query.charAt(i);
+            char lower = (char) (c | 0x20);
+            boolean digit = c >= '0' && c <= '9';
+            boolean asciiLetter = lower >= 'a' && lower <= 'z';
+
+            allHex &= digit || (lower >= 'a' && lower <= 'f');
+
+            if (digit) {
+                if (phoneDigits == 0) {
+                    firstDigit = c;
+                }
+                phoneDigits++;
+            } else if (!(c == ' ' || c == '-' || c == '(' || c == ')' || (c == '+' && i == start))) {
+                phoneChars = false;
+            }
+
+            if (Character.isLetter(c)) {
+                letters++;
+            } else if (!(Character.isWhitespace(c) || c == '-' || c == '\'')) {
+                nameChars = false;
+            }
+
+            if (digit || c == '_') {
+                usernameMarks = true;
+            } else if (!(asciiLetter || c == '.' || c == '-' || (c == '@' && i == start))) {
+                usernameChars = false;
+            }
+
+            if (ipv4) {
+                if (digit) {
+                    octetValue = octetValue * 10 + (c - '0');
+                    ipv4 = ++octetDigits <= 3 && octetValue <= 255;
+                } else if (c == '.' && octetDigits > 0) {
+                    octets++;
+                    octetDigits = 0;
+                    octetValue = 0;
+                } else {
+                    ipv4 = false;
+                }
+            }
+
+            if (c == ':') {
+                colons++;
+            } else if (!(digit || (lower >= 'a' && lower <= 'f') || c == '.')) {
+                ipv6Chars = false;
+            }
+
+            if (c == '@') {
+                ats++;
+                atIndex = i;
+                domainChars = true;
+                domainDots = 0;
+                labelLength = 0;
+                labelAlpha = true;
+                lastHyphen = false;
+                continue;
+            }
+            if (ats == 0 && !(digit || asciiLetter || c == '.' || c == '_' || c == '%' || c == '+' || c == '-')) {
+                localChars = false;
+            }
+            // Non-ASCII letters and digits are allowed in labels for internationalized domains
+            boolean unicodeLetter = c >= 0x80 && Character.isLetter(c);
+            if (digit || asciiLetter || unicodeLetter || (c >= 0x80 && Character.isDigit(c))) {
+                labelAlpha &= asciiLetter || unicodeLetter;
+                lastHyphen = false;
+                domainChars &= ++labelLength <= MAX_LABEL_LENGTH;
+            } else if (c == '-') {
+                labelAlpha = false;
+                lastHyphen = true;
+                domainChars &= labelLength++ > 0;
+            } else if (c == '.') {
+                domainChars &= labelLength > 0 && !lastHyphen;
+                domainDots++;
+                labelLength = 0;
+                labelAlpha = true;
+                lastHyphen = false;
+            } else {
+                domainChars = false;
+            }
+        }
+
+        if (ipv4 && octets == 3 && octetDigits > 0) {
+            return QueryType.IP;
+        }
+        if (ipv6Chars && colons >= 2 && NetUtil.isValidIpV6Address(
+                start == 0 && end == query.length() ? query : query.subSequence(start, end))) {
+            return QueryType.IP;
+        }
+
+        // The last label is the TLD: at least two letters
+        boolean domain = domainChars && domainDots > 0 && labelLength >= 2 && labelAlpha;
+        if (ats == 1 && atIndex > start && localChars && domain) {
+            return QueryType.EMAIL;
+        }
+        if (phoneChars && phoneDigits <= MAX_PHONE_DIGITS
+                && (phoneDigits >= 10 || (phoneDigits >= 2 && firstDigit != '0'))) {
+            return QueryType.PHONE;
+        }
+        if (allHex && (length == 32 || length == 40 || length == 64 || length == 128)) {
+            return QueryType.HASH;
+        }
+        if (ats == 0 && domain) {
+            return QueryType.DOMAIN;
+        }
+        int usernameLength = leadingAt ? length - 1 : length;
+        if (usernameChars && usernameMarks && letters > 0
+                && usernameLength >= MIN_USERNAME_LENGTH && usernameLength <= MAX_USERNAME_LENGTH) {
+            return QueryType.USERNAME;
+        }
+        if (nameChars && letters > 0) {
+            return QueryType.NAME;
+        }
+        return QueryType.UNKNOWN;
+    }
+
+    public static String normalize(QueryType type, String query) {
+        switch (type) {
+            case PHONE:
+                return QueryNormalizer.normalizePhone(query);
+            case EMAIL:
+                return QueryNormalizer.normalizeEmail(query);
+            case IP:
+                return QueryNormalizer.normalizeIp(query);
+            case DOMAIN:
+                return QueryNormalizer.normalizeDomain(query);
+            case USERNAME:
+                return QueryNormalizer.normalizeUsername(query);
+            case HASH:
+                return QueryNormalizer.normalizeHash(query);
+            case NAME:
+                return QueryNormalizer.normalizeName(query);
+            default:
+                return query.trim();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.example.footprintx.service;
+
+import io.netty.util.NetUtil;
+
+import java.net.IDN;
+import java.net.InetAddress;
+import java.util.Locale;
+
+public final class QueryNormalizer {
+
+    private QueryNormalizer() {}
+
+    // Strips separators and returns "+<digits>", or the trimmed input if it has no digits
+    public static String normalizePhone(String phoneNumber) {
+        String trimmed = phoneNumber.trim();
+        StringBuilder digits = new StringBuilder(trimmed.length() + 1).append('+');
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() == 1) {
+            return trimmed;
+        }
+        // Drop the international "00" dialling prefix
+        if (digits.length() > 3 && digits.charAt(1) == '0' && digits.charAt(2) == '0') {
+            digits.delete(1, 3);
+        }
+        return digits.toString();
+    }
+
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Canonical text form of an IPv4/IPv6 literal (RFC 5952 for IPv6); anything else is returned trimmed
+    public static String normalizeIp(String ipAddress) {
+        String trimmed = ipAddress.trim();
+        // Netty parses literals only, so this never triggers a DNS lookup
+        InetAddress address = NetUtil.createInetAddressFromIpAddressString(trimmed);
+        return address != null ? NetUtil.toAddressString(address) : trimmed;
+    }
+
+    // Internationalized domains are converted to their ASCII (punycode) form, which is what DNS and WHOIS use
+    public static String normalizeDomain(String domain) {
+        String lowered = domain.trim().toLowerCase(Locale.ROOT);
+        String stripped = lowered.endsWith(".") ? lowered.substring(0, lowered.length() - 1) : lowered;
+        for (int i = 0; i < stripped.length(); i++) {
+            if (stripped.charAt(i) >= 0x80) {
+                try {
+                    return IDN.toASCII(stripped);
+                } catch (IllegalArgumentException e) {
+                    return stripped;
+                }
+            }
+        }
+        return stripped;
+    }
+
+    // Handles are matched case-insensitively and may be written with a leading '@'
+    public static String normalizeUsername(String username) {
+        String lowered = username.trim().toLowerCase(Locale.ROOT);
+        return lowered.startsWith("@") ? lowered.substring(1) : lowered;
+    }
+
+    public static String normalizeHash(String hash) {
+        return hash.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Collapses runs of whitespace to a single space
+    public static String normalizeName(String name) {
+        String stripped = name.strip();
+        StringBuilder collapsed = null;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                if (collapsed != null) {
+                    collapsed.append(c);
+                }
+                continue;
+            }
+            // stripped never ends in whitespace, so i + 1 is in range
+            boolean redundant = Character.isWhitespace(stripped.charAt(i + 1));
+            if (collapsed == null && (redundant || c != ' ')) {
+                collapsed = new StringBuilder(stripped.length()).append(stripped, 0, i);
+            }
+            if (collapsed != null && !redundant) {
+                collapsed.append(' ');
+            }
+        }
+        return collapsed != null ? collapsed.toString() : stripped;
+    }
+}
\ No newline at end of file
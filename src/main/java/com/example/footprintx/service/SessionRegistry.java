@@ -0,0 +1,87 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.LookupRequest;
+import com.example.footprintx.resilience.Caller;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// Sessions expire after osint.sessions.ttl without access and the registry never holds more than
+// osint.sessions.max-size of them, so streams that are never opened or never finish cannot leak
+@Component
+public class SessionRegistry {
+
+    private final Cache<String, LookupSession> sessions;
+    private final OSINTOrchestratorService orchestratorService;
+    private final int replaySize;
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    @Autowired
+    public SessionRegistry(OSINTOrchestratorService orchestratorService,
+                           MeterRegistry meterRegistry,
+                           @Value("${osint.sessions.ttl:10m}") Duration ttl,
+                           @Value("${osint.sessions.max-size:10000}") long maxSize,
+                           @Value("${osint.sessions.replay-size:64}") int replaySize) {
+        this(orchestratorService, meterRegistry, ttl, maxSize, replaySize, System::nanoTime);
+    }
+
+    SessionRegistry(OSINTOrchestratorService orchestratorService, MeterRegistry meterRegistry,
+                    Duration ttl, long maxSize, int replaySize, LongSupplier nanoClock) {
+        this.orchestratorService = orchestratorService;
+        this.replaySize = replaySize;
+        this.sessions = Caffeine.newBuilder()
+            .expireAfterAccess(ttl)
+            .ticker(nanoClock::getAsLong)
+            .maximumSize(maxSize)
+            // Evict on the calling thread so the size cap is enforced immediately
+            .executor(Runnable::run)
+            .removalListener((String id, LookupSession session, RemovalCause cause) -> {
+                if (session != null) {
+                    session.close();
+                }
+            })
+            .build();
+
+        Gauge.builder("osint.sessions.active", this, SessionRegistry::size)
+            .description("Lookup sessions held in the registry")
+            .register(meterRegistry);
+        Gauge.builder("osint.sessions.subscribers", subscribers, AtomicInteger::get)
+            .description("Open SSE streams attached to a session")
+            .register(meterRegistry);
+    }
+
+    public LookupSession create(LookupRequest request, String user) {
+        LookupSession session = new LookupSession(UUID.randomUUID().toString(), request, user, replaySize);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    public LookupSession get(String sessionId) {
+        return sessions.getIfPresent(sessionId);
+    }
+
+    public Flux<LookupSession.Event> stream(LookupSession session, long lastEventId) {
+        LookupRequest request = session.getRequest();
+        return session.events(lastEventId,
+                () -> orchestratorService.performLookup(request.getQuery(), request.getType(),
+                        request.getMode(), session.getId())
+                    .contextWrite(Caller.interactive(session.getUser())))
+            .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+            .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    public long size() {
+        return sessions.estimatedSize();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.provider.OSINTProvider;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@Service
+public class SocialSearchService implements OSINTProvider {
+
+    @Override
+    public String getName() {
+        return "social";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Social Search (Demo)";
+    }
+
+    @Override
+    public Set<QueryType> getQueryTypes() {
+        return Set.of(QueryType.NAME);
+    }
+
+    @Override
+    public Mono<OSINTResult> lookup(String query, QueryType queryType, String sessionId) {
+        OSINTResult result = new OSINTResult("Social Search (Demo)", "name", query, sessionId);
+        result.setSuccess(true);
+        result.setMessage("Social media search completed for: " + query);
+        return Mono.just(result);
+    }
+}
\ No newline at end of file
@@ -7,8 +7,12 @@ class FootprintXTerminal {
         this.commandHistory = [];
         this.historyIndex = -1;
         this.currentSession = null;
+        this.lastEventId = null;
         this.eventSource = null;
         this.isProcessing = false;
+        this.displayQueue = [];
+        this.displayTimer = null;
+        this.displayDelayMs = 250; // cosmetic pacing between results, 0 to disable
         
         this.init();
     }
@@ -90,12 +94,33 @@ class FootprintXTerminal {
     }
 
     setupAuthentication() {
-        // Basic authentication setup
-        const credentials = btoa('admin:admin123');
-        this.authHeaders = {
-            'Authorization': `Basic ${credentials}`,
-            'Content-Type': 'application/json'
-        };
+        // Basic credentials are only sent to get a short-lived bearer token,
+        // which is much cheaper for the server to check on every request
+        this.basicCredentials = btoa('admin:admin123');
+        this.token = null;
+        this.tokenExpiresAt = 0;
+    }
+
+    getToken() {
+        // Renew a little before expiry so a stream reconnect never uses a stale token
+        if (this.token && Date.now() < this.tokenExpiresAt - 30000) {
+            return Promise.resolve(this.token);
+        }
+        return fetch('/api/auth/token', {
+            method: 'POST',
+            headers: { 'Authorization': `Basic ${this.basicCredentials}` }
+        })
+        .then(response => {
+            if (!response.ok) {
+                throw new Error(`HTTP ${response.status}`);
+            }
+            return response.json();
+        })
+        .then(data => {
+            this.token = data.token;
+            this.tokenExpiresAt = Date.now() + data.expiresIn * 1000;
+            return this.token;
+        });
     }
 
     showWelcome() {
@@ -288,11 +313,15 @@ class FootprintXTerminal {
         this.writeLine('⚡ Establishing secure connection...', 'status-info');
 
         // Start lookup request
-        fetch('/api/lookup', {
+        this.getToken()
+        .then(token => fetch('/api/lookup', {
             method: 'POST',
-            headers: this.authHeaders,
-            body: JSON.stringify({ query: query, type: 'auto' })
-        })
+            headers: {
+                'Authorization': `Bearer ${token}`,
+                'Content-Type': 'application/json'
+            },
+            body: JSON.stringify({ query: query, type: 'auto', mode: 'fast' })
+        }))
         .then(response => {
             if (!response.ok) {
                 throw new Error(`HTTP ${response.status}`);
@@ -301,6 +330,7 @@ class FootprintXTerminal {
         })
         .then(data => {
             this.currentSession = data.sessionId;
+            this.lastEventId = null;
             this.streamResults(data.sessionId);
         })
         .catch(error => {
@@ -312,16 +342,37 @@ class FootprintXTerminal {
 
     streamResults(sessionId) {
         this.closeEventSource();
-        
-        this.eventSource = new EventSource(`/api/stream/${sessionId}`, {
-            // Note: EventSource doesn't support custom headers directly
-            // Authentication is handled by the browser's basic auth
+
+        this.getToken()
+        .then(token => this.openStream(sessionId, token))
+        .catch(error => {
+            this.writeLine(`❌ Error: ${error.message}`, 'status-error');
+            this.isProcessing = false;
+            this.showPrompt();
         });
+    }
+
+    openStream(sessionId, token) {
+        // EventSource cannot send headers, so the token goes in the query string.
+        // Resume after the last result we received instead of replaying the whole lookup
+        const params = new URLSearchParams({ access_token: token });
+        if (this.lastEventId) {
+            params.set('lastEventId', this.lastEventId);
+        }
+        this.eventSource = new EventSource(`/api/stream/${sessionId}?${params}`);
 
         this.eventSource.onmessage = (event) => {
             try {
                 const result = JSON.parse(event.data);
-                this.displayResult(result);
+                if (event.lastEventId) {
+                    this.lastEventId = event.lastEventId;
+                }
+                if (this.isEndMessage(result)) {
+                    // Close before the paced display catches up so the
+                    // browser does not reconnect and replay the lookup
+                    this.closeEventSource();
+                }
+                this.enqueueResult(result);
             } catch (error) {
                 this.writeLine(`⚠️  Data parsing error: ${error.message}`, 'status-warning');
             }
@@ -343,6 +394,29 @@ class FootprintXTerminal {
         });
     }
 
+    enqueueResult(result) {
+        if (this.displayDelayMs <= 0) {
+            this.displayResult(result);
+            return;
+        }
+
+        this.displayQueue.push(result);
+        if (!this.displayTimer) {
+            this.drainDisplayQueue();
+        }
+    }
+
+    drainDisplayQueue() {
+        const result = this.displayQueue.shift();
+        if (!result) {
+            this.displayTimer = null;
+            return;
+        }
+
+        this.displayResult(result);
+        this.displayTimer = setTimeout(() => this.drainDisplayQueue(), this.displayDelayMs);
+    }
+
     displayResult(result) {
         const timestamp = new Date(result.timestamp).toLocaleTimeString();
         const statusIcon = result.success ? '✅' : '❌';
@@ -359,13 +433,17 @@ class FootprintXTerminal {
         }
 
         // Check if this is the end message
-        if (result.type === 'status' && result.message.includes('completed')) {
+        if (this.isEndMessage(result)) {
             this.closeEventSource();
             this.isProcessing = false;
             setTimeout(() => this.showPrompt(), 500);
         }
     }
 
+    isEndMessage(result) {
+        return result.type === 'end';
+    }
+
     displayData(data) {
         Object.entries(data).forEach(([key, value]) => {
             if (key === 'demo_mode') return; // Skip demo indicator
@@ -0,0 +1,234 @@
+package com.example.footprintx;
+
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.provider.OSINTProvider;
+import com.example.footprintx.resilience.Caller;
+import com.example.footprintx.service.EmailInfoService;
+import com.example.footprintx.service.GeoIPService;
+import com.example.footprintx.service.OSINTOrchestratorService;
+import com.example.footprintx.service.PhoneInfoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+
+// The whole app against the stub providers, with BlockHound installed (blockhound-junit-platform): a
+// blocking call on an event loop or parallel thread anywhere on these paths fails the request, or turns
+// the provider result into a failure. Every call is subscribed on the parallel scheduler, so nothing
+// gets away with running on the test thread.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "phone.local-mode=off")
+@ActiveProfiles("stub")
+class NonBlockingIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @DynamicPropertySource
+    static void stubProviders(DynamicPropertyRegistry registry) {
+        // Suppliers are asked on every read, and the stub and the api.<provider>.url overrides must agree
+        int stubPort = freePort();
+        registry.add("stub.port", () -> stubPort);
+        for (String provider : List.of("numverify", "clearbit", "ipstack")) {
+            registry.add("stub." + provider + ".latency.median", () -> "5ms");
+            registry.add("stub." + provider + ".latency.p99", () -> "20ms");
+            registry.add("stub." + provider + ".error-rate", () -> "0");
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OSINTOrchestratorService orchestrator;
+
+    @Autowired
+    private GeoIPService geoIPService;
+
+    @Autowired
+    private PhoneInfoService phoneInfoService;
+
+    @Autowired
+    private EmailInfoService emailInfoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = webTestClient.mutate()
+            .responseTimeout(TIMEOUT)
+            .defaultHeaders(headers -> headers.setBasicAuth("admin", "admin123"))
+            .build();
+    }
+
+    @Test
+    void streamsALookupStartedWithPostLookup() {
+        Map<String, String> started = client.post().uri("/api/lookup")
+            .bodyValue(Map.of("query", "8.8.8.8"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(new ParameterizedTypeReference<Map<String, String>>() { })
+            .returnResult().getResponseBody();
+        assertThat(started).containsEntry("status", "started");
+
+        Flux<OSINTResult> events = client.get().uri("/api/stream/{sessionId}", started.get("sessionId"))
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(OSINTResult.class)
+            .getResponseBody();
+
+        StepVerifier.create(events.takeUntil(result -> "end".equals(result.getType())))
+            .assertNext(start -> assertThat(start.getType()).isEqualTo("status"))
+            .assertNext(result -> {
+                assertThat(result.getSource()).isEqualTo("IPStack");
+                assertThat(result.isSuccess()).as(result.getMessage()).isTrue();
+                assertThat(result.getData()).containsEntry("isp", "Stub Networks");
+            })
+            .assertNext(end -> assertThat(end.getType()).isEqualTo("end"))
+            .expectComplete()
+            .verify(TIMEOUT);
+    }
+
+    @Test
+    void answersNdjsonAndPlainTextBatches() {
+        List<OSINTResult> ndjson = client.post().uri("/api/batch")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue("{\"query\":\"8.8.4.4\"}\n{\"query\":\"batch@example.com\"}\n")
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(OSINTResult.class)
+            .getResponseBody()
+            .collectList()
+            .block(TIMEOUT);
+        List<OSINTResult> lines = client.post().uri("/api/batch")
+            .contentType(MediaType.TEXT_PLAIN)
+            .bodyValue("1.0.0.1\n+14155550123\n")
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(OSINTResult.class)
+            .getResponseBody()
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(ndjson).extracting(OSINTResult::getSource).containsExactlyInAnyOrder("IPStack", "Clearbit");
+        assertThat(lines).extracting(OSINTResult::getSource).containsExactlyInAnyOrder("IPStack", "Numverify");
+        assertThat(ndjson).allSatisfy(result -> assertThat(result.isSuccess()).as(result.getMessage()).isTrue());
+        assertThat(lines).allSatisfy(result -> assertThat(result.isSuccess()).as(result.getMessage()).isTrue());
+    }
+
+    @Test
+    void answersLookupsOverTheWebSocket() {
+        List<JsonNode> frames = new CopyOnWriteArrayList<>();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth("admin", "admin123");
+
+        new ReactorNettyWebSocketClient().execute(URI.create("ws://localhost:" + port + "/api/ws"), headers,
+                session -> session.send(Mono.just(session.textMessage(
+                        "{\"op\":\"lookup\",\"id\":\"r1\",\"query\":\"ws@example.com\"}")))
+                    .thenMany(session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .map(this::readTree)
+                        .doOnNext(frames::add)
+                        .takeUntil(frame -> !"result".equals(frame.path("event").asText())))
+                    .then())
+            .block(TIMEOUT);
+
+        assertThat(frames).extracting(frame -> frame.path("event").asText())
+            .containsExactly("result", "result", "result", "done");
+        assertThat(frames).extracting(frame -> frame.path("id").asText()).containsOnly("r1");
+        JsonNode clearbit = frames.get(1).path("result");
+        assertThat(clearbit.path("source").asText()).isEqualTo("Clearbit");
+        assertThat(clearbit.path("success").asBoolean()).as(clearbit.path("message").asText()).isTrue();
+        assertThat(clearbit.path("data").path("company").path("domain").asText()).isEqualTo("example.com");
+    }
+
+    @Test
+    void performLookupRunsOnTheParallelScheduler() {
+        Flux<OSINTResult> results = Flux.defer(() -> orchestrator.performLookup("+1 415 555 2671"))
+            .contextWrite(Caller.interactive("analyst"))
+            .subscribeOn(Schedulers.parallel());
+
+        StepVerifier.create(results)
+            .assertNext(start -> assertThat(start.getType()).isEqualTo("status"))
+            .assertNext(result -> {
+                assertThat(result.getSource()).isEqualTo("Numverify");
+                assertThat(result.isSuccess()).as(result.getMessage()).isTrue();
+                assertThat(result.getData()).containsEntry("carrier", "Stub Mobile");
+            })
+            .assertNext(end -> assertThat(end.getType()).isEqualTo("end"))
+            .expectComplete()
+            .verify(TIMEOUT);
+    }
+
+    @Test
+    void everyProviderAnswersFromTheStubOnTheParallelScheduler() {
+        assertThat(lookup(geoIPService, "9.9.9.9", QueryType.IP).getData())
+            .containsEntry("isp", "Stub Networks");
+        assertThat(lookup(phoneInfoService, "+14155550199", QueryType.PHONE).getData())
+            .containsEntry("carrier", "Stub Mobile");
+        assertThat(lookup(emailInfoService, "provider@example.org", QueryType.EMAIL).getData())
+            .extractingByKey("company").asInstanceOf(MAP)
+            .containsEntry("domain", "example.org");
+    }
+
+    private OSINTResult lookup(OSINTProvider provider, String query, QueryType type) {
+        OSINTResult result = Mono.defer(() -> provider.lookup(query, type, "session-1"))
+            .contextWrite(Caller.interactive("analyst"))
+            .subscribeOn(Schedulers.parallel())
+            .block(TIMEOUT);
+        assertThat(result).isNotNull();
+        assertThat(result.isSuccess()).as(result.getMessage()).isTrue();
+        assertThat(result.getCacheStatus()).isEqualTo("miss");
+        return result;
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
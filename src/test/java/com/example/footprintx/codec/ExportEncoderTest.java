@@ -0,0 +1,143 @@
+package com.example.footprintx.codec;
+
+import com.example.footprintx.model.HistoryExportRow;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ExportEncoderTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String CSV_HEADER =
+        "id,recordedAt,query,queryType,provider,source,success,message,sessionId,data";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExportEncoder encoder = new ExportEncoder(objectMapper, Schedulers.parallel(), 1);
+
+    @Test
+    void ndjsonRoundTripsThroughGzip() throws IOException {
+        // Several chunks, and a row without data
+        int rows = 600;
+        Flux<HistoryExportRow> source = Flux.range(1, rows)
+            .map(i -> row(i, "8.8.8.8", "ok", i == 7 ? null : "{\"isp\":\"Stub Networks\",\"asn\":" + i + "}"));
+
+        List<String> lines = gunzip(encoder.encode(source, ExportEncoder.Format.NDJSON,
+            DefaultDataBufferFactory.sharedInstance)).lines().toList();
+
+        assertThat(lines).hasSize(rows);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.path("id").asLong()).isEqualTo(1);
+        assertThat(first.path("recordedAt").asText()).isEqualTo("1970-01-01T00:00:00.001Z");
+        assertThat(first.path("query").asText()).isEqualTo("8.8.8.8");
+        assertThat(first.path("success").asBoolean()).isTrue();
+        assertThat(first.path("sessionId").asText()).isEqualTo("session-1");
+        // Stored data is embedded as JSON, not as a string
+        assertThat(first.path("data").path("isp").asText()).isEqualTo("Stub Networks");
+        assertThat(objectMapper.readTree(lines.get(6)).path("data").isNull()).isTrue();
+        assertThat(objectMapper.readTree(lines.get(rows - 1)).path("data").path("asn").asInt()).isEqualTo(rows);
+    }
+
+    @Test
+    void csvRoundTripsThroughGzip() throws IOException {
+        int rows = 600;
+        Flux<HistoryExportRow> source = Flux.range(1, rows).map(i -> row(i, "query-" + i, "ok", null));
+
+        List<String> lines = List.of(gunzip(encoder.encode(source, ExportEncoder.Format.CSV,
+            DefaultDataBufferFactory.sharedInstance)).split("\r\n"));
+
+        assertThat(lines).hasSize(rows + 1);
+        assertThat(lines.get(0)).isEqualTo(CSV_HEADER);
+        assertThat(Csv.parseLine(lines.get(rows))).containsExactly(
+            String.valueOf(rows), "1970-01-01T00:00:00.600Z", "query-" + rows, "ip", "ipstack", "IPStack",
+            "true", "ok", "session-1", "");
+    }
+
+    @Test
+    void csvFieldsWithCommasQuotesAndLineBreaksAreQuoted() throws IOException {
+        Flux<HistoryExportRow> source = Flux.just(
+            row(1, "Doe, \"Jane\"", "line one\nline two", "{\"isp\":\"Stub, Inc.\"}"));
+
+        String csv = gunzip(encoder.encode(source, ExportEncoder.Format.CSV, DefaultDataBufferFactory.sharedInstance));
+
+        assertThat(csv).isEqualTo(CSV_HEADER + "\r\n"
+            + "1,1970-01-01T00:00:00.001Z,\"Doe, \"\"Jane\"\"\",ip,ipstack,IPStack,true,\"line one\nline two\","
+            + "session-1,\"{\"\"isp\"\":\"\"Stub, Inc.\"\"}\"\r\n");
+    }
+
+    @Test
+    void anEmptyExportIsAValidGzipFile() throws IOException {
+        assertThat(gunzip(encoder.encode(Flux.empty(), ExportEncoder.Format.NDJSON,
+            DefaultDataBufferFactory.sharedInstance))).isEmpty();
+        assertThat(gunzip(encoder.encode(Flux.empty(), ExportEncoder.Format.CSV,
+            DefaultDataBufferFactory.sharedInstance))).isEqualTo(CSV_HEADER + "\r\n");
+        assertThat(encoder.openCompressors()).isZero();
+    }
+
+    @Test
+    void releasesTheDeflaterWhenTheDownloadIsCancelled() {
+        // Rows for as long as the client keeps reading
+        Flux<HistoryExportRow> endless = Flux.<HistoryExportRow, Integer>generate(() -> 1, (i, sink) -> {
+            sink.next(row(i, "8.8.8.8", "ok", "{}"));
+            return i + 1;
+        });
+
+        StepVerifier.create(encoder.encode(endless, ExportEncoder.Format.NDJSON,
+                    DefaultDataBufferFactory.sharedInstance)
+                .doOnNext(DataBufferUtils::release), 2)
+            .expectNextCount(2)
+            .then(() -> assertThat(encoder.openCompressors()).isEqualTo(1))
+            .thenCancel()
+            .verify(TIMEOUT);
+
+        await().atMost(TIMEOUT).until(() -> encoder.openCompressors() == 0);
+    }
+
+    @Test
+    void releasesTheDeflaterWhenReadingRowsFails() {
+        Flux<HistoryExportRow> failing = Flux.range(1, 1_000)
+            .map(i -> row(i, "8.8.8.8", "ok", "{}"))
+            .concatWith(Flux.error(new IllegalStateException("Database gone")));
+
+        StepVerifier.create(encoder.encode(failing, ExportEncoder.Format.CSV, DefaultDataBufferFactory.sharedInstance)
+                .doOnNext(DataBufferUtils::release))
+            .thenConsumeWhile(buffer -> true)
+            .expectErrorMessage("Database gone")
+            .verify(TIMEOUT);
+
+        assertThat(encoder.openCompressors()).isZero();
+    }
+
+    private static HistoryExportRow row(long id, String query, String message, String data) {
+        return new HistoryExportRow(id, id, query, "ip", "ipstack", "IPStack", true, message, data, "session-1");
+    }
+
+    private static String gunzip(Flux<DataBuffer> export) throws IOException {
+        byte[] compressed = DataBufferUtils.join(export)
+            .map(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                return bytes;
+            })
+            .block(TIMEOUT);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
\ No newline at end of file
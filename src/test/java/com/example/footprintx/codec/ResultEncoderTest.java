@@ -0,0 +1,177 @@
+package com.example.footprintx.codec;
+
+import com.example.footprintx.model.OSINTResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ResultEncoder encoder = new ResultEncoder(objectMapper);
+    private final RecordingBufferFactory bufferFactory = new RecordingBufferFactory();
+
+    @Test
+    void escapesTheMessageAndNestsTheData() throws IOException {
+        OSINTResult result = new OSINTResult("IPStack", "ip", "8.8.8.8", "session-1");
+        result.setSuccess(true);
+        result.setMessage("back\\slash \"quoted\"\nnext line \u0001 café ✓");
+        Map<String, Object> connection = new LinkedHashMap<>();
+        connection.put("asn", 15169);
+        connection.put("isp", "Google \"LLC\"");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("connection", connection);
+        data.put("ports", List.of(53, 443));
+        data.put("missing", null);
+        result.setData(data);
+
+        String event = encode(encoder.encodeEvent(42, result, bufferFactory));
+
+        assertThat(event).startsWith("id:42\ndata:").endsWith("\n\n");
+        String json = event.substring("id:42\ndata:".length(), event.length() - 2);
+        // A raw line break would end the SSE data line early
+        assertThat(json).doesNotContain("\n", "\r", "\u0001");
+        JsonNode parsed = objectMapper.readTree(json);
+        assertThat(parsed.path("message").asText()).isEqualTo(result.getMessage());
+        assertThat(parsed.path("data").path("connection").path("asn").asInt()).isEqualTo(15169);
+        assertThat(parsed.path("data").path("connection").path("isp").asText()).isEqualTo("Google \"LLC\"");
+        assertThat(parsed.path("data").path("ports").get(1).asInt()).isEqualTo(443);
+        assertThat(parsed.path("data").has("missing")).isTrue();
+        assertThat(parsed.path("timestamp").asText()).isEqualTo(result.getTimestamp().toString());
+    }
+
+    @Test
+    void writesFieldsInOrderAndLeavesOutNulls() throws IOException {
+        OSINTResult result = new OSINTResult("System", "end", "", null);
+        result.setSuccess(true);
+
+        JsonNode parsed = objectMapper.readTree(dataLine(encode(encoder.encodeEvent(1, result, bufferFactory))));
+
+        List<String> fields = new ArrayList<>();
+        parsed.fieldNames().forEachRemaining(fields::add);
+        assertThat(fields).containsExactly("source", "type", "query", "success", "timestamp");
+    }
+
+    @Test
+    void writesEventIdsAsDecimals() {
+        OSINTResult result = new OSINTResult("System", "status", "8.8.8.8", "session-1");
+
+        for (long id : new long[] {0, 7, 10, 1234567890123L, Long.MAX_VALUE}) {
+            assertThat(encode(encoder.encodeEvent(id, result, bufferFactory))).startsWith("id:" + id + "\ndata:{");
+        }
+    }
+
+    @Test
+    void errorEventsHaveNoId() throws IOException {
+        String event = encode(encoder.encodeErrorEvent("Session \"x\" not found", bufferFactory));
+
+        assertThat(event).startsWith("data:").endsWith("\n\n");
+        assertThat(objectMapper.readTree(dataLine(event)).path("error").asText()).isEqualTo("Session \"x\" not found");
+    }
+
+    @Test
+    void framesCarryEitherAResultOrAMessage() throws IOException {
+        OSINTResult result = new OSINTResult("Clearbit", "email", "jane@example.com", "ws-1");
+
+        JsonNode resultFrame = objectMapper.readTree(encode(
+            encoder.encodeFrame("r1", "result", result, null, bufferFactory)));
+        JsonNode errorFrame = objectMapper.readTree(encode(
+            encoder.encodeFrame(null, "error", null, "Too many lookups", bufferFactory)));
+
+        assertThat(resultFrame.path("id").asText()).isEqualTo("r1");
+        assertThat(resultFrame.path("result").path("source").asText()).isEqualTo("Clearbit");
+        assertThat(resultFrame.has("message")).isFalse();
+        assertThat(errorFrame.has("id")).isFalse();
+        assertThat(errorFrame.has("result")).isFalse();
+        assertThat(errorFrame.path("message").asText()).isEqualTo("Too many lookups");
+    }
+
+    @Test
+    void releasesTheBufferWhenSerializationFails() {
+        // Jackson refuses to serialize an object without properties
+        OSINTResult result = new OSINTResult("IPStack", "ip", "8.8.8.8", "session-1");
+        result.setData(Map.of("unserializable", new Object()));
+
+        assertThatThrownBy(() -> encoder.encodeEvent(1, result, bufferFactory))
+            .isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> encoder.encodeFrame("r1", "result", result, null, bufferFactory))
+            .isInstanceOf(UncheckedIOException.class);
+
+        assertThat(bufferFactory.allocated).hasSize(2)
+            .allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isZero());
+    }
+
+    private static String dataLine(String event) {
+        int start = event.indexOf("data:") + "data:".length();
+        return event.substring(start, event.indexOf('\n', start));
+    }
+
+    private static String encode(DataBuffer buffer) {
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    // Netty buffers, so a test can check their reference counts; every allocation is kept
+    private static final class RecordingBufferFactory implements DataBufferFactory {
+
+        private final NettyDataBufferFactory delegate = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        private final List<NettyDataBuffer> allocated = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public DataBuffer allocateBuffer() {
+            return record(delegate.allocateBuffer());
+        }
+
+        @Override
+        public DataBuffer allocateBuffer(int initialCapacity) {
+            return record(delegate.allocateBuffer(initialCapacity));
+        }
+
+        @Override
+        public DataBuffer wrap(ByteBuffer byteBuffer) {
+            return delegate.wrap(byteBuffer);
+        }
+
+        @Override
+        public DataBuffer wrap(byte[] bytes) {
+            return delegate.wrap(bytes);
+        }
+
+        @Override
+        public DataBuffer join(List<? extends DataBuffer> dataBuffers) {
+            return delegate.join(dataBuffers);
+        }
+
+        @Override
+        public boolean isDirect() {
+            return delegate.isDirect();
+        }
+
+        private NettyDataBuffer record(NettyDataBuffer buffer) {
+            allocated.add(buffer);
+            return buffer;
+        }
+    }
+}
\ No newline at end of file
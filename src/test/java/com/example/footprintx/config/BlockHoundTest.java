@@ -0,0 +1,152 @@
+package com.example.footprintx.config;
+
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.service.LookupHistoryStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// BlockHound is installed for every test run by blockhound-junit-platform, together with
+// BlockingCallAllowances. These tests pin down that it is actually active and what it lets through.
+class BlockHoundTest {
+
+    private DisposableServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void sleepingOnANettyEventLoopFails() {
+        AtomicReference<Throwable> blocked = new AtomicReference<>();
+        server = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> {
+                try {
+                    Thread.sleep(10);
+                } catch (Throwable e) {
+                    blocked.set(e);
+                }
+                return response.sendString(Mono.just("done"));
+            })
+            .bindNow();
+
+        String body = HttpClient.create().port(server.port()).get().uri("/")
+            .responseContent().aggregate().asString()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(body).isEqualTo("done");
+        assertThat(blocked.get()).isInstanceOf(BlockingOperationError.class)
+            .hasMessageContaining("java.lang.Thread.sleep");
+    }
+
+    @Test
+    void sleepingOnTheParallelSchedulerFails() {
+        StepVerifier.create(Mono.fromCallable(() -> {
+                    Thread.sleep(10);
+                    return "slept";
+                })
+                .subscribeOn(Schedulers.parallel()))
+            .verifyError(BlockingOperationError.class);
+    }
+
+    @Test
+    void sleepingOnTheBoundedElasticSchedulerIsAllowed() {
+        StepVerifier.create(Mono.fromCallable(() -> {
+                    Thread.sleep(10);
+                    return "slept";
+                })
+                .subscribeOn(Schedulers.boundedElastic()))
+            .expectNext("slept")
+            .verifyComplete();
+    }
+
+    // Why BlockingCallAllowances exempts ArrayBlockingQueue.offer: the history writer holds the queue
+    // lock while it drains a batch, and an event loop offering a result meanwhile parks until it is free.
+    @Test
+    void offeringToALockedQueueIsAllowed() throws InterruptedException {
+        ArrayBlockingQueue<String> queue = new ArrayBlockingQueue<>(10);
+        queue.offer("queued");
+        CountDownLatch release = holdLock(queue);
+
+        AtomicReference<Thread> offering = new AtomicReference<>();
+        StepVerifier.create(Mono.fromCallable(() -> {
+                    offering.set(Thread.currentThread());
+                    return queue.offer("result");
+                })
+                .subscribeOn(Schedulers.parallel()))
+            .then(() -> releaseOnceParked(offering, release))
+            .expectNext(true)
+            .verifyComplete();
+    }
+
+    @Test
+    void recordingHistoryOnAnEventLoopWaitsForTheWriterWithoutFailing() throws InterruptedException {
+        LookupHistoryStore store = new LookupHistoryStore(null, null, new SimpleMeterRegistry(), Schedulers.boundedElastic());
+        ArrayBlockingQueue<Object> queue = new ArrayBlockingQueue<>(10);
+        queue.offer(new Object());
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "queue", queue);
+        CountDownLatch release = holdLock(queue);
+
+        OSINTResult result = new OSINTResult("IPStack", "ip", "8.8.8.8", "session");
+        AtomicReference<Thread> recording = new AtomicReference<>();
+        StepVerifier.create(Mono.fromRunnable(() -> {
+                    recording.set(Thread.currentThread());
+                    store.record("analyst", "8.8.8.8", QueryType.IP, "ipstack", result);
+                })
+                .subscribeOn(Schedulers.parallel()))
+            .then(() -> releaseOnceParked(recording, release))
+            .verifyComplete();
+        assertThat(queue).hasSize(2);
+    }
+
+    // Holds the queue's lock on another thread, like a writer in the middle of draining it, until the
+    // returned latch is released. The queue must not be empty.
+    private static CountDownLatch holdLock(ArrayBlockingQueue<?> queue) throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // removeIf calls its filter with the lock held
+        Thread holder = new Thread(() -> queue.removeIf(element -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }), "queue-lock-holder");
+        holder.setDaemon(true);
+        holder.start();
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+        return release;
+    }
+
+    // Makes sure the call really waited for the lock before letting it go
+    private static void releaseOnceParked(AtomicReference<Thread> caller, CountDownLatch release) {
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> caller.get() != null && caller.get().getState() == Thread.State.WAITING);
+        release.countDown();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,283 @@
+package com.example.footprintx.controller;
+
+import com.example.footprintx.codec.ResultEncoder;
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.service.OSINTOrchestratorService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LookupWebSocketHandlerTest {
+
+    private static final int MAX_QUEUED_CONTROL_FRAMES = 8;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OSINTOrchestratorService orchestrator = mock(OSINTOrchestratorService.class);
+    private final Map<String, Sinks.Many<OSINTResult>> upstreams = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> upstreamCancels = new ConcurrentHashMap<>();
+    private LookupWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        // Each query gets its own upstream, which the test completes or leaves running
+        when(orchestrator.performLookup(anyString(), any(), any(), anyString())).thenAnswer(invocation -> {
+            String query = invocation.getArgument(0);
+            Sinks.Many<OSINTResult> upstream = Sinks.many().unicast().onBackpressureBuffer();
+            upstreams.put(query, upstream);
+            AtomicInteger cancels = upstreamCancels.computeIfAbsent(query, key -> new AtomicInteger());
+            return upstream.asFlux().doOnCancel(cancels::incrementAndGet);
+        });
+        handler = new LookupWebSocketHandler(orchestrator, new ResultEncoder(objectMapper), objectMapper,
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(handler, "maxConcurrentLookups", 16);
+        ReflectionTestUtils.setField(handler, "maxPendingLookups", 256);
+        ReflectionTestUtils.setField(handler, "maxQueuedControlFrames", MAX_QUEUED_CONTROL_FRAMES);
+    }
+
+    @Test
+    void cancellingOneLookupLeavesTheOthersRunning() {
+        FakeSession session = connect(true);
+        session.receive("{\"op\":\"lookup\",\"id\":\"r1\",\"query\":\"8.8.8.8\"}");
+        session.receive("{\"op\":\"lookup\",\"id\":\"r2\",\"query\":\"john@example.com\"}");
+        await().atMost(Duration.ofSeconds(5)).until(() -> upstreams.size() == 2);
+
+        session.receive("{\"op\":\"cancel\",\"id\":\"r1\"}");
+        await().atMost(Duration.ofSeconds(5)).until(() -> session.events("r1").contains("cancelled"));
+        assertThat(upstreamCancels.get("8.8.8.8")).hasValue(1);
+
+        Sinks.Many<OSINTResult> second = upstreams.get("john@example.com");
+        second.tryEmitNext(new OSINTResult("EmailRep", "email", "john@example.com", "ws-1"));
+        second.tryEmitComplete();
+        await().atMost(Duration.ofSeconds(5)).until(() -> session.events("r2").contains("done"));
+
+        assertThat(session.events("r1")).containsExactly("cancelled");
+        assertThat(session.events("r2")).containsExactly("result", "done");
+        assertThat(upstreamCancels.get("john@example.com")).hasValue(0);
+        assertThat(session.closeStatus).isNull();
+    }
+
+    @Test
+    void aCancelledIdCanBeReusedAndUnknownIdsAreReported() {
+        FakeSession session = connect(true);
+        session.receive("{\"op\":\"lookup\",\"id\":\"r1\",\"query\":\"8.8.8.8\"}");
+        session.receive("{\"op\":\"cancel\",\"id\":\"r1\"}");
+        await().atMost(Duration.ofSeconds(5)).until(() -> session.events("r1").contains("cancelled"));
+
+        session.receive("{\"op\":\"cancel\",\"id\":\"r9\"}");
+        session.receive("{\"op\":\"lookup\",\"id\":\"r1\",\"query\":\"1.1.1.1\"}");
+        await().atMost(Duration.ofSeconds(5)).until(() -> upstreams.containsKey("1.1.1.1"));
+        upstreams.get("1.1.1.1").tryEmitComplete();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> session.events("r1").contains("done"));
+        assertThat(session.events("r1")).containsExactly("cancelled", "done");
+        assertThat(session.events("r9")).containsExactly("error");
+    }
+
+    @Test
+    void aClientThatReadsItsRepliesIsNeverDisconnected() {
+        FakeSession session = connect(true);
+        for (int i = 0; i < 1_000; i++) {
+            session.receive("not json");
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> session.frames.size() == 1_000);
+        assertThat(session.closeStatus).isNull();
+    }
+
+    @Test
+    void aClientThatFloodsWithoutReadingIsClosedWithAPolicyViolation() {
+        FakeSession session = connect(false);
+        for (int i = 0; i < 1_000; i++) {
+            session.receive("{\"op\":\"cancel\",\"id\":\"r" + i + "\"}");
+        }
+
+        assertThat(session.closeStatus).isNotNull();
+        assertThat(session.closeStatus.getCode()).isEqualTo(CloseStatus.POLICY_VIOLATION.getCode());
+        // Replies were queued up to the bound, then the connection was closed instead of buffering more
+        session.startReading();
+        assertThat(session.frames.size()).isLessThan(100);
+        verify(orchestrator, never()).performLookup(anyString(), any(), any(), anyString());
+    }
+
+    private FakeSession connect(boolean reading) {
+        FakeSession session = new FakeSession(reading);
+        handler.handle(session).subscribe();
+        return session;
+    }
+
+    // A WebSocket whose client side is driven by the test; a client that is not reading requests no frames
+    private final class FakeSession implements WebSocketSession {
+
+        private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        private final Sinks.Many<WebSocketMessage> inbound = Sinks.many().unicast().onBackpressureBuffer();
+        private final List<JsonNode> frames = new CopyOnWriteArrayList<>();
+        private final Client client = new Client();
+        private final HandshakeInfo handshakeInfo = new HandshakeInfo(URI.create("ws://localhost/api/ws"),
+            HttpHeaders.EMPTY, Mono.just(new TestingAuthenticationToken("analyst", null)), null);
+        private volatile boolean reading;
+        private volatile CloseStatus closeStatus;
+
+        FakeSession(boolean reading) {
+            this.reading = reading;
+        }
+
+        void receive(String json) {
+            inbound.tryEmitNext(textMessage(json));
+        }
+
+        void startReading() {
+            reading = true;
+            client.requestUnbounded();
+        }
+
+        List<String> events(String id) {
+            return frames.stream()
+                .filter(frame -> id.equals(frame.path("id").asText(null)))
+                .map(frame -> frame.get("event").asText())
+                .toList();
+        }
+
+        @Override
+        public Mono<Void> send(Publisher<WebSocketMessage> messages) {
+            return Mono.create(done -> {
+                client.done = done;
+                Flux.from(messages).subscribe(client);
+            });
+        }
+
+        @Override
+        public Flux<WebSocketMessage> receive() {
+            return inbound.asFlux();
+        }
+
+        @Override
+        public Mono<Void> close(CloseStatus status) {
+            closeStatus = status;
+            inbound.tryEmitComplete();
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<CloseStatus> closeStatus() {
+            return Mono.justOrEmpty(closeStatus);
+        }
+
+        @Override
+        public String getId() {
+            return "ws-1";
+        }
+
+        @Override
+        public HandshakeInfo getHandshakeInfo() {
+            return handshakeInfo;
+        }
+
+        @Override
+        public DataBufferFactory bufferFactory() {
+            return bufferFactory;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return Map.of();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeStatus == null;
+        }
+
+        @Override
+        public WebSocketMessage textMessage(String payload) {
+            return new WebSocketMessage(WebSocketMessage.Type.TEXT,
+                bufferFactory.wrap(payload.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public WebSocketMessage binaryMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return new WebSocketMessage(WebSocketMessage.Type.BINARY, payloadFactory.apply(bufferFactory));
+        }
+
+        @Override
+        public WebSocketMessage pingMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return new WebSocketMessage(WebSocketMessage.Type.PING, payloadFactory.apply(bufferFactory));
+        }
+
+        @Override
+        public WebSocketMessage pongMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return new WebSocketMessage(WebSocketMessage.Type.PONG, payloadFactory.apply(bufferFactory));
+        }
+
+        private final class Client extends BaseSubscriber<WebSocketMessage> {
+
+            private MonoSink<Void> done;
+
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                if (reading) {
+                    requestUnbounded();
+                }
+            }
+
+            @Override
+            protected void hookOnNext(WebSocketMessage message) {
+                try {
+                    frames.add(objectMapper.readTree(message.getPayloadAsText()));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    DataBufferUtils.release(message.getPayload());
+                }
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                done.success();
+            }
+
+            @Override
+            protected void hookOnError(Throwable error) {
+                done.error(error);
+            }
+        }
+    }
+}
\ No newline at end of file
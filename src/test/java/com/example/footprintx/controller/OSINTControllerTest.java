@@ -0,0 +1,122 @@
+package com.example.footprintx.controller;
+
+import com.example.footprintx.codec.ExportEncoder;
+import com.example.footprintx.codec.ResultEncoder;
+import com.example.footprintx.model.LookupRequest;
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.service.LookupHistoryStore;
+import com.example.footprintx.service.OSINTOrchestratorService;
+import com.example.footprintx.service.SessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import reactor.core.publisher.Flux;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Session streams and status as seen by the session's owner and by other users
+class OSINTControllerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Principal OWNER = new TestingAuthenticationToken("analyst", null);
+    private static final Principal OTHER = new TestingAuthenticationToken("intruder", null);
+
+    private final OSINTOrchestratorService orchestrator = mock(OSINTOrchestratorService.class);
+    private final AtomicInteger lookups = new AtomicInteger();
+    private OSINTController controller;
+
+    @BeforeEach
+    void setUp() {
+        // Three provider results, then the end of the lookup
+        when(orchestrator.performLookup(anyString(), any(), any(), anyString())).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            String query = invocation.getArgument(0);
+            String sessionId = invocation.getArgument(3);
+            return Flux.just("IPStack", "Clearbit", "Numverify", "System")
+                .map(source -> new OSINTResult(source, "ip", query, sessionId));
+        });
+        ObjectMapper objectMapper = new ObjectMapper();
+        SessionRegistry sessionRegistry = new SessionRegistry(orchestrator, new SimpleMeterRegistry(),
+            Duration.ofMinutes(10), 100, 64);
+        controller = new OSINTController(orchestrator, sessionRegistry, new ResultEncoder(objectMapper),
+            mock(LookupHistoryStore.class), mock(ExportEncoder.class));
+    }
+
+    @Test
+    void theOwnerStreamsTheirSession() {
+        String sessionId = start(OWNER);
+
+        String body = stream(sessionId, null, null, OWNER);
+
+        assertThat(body).contains("id:1\n", "id:4\n", "\"source\":\"Numverify\"");
+        assertThat(lookups).hasValue(1);
+    }
+
+    @Test
+    void anotherUsersSessionIsNotFound() {
+        String sessionId = start(OWNER);
+
+        assertThat(stream(sessionId, null, null, OTHER)).isEqualTo("data:{\"error\":\"Session not found\"}\n\n");
+        // Looking at it does not start the lookup on the owner's behalf either
+        assertThat(lookups).hasValue(0);
+        assertThat(stream("no-such-session", null, null, OWNER)).contains("Session not found");
+    }
+
+    @Test
+    void statusIsOnlyShownToTheOwner() {
+        String sessionId = start(OWNER);
+
+        assertThat(controller.getSessionStatus(sessionId, OWNER).block(TIMEOUT))
+            .containsEntry("active", true)
+            .containsEntry("query", "8.8.8.8");
+        assertThat(controller.getSessionStatus(sessionId, OTHER).block(TIMEOUT))
+            .containsEntry("sessionId", sessionId)
+            .containsEntry("active", false)
+            .containsEntry("query", "");
+    }
+
+    @Test
+    void resumesAfterTheLastEventIdWithoutANewLookup() {
+        String sessionId = start(OWNER);
+        stream(sessionId, null, null, OWNER);
+
+        // The header wins over the query parameter
+        String fromHeader = stream(sessionId, "2", "1", OWNER);
+        String fromParam = stream(sessionId, null, "3", OWNER);
+
+        assertThat(fromHeader).doesNotContain("id:1\n", "id:2\n").contains("id:3\n", "id:4\n");
+        assertThat(fromParam).doesNotContain("id:3\n").contains("id:4\n");
+        assertThat(lookups).hasValue(1);
+    }
+
+    @Test
+    void anUnreadableLastEventIdReplaysEverything() {
+        String sessionId = start(OWNER);
+
+        assertThat(stream(sessionId, "not-a-number", null, OWNER)).contains("id:1\n", "id:4\n");
+    }
+
+    private String start(Principal principal) {
+        Map<String, String> started = controller.startLookup(new LookupRequest("8.8.8.8", null), principal)
+            .block(TIMEOUT);
+        return started.get("sessionId");
+    }
+
+    private String stream(String sessionId, String lastEventIdHeader, String lastEventIdParam, Principal principal) {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        controller.streamResults(sessionId, lastEventIdHeader, lastEventIdParam, principal, response).block(TIMEOUT);
+        return response.getBodyAsString().block(TIMEOUT);
+    }
+}
\ No newline at end of file
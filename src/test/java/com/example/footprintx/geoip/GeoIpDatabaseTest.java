@@ -0,0 +1,199 @@
+package com.example.footprintx.geoip;
+
+import io.netty.util.NetUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeoIpDatabaseTest {
+
+    private static final String HEADER = "network,start_ip,end_ip,country_code,country_name,city,latitude,longitude,asn,isp";
+    // Ranges at both ends of each address space, a CIDR row whose last IPv6 address has the sign bit set
+    // in both halves, and the same "reserved" record shared by several ranges
+    private static final List<String> ROWS = List.of(
+        ",0.0.0.0,0.0.0.255,ZZ,Reserved,,,,,",
+        "10.0.0.0/8,,,US,United States,Springfield,39.78,-89.65,AS64500,\"Example, Inc.\"",
+        ",192.0.2.1,192.0.2.254,GB,United Kingdom,London,51.5,-0.12,64501,Doc Net",
+        ",255.255.255.0,255.255.255.255,ZZ,Reserved,,,,,",
+        ",::,::ff,ZZ,Reserved,,,,,",
+        "2001:db8::/32,,,DE,Germany,Berlin,52.52,13.4,64502,Doc Six",
+        ",ffff::,ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff,ZZ,Reserved,,,,,");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsAddressesAtAndInsideRangeBoundaries() throws IOException {
+        GeoIpDatabase database = GeoIpDatabase.open(build(ROWS));
+
+        assertThat(database.getIpv4RangeCount()).isEqualTo(4);
+        assertThat(database.getIpv6RangeCount()).isEqualTo(3);
+        assertThat(countries(database, "0.0.0.0", "0.0.0.255", "255.255.255.0", "255.255.255.255"))
+            .containsOnly("ZZ");
+        assertThat(countries(database, "10.0.0.0", "10.128.0.1", "10.255.255.255")).containsOnly("US");
+        assertThat(countries(database, "192.0.2.1", "192.0.2.254")).containsOnly("GB");
+        assertThat(countries(database, "::", "::ff", "ffff::", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"))
+            .containsOnly("ZZ");
+        assertThat(countries(database, "2001:db8::", "2001:db8:8000::1", "2001:db8:ffff:ffff:ffff:ffff:ffff:ffff"))
+            .containsOnly("DE");
+    }
+
+    @Test
+    void findsNothingJustOutsideARange() throws IOException {
+        GeoIpDatabase database = GeoIpDatabase.open(build(ROWS));
+
+        assertThat(countries(database, "0.0.1.0", "9.255.255.255", "11.0.0.0", "192.0.2.0", "192.0.2.255",
+            "255.255.254.255", "::100", "2001:db7:ffff:ffff:ffff:ffff:ffff:ffff", "2001:db9::",
+            "fffe:ffff:ffff:ffff:ffff:ffff:ffff:ffff")).containsOnlyNulls();
+        assertThat(database.find(new byte[6])).isNull();
+    }
+
+    @Test
+    void decodesEveryField() throws IOException {
+        GeoIpDatabase database = GeoIpDatabase.open(build(ROWS));
+
+        assertThat(find(database, "10.1.2.3")).isEqualTo(new GeoIpRecord(null, "US", "United States", null, null,
+            "Springfield", null, 39.78, -89.65, 64500L, "Example, Inc."));
+        assertThat(find(database, "255.255.255.255")).isEqualTo(new GeoIpRecord(null, "ZZ", "Reserved", null, null,
+            null, null, null, null, null, null));
+    }
+
+    @Test
+    void rejectsOverlappingRanges() throws IOException {
+        assertThatThrownBy(() -> build(List.of(
+                "10.0.0.0/8,,,US,,,,,,",
+                ",10.1.0.0,10.1.0.255,GB,,,,,,")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("range on line 3 overlaps the range on line 2");
+        // Sharing a single address is an overlap too, in either address family
+        assertThatThrownBy(() -> build(List.of(
+                ",2001:db8::,2001:db8::ff,DE,,,,,,",
+                ",2001:db8::ff,2001:db8::1ff,FR,,,,,,")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("overlaps");
+        // Nothing is left behind for the engine to pick up
+        try (var files = Files.list(dir)) {
+            assertThat(files.map(path -> path.getFileName().toString())).containsExactly("geoip.csv");
+        }
+    }
+
+    @Test
+    void acceptsAdjacentRanges() throws IOException {
+        GeoIpDatabase database = GeoIpDatabase.open(build(List.of(
+            "10.0.0.0/8,,,US,,,,,,",
+            "11.0.0.0/8,,,GB,,,,,,")));
+
+        assertThat(countries(database, "10.255.255.255", "11.0.0.0")).containsExactly("US", "GB");
+    }
+
+    @Test
+    void rejectsInvalidRows() {
+        assertThatThrownBy(() -> build(List.of("10.0.0.0,,,US,,,,,,")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("line 2: network must be in CIDR form");
+        assertThatThrownBy(() -> build(List.of(",10.0.0.9,10.0.0.1,US,,,,,,")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("start_ip is after end_ip");
+        assertThatThrownBy(() -> build(List.of(",10.0.0.1,2001:db8::1,US,,,,,,")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("different address families");
+    }
+
+    @Test
+    void rejectsFilesThatAreNotADatabase() throws IOException {
+        Path path = build(ROWS);
+        byte[] valid = Files.readAllBytes(path);
+
+        byte[] wrongMagic = valid.clone();
+        wrongMagic[0] = 'X';
+        assertThatThrownBy(() -> GeoIpDatabase.open(write(wrongMagic)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("is not a GeoIP database");
+        assertThatThrownBy(() -> GeoIpDatabase.open(write(Arrays.copyOf(valid, 20))))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("too small");
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        byte[] valid = Files.readAllBytes(build(ROWS));
+        // Cut off in the middle of the records
+        int recordOffset = GeoIpDatabase.HEADER_SIZE + 4 * GeoIpDatabase.IPV4_ENTRY_SIZE
+            + 3 * GeoIpDatabase.IPV6_ENTRY_SIZE;
+
+        assertThatThrownBy(() -> GeoIpDatabase.open(write(Arrays.copyOf(valid, recordOffset + 10))))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("is truncated");
+    }
+
+    @Test
+    void rejectsReferencesOutsideTheFile() throws IOException {
+        byte[] valid = Files.readAllBytes(build(ROWS));
+        int recordOffset = GeoIpDatabase.HEADER_SIZE + 4 * GeoIpDatabase.IPV4_ENTRY_SIZE
+            + 3 * GeoIpDatabase.IPV6_ENTRY_SIZE;
+
+        byte[] badRecordIndex = valid.clone();
+        ByteBuffer.wrap(badRecordIndex).putInt(GeoIpDatabase.HEADER_SIZE + 8, 1_000);
+        assertThatThrownBy(() -> GeoIpDatabase.open(write(badRecordIndex)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("corrupt range table");
+
+        byte[] badIpv6RecordIndex = valid.clone();
+        ByteBuffer.wrap(badIpv6RecordIndex)
+            .putInt(GeoIpDatabase.HEADER_SIZE + 4 * GeoIpDatabase.IPV4_ENTRY_SIZE + 32, -2);
+        assertThatThrownBy(() -> GeoIpDatabase.open(write(badIpv6RecordIndex)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("corrupt range table");
+
+        // The country code of the first record, pointing past the string section
+        byte[] badStringRef = valid.clone();
+        ByteBuffer.wrap(badStringRef).putInt(recordOffset + 4, valid.length);
+        assertThatThrownBy(() -> GeoIpDatabase.open(write(badStringRef)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("corrupt string reference in record 0");
+
+        // The file ends in the middle of the last string
+        assertThatThrownBy(() -> GeoIpDatabase.open(write(Arrays.copyOf(valid, valid.length - 1))))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("corrupt string reference");
+    }
+
+    private Path build(List<String> rows) throws IOException {
+        Path csv = dir.resolve("geoip.csv");
+        Files.write(csv, concat(HEADER, rows));
+        GeoIpDatabaseBuilder builder = new GeoIpDatabaseBuilder();
+        builder.readCsv(csv);
+        Path output = dir.resolve("geoip.fxgeo");
+        builder.write(output);
+        return output;
+    }
+
+    private Path write(byte[] bytes) throws IOException {
+        return Files.write(dir.resolve("corrupt.fxgeo"), bytes);
+    }
+
+    private static List<String> concat(String header, List<String> rows) {
+        return Stream.concat(Stream.of(header), rows.stream()).toList();
+    }
+
+    private static GeoIpRecord find(GeoIpDatabase database, String address) {
+        return database.find(NetUtil.createByteArrayFromIpAddressString(address));
+    }
+
+    private static List<String> countries(GeoIpDatabase database, String... addresses) {
+        return Arrays.stream(addresses)
+            .map(address -> find(database, address))
+            .map(record -> record == null ? null : record.countryCode())
+            .toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.example.footprintx.geoip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoIpEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path dir;
+
+    private GeoIpEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    void servesNothingWithoutADatabase() {
+        engine = start(dir.resolve("missing.fxgeo"));
+
+        assertThat(engine.isLoaded()).isFalse();
+        assertThat(engine.lookup("10.0.0.1")).isNull();
+    }
+
+    @Test
+    void servesTheReplacementOnceItIsReloaded() throws IOException {
+        Path database = dir.resolve("geoip.fxgeo");
+        build(database, "10.0.0.0/8,US", "192.0.2.0/24,GB");
+        engine = start(database);
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("US");
+        assertThat(ranges()).isEqualTo(2);
+
+        build(database, "10.0.0.0/8,FR");
+        // Nothing changes until the file is checked
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("US");
+
+        engine.reloadIfChanged();
+
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("FR");
+        assertThat(engine.lookup("192.0.2.1")).isNull();
+        assertThat(ranges()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheCurrentDatabaseWhenTheReplacementIsCorrupt() throws IOException {
+        Path database = dir.resolve("geoip.fxgeo");
+        build(database, "10.0.0.0/8,US");
+        engine = start(database);
+
+        replace(database, "FXGEOIP1 but nothing after it".getBytes(StandardCharsets.US_ASCII));
+        engine.reloadIfChanged();
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("US");
+
+        // Truncated in the range table
+        byte[] valid = Files.readAllBytes(build(dir.resolve("next.fxgeo"), "10.0.0.0/8,FR"));
+        replace(database, Arrays.copyOf(valid, GeoIpDatabase.HEADER_SIZE + 4));
+        engine.reloadIfChanged();
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("US");
+
+        // A good file after a bad one is picked up again
+        build(database, "10.0.0.0/8,FR");
+        engine.reloadIfChanged();
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("FR");
+    }
+
+    @Test
+    void keepsTheCurrentDatabaseWhenTheFileDisappears() throws IOException {
+        Path database = dir.resolve("geoip.fxgeo");
+        build(database, "10.0.0.0/8,US");
+        engine = start(database);
+
+        Files.delete(database);
+        engine.reloadIfChanged();
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("US");
+
+        build(database, "10.0.0.0/8,FR");
+        engine.reloadIfChanged();
+        assertThat(engine.lookup("10.0.0.1").countryCode()).isEqualTo("FR");
+    }
+
+    @Test
+    void ignoresAddressesThatAreNotLiterals() throws IOException {
+        Path database = dir.resolve("geoip.fxgeo");
+        build(database, "10.0.0.0/8,US");
+        engine = start(database);
+
+        assertThat(engine.lookup("example.com")).isNull();
+        assertThat(engine.lookup("10.0.0")).isNull();
+    }
+
+    // Reloading only on demand, so each test decides when the file is checked
+    private GeoIpEngine start(Path database) {
+        GeoIpEngine started = new GeoIpEngine(database.toString(), Duration.ZERO, meterRegistry, Schedulers.immediate());
+        started.start();
+        return started;
+    }
+
+    private double ranges() {
+        return meterRegistry.get("osint.geoip.ranges").gauge().value();
+    }
+
+    // Rows of "network,country_code"
+    private Path build(Path database, String... rows) throws IOException {
+        Path csv = dir.resolve("geoip.csv");
+        Files.write(csv, Stream.concat(Stream.of("network,country_code"), Stream.of(rows)).toList());
+        GeoIpDatabaseBuilder builder = new GeoIpDatabaseBuilder();
+        builder.readCsv(csv);
+        builder.write(database);
+        return database;
+    }
+
+    // Swaps the file the way the builder does, so the engine sees a new file
+    private void replace(Path database, byte[] bytes) throws IOException {
+        Path temp = Files.write(dir.resolve("replacement.tmp"), bytes);
+        Files.move(temp, database, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.example.footprintx.graph;
+
+import com.example.footprintx.model.PivotResult;
+import com.example.footprintx.model.QueryType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityGraphTest {
+
+    private static final String OWNER = "analyst";
+    // The index of a new graph has twice its initial capacity of 1024 slots
+    private static final int SLOTS = 2048;
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntitiesBeyondMaxNodes() {
+        EntityGraph graph = new EntityGraph(4, 100, 10);
+        graph.link(OWNER, QueryType.EMAIL, "a@example.com", List.of(domain("a.example")));
+        graph.link(OWNER, QueryType.EMAIL, "c@example.com", List.of(domain("c.example")));
+        // A pivot counts as a use
+        graph.neighbourhood(OWNER, QueryType.EMAIL, "a@example.com", 1, 10);
+
+        graph.link(OWNER, QueryType.EMAIL, "e@example.com", List.of(domain("e.example")));
+
+        // a.example went first, then c@example.com; both take their edges with them
+        assertThat(graph.getNodeCount()).isEqualTo(4);
+        assertThat(graph.getEvictions()).isEqualTo(2);
+        assertThat(graph.getEdgeCount()).isEqualTo(1);
+        assertThat(graph.neighbourhood(OWNER, QueryType.DOMAIN, "a.example", 1, 10)).isNull();
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "c@example.com", 1, 10)).isNull();
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "a@example.com", 1, 10)).isEmpty();
+        assertThat(graph.neighbourhood(OWNER, QueryType.DOMAIN, "c.example", 1, 10)).isEmpty();
+        assertThat(values(graph.neighbourhood(OWNER, QueryType.EMAIL, "e@example.com", 1, 10)))
+            .containsExactly("e.example");
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntitiesBeyondMaxEdges() {
+        EntityGraph graph = new EntityGraph(100, 2, 10);
+        graph.link(OWNER, QueryType.EMAIL, "a@example.com", List.of(domain("example.com"), name("jane doe")));
+
+        graph.link(OWNER, QueryType.EMAIL, "b@example.com", List.of(domain("b.example")));
+
+        // The query of a link is interned first, so it is the oldest entity of that link
+        assertThat(graph.getEvictions()).isEqualTo(1);
+        assertThat(graph.getEdgeCount()).isEqualTo(1);
+        assertThat(graph.getNodeCount()).isEqualTo(4);
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "a@example.com", 1, 10)).isNull();
+        assertThat(graph.neighbourhood(OWNER, QueryType.DOMAIN, "example.com", 1, 10)).isEmpty();
+    }
+
+    @Test
+    void reusesTheIdsOfEvictedEntitiesWhenKeysCollideAcrossTheEndOfTheIndex() {
+        // Four keys whose home is the last slot, so they wrap around to the first ones, and one whose
+        // home is the first slot, which ends up behind them
+        List<String> last = keys(SLOTS - 1, 4);
+        String first = keys(0, 1).get(0);
+        EntityGraph graph = new EntityGraph(6, 100, 10);
+        graph.link(OWNER, QueryType.USERNAME, last.get(0), List.of(email("old@example.com")));
+        for (String key : last.subList(1, 4)) {
+            graph.link(OWNER, QueryType.USERNAME, key, List.of());
+        }
+        graph.link(OWNER, QueryType.USERNAME, first, List.of());
+
+        // Over the limit: the oldest key goes, and the rest shift back over the end of the index
+        graph.link(OWNER, QueryType.EMAIL, "new@example.com", List.of(new Entity(QueryType.USERNAME, first)));
+        // Its edge went with it; old@example.com is left alone, as a pivot would count as a use
+        assertThat(graph.neighbourhood(OWNER, QueryType.USERNAME, last.get(0), 1, 10)).isNull();
+        assertThat(graph.getEdgeCount()).isEqualTo(1);
+        for (String key : List.of(last.get(1), last.get(2), last.get(3), first)) {
+            assertThat(graph.neighbourhood(OWNER, QueryType.USERNAME, key, 1, 10)).isNotNull();
+        }
+
+        // Back in under the id it had, without the edge it had before, which evicts old@example.com
+        graph.link(OWNER, QueryType.USERNAME, last.get(0), List.of());
+
+        assertThat(graph.getEvictions()).isEqualTo(2);
+        assertThat(graph.getNodeCount()).isEqualTo(6);
+        assertThat(graph.getEdgeCount()).isEqualTo(1);
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "old@example.com", 1, 10)).isNull();
+        for (String key : last) {
+            assertThat(graph.neighbourhood(OWNER, QueryType.USERNAME, key, 1, 10)).isEmpty();
+        }
+        assertThat(values(graph.neighbourhood(OWNER, QueryType.USERNAME, first, 1, 10)))
+            .containsExactly("new@example.com");
+    }
+
+    @Test
+    void dropsEdgesBeyondMaxDegreeAtEitherEnd() {
+        EntityGraph graph = new EntityGraph(100, 100, 2);
+        graph.link(OWNER, QueryType.DOMAIN, "gmail.com", List.of(email("a@gmail.com"), email("b@gmail.com"),
+            email("c@gmail.com")));
+        // a@gmail.com has room for one more edge, and then none
+        graph.link(OWNER, QueryType.NAME, "jane doe", List.of(email("a@gmail.com")));
+        graph.link(OWNER, QueryType.NAME, "john doe", List.of(email("a@gmail.com")));
+
+        assertThat(graph.getEdgeCount()).isEqualTo(3);
+        assertThat(values(graph.neighbourhood(OWNER, QueryType.DOMAIN, "gmail.com", 1, 10)))
+            .containsExactlyInAnyOrder("a@gmail.com", "b@gmail.com");
+        assertThat(values(graph.neighbourhood(OWNER, QueryType.EMAIL, "a@gmail.com", 1, 10)))
+            .containsExactlyInAnyOrder("gmail.com", "jane doe");
+        // Both are still entities, just without the edge
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "c@gmail.com", 1, 10)).isEmpty();
+        assertThat(graph.neighbourhood(OWNER, QueryType.NAME, "john doe", 1, 10)).isEmpty();
+    }
+
+    @Test
+    void followsLinksUpToDepthHopsNearestFirst() {
+        EntityGraph graph = new EntityGraph(100, 100, 10);
+        graph.link(OWNER, QueryType.EMAIL, "jane@example.com", List.of(domain("example.com"), name("jane doe")));
+        graph.link(OWNER, QueryType.EMAIL, "john@example.com", List.of(domain("example.com")));
+
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "jane@example.com", 1, 10)).containsExactly(
+            new PivotResult.Connection("domain", "example.com", 1, null),
+            new PivotResult.Connection("name", "jane doe", 1, null));
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "jane@example.com", 2, 10)).containsExactly(
+            new PivotResult.Connection("domain", "example.com", 1, null),
+            new PivotResult.Connection("name", "jane doe", 1, null),
+            new PivotResult.Connection("email", "john@example.com", 2, "example.com"));
+        // The limit counts connections at every depth
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "jane@example.com", 2, 2)).containsExactly(
+            new PivotResult.Connection("domain", "example.com", 1, null),
+            new PivotResult.Connection("name", "jane doe", 1, null));
+        assertThat(values(graph.neighbourhood(OWNER, QueryType.NAME, "jane doe", 3, 10)))
+            .containsExactly("jane@example.com", "example.com", "john@example.com");
+    }
+
+    @Test
+    void anUnknownEntityIsNull() {
+        EntityGraph graph = new EntityGraph(100, 100, 10);
+        graph.link(OWNER, QueryType.EMAIL, "jane@example.com", List.of(domain("example.com")));
+
+        assertThat(graph.neighbourhood(OWNER, QueryType.EMAIL, "john@example.com", 1, 10)).isNull();
+        // Same value, other type
+        assertThat(graph.neighbourhood(OWNER, QueryType.USERNAME, "jane@example.com", 1, 10)).isNull();
+    }
+
+    @Test
+    void eachOwnerOnlySeesTheirOwnLinks() {
+        EntityGraph graph = new EntityGraph(100, 100, 10);
+        graph.link(OWNER, QueryType.EMAIL, "jane@example.com", List.of(domain("example.com")));
+        graph.link("other", QueryType.EMAIL, "john@example.com", List.of(domain("example.com")));
+
+        assertThat(graph.neighbourhood("intruder", QueryType.EMAIL, "jane@example.com", 1, 10)).isNull();
+        assertThat(values(graph.neighbourhood(OWNER, QueryType.DOMAIN, "example.com", 2, 10)))
+            .containsExactly("jane@example.com");
+        assertThat(values(graph.neighbourhood("other", QueryType.DOMAIN, "example.com", 2, 10)))
+            .containsExactly("john@example.com");
+        assertThat(graph.getNodeCount()).isEqualTo(4);
+    }
+
+    // count usernames whose home slot in a new graph is slot
+    private static List<String> keys(int slot, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "user" + i;
+            if ((EntityGraph.hash(OWNER, QueryType.USERNAME.ordinal(), key) & (SLOTS - 1)) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static List<String> values(List<PivotResult.Connection> connections) {
+        return connections.stream().map(PivotResult.Connection::value).toList();
+    }
+
+    private static Entity domain(String value) {
+        return new Entity(QueryType.DOMAIN, value);
+    }
+
+    private static Entity email(String value) {
+        return new Entity(QueryType.EMAIL, value);
+    }
+
+    private static Entity name(String value) {
+        return new Entity(QueryType.NAME, value);
+    }
+}
\ No newline at end of file
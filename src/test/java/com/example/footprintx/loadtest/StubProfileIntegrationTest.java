@@ -0,0 +1,141 @@
+package com.example.footprintx.loadtest;
+
+import com.example.footprintx.model.OSINTResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+
+// The "stub" profile end to end: /api/lookup and /api/stream reach StubProviderServer through the
+// api.<provider>.url overrides in application-stub.yml, and its error injection reaches the client.
+// IPStack fails every call here; the other two never do.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "phone.local-mode=off",
+    "stub.ipstack.error-rate=1",
+    "stub.numverify.error-rate=0",
+    "stub.clearbit.error-rate=0"})
+@ActiveProfiles("stub")
+class StubProfileIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int STUB_PORT = freePort();
+
+    @DynamicPropertySource
+    static void stubPort(DynamicPropertyRegistry registry) {
+        registry.add("stub.port", () -> STUB_PORT);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private StubProviderServer stub;
+
+    @Value("${api.ipstack.url}")
+    private String ipstackUrl;
+
+    @Value("${api.numverify.url}")
+    private String numverifyUrl;
+
+    @Value("${api.clearbit.url}")
+    private String clearbitUrl;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = webTestClient.mutate()
+            .responseTimeout(TIMEOUT)
+            .defaultHeaders(headers -> headers.setBasicAuth("admin", "admin123"))
+            .build();
+    }
+
+    @Test
+    void providerUrlsPointAtTheStub() {
+        assertThat(stub.port()).isEqualTo(STUB_PORT);
+        assertThat(List.of(ipstackUrl, numverifyUrl, clearbitUrl))
+            .allSatisfy(url -> assertThat(url).startsWith("http://localhost:" + STUB_PORT + "/"));
+    }
+
+    @Test
+    void phoneLookupsAreAnsweredByTheNumverifyStub() {
+        OSINTResult result = lookup("+1 415 555 0142");
+
+        assertThat(result.getSource()).isEqualTo("Numverify");
+        assertThat(result.isSuccess()).as(result.getMessage()).isTrue();
+        assertThat(result.getData())
+            .containsEntry("carrier", "Stub Mobile")
+            .containsEntry("international_format", "+14155550142")
+            .doesNotContainKey("demo_mode");
+    }
+
+    @Test
+    void emailLookupsAreAnsweredByTheClearbitStub() {
+        OSINTResult result = lookup("stub.user@example.net");
+
+        assertThat(result.getSource()).isEqualTo("Clearbit");
+        assertThat(result.isSuccess()).as(result.getMessage()).isTrue();
+        assertThat(result.getData()).extractingByKey("company").asInstanceOf(MAP)
+            .containsEntry("domain", "example.net")
+            .containsEntry("size", "51-250");
+    }
+
+    @Test
+    void injectedErrorsReachTheClient() {
+        OSINTResult result = lookup("203.0.113.7");
+
+        assertThat(result.getSource()).isEqualTo("IPStack");
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getData()).isNull();
+    }
+
+    // POST /api/lookup, then the provider result from its stream
+    private OSINTResult lookup(String query) {
+        Map<String, String> started = client.post().uri("/api/lookup")
+            .bodyValue(Map.of("query", query))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(new ParameterizedTypeReference<Map<String, String>>() { })
+            .returnResult().getResponseBody();
+
+        List<OSINTResult> events = client.get().uri("/api/stream/{sessionId}", started.get("sessionId"))
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(OSINTResult.class)
+            .getResponseBody()
+            .takeUntil(event -> "end".equals(event.getType()))
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(events).extracting(OSINTResult::getType).endsWith("end");
+        List<OSINTResult> results = events.stream().filter(event -> !"System".equals(event.getSource())).toList();
+        assertThat(results).hasSize(1);
+        return results.get(0);
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.example.footprintx.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StubProviderServerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final StubProviderServer.Behaviour FAST = new StubProviderServer.Behaviour(
+        Duration.ofMillis(1), Duration.ofMillis(5), 0, 0);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private StubProviderServer stub;
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    @Test
+    void answersLikeEachProvidersApi() {
+        start(Map.of("numverify", FAST, "clearbit", FAST, "ipstack", FAST));
+
+        Response ipstack = get("/ipstack/8.8.8.8?access_key=key", null);
+        Response numverify = get("/numverify/api/validate?access_key=key&number=%2B14155552671", null);
+        Response clearbit = get("/clearbit/v2/combined/find?email=jane@example.com", "Bearer key");
+
+        assertThat(ipstack.status()).isEqualTo(200);
+        assertThat(ipstack.json().path("ip").asText()).isEqualTo("8.8.8.8");
+        assertThat(ipstack.json().path("connection").path("isp").asText()).isEqualTo("Stub Networks");
+        assertThat(numverify.json().path("international_format").asText()).isEqualTo("+14155552671");
+        assertThat(numverify.json().path("carrier").asText()).isEqualTo("Stub Mobile");
+        assertThat(clearbit.json().path("person").path("name").path("fullName").asText()).isEqualTo("jane");
+        assertThat(clearbit.json().path("company").path("domain").asText()).isEqualTo("example.com");
+    }
+
+    @Test
+    void rejectsMissingCredentialsTheWayTheRealApisDo() {
+        start(Map.of("numverify", FAST, "clearbit", FAST, "ipstack", FAST));
+
+        // apilayer answers 200 with an error object, Clearbit with 401
+        Response ipstack = get("/ipstack/8.8.8.8", null);
+        assertThat(ipstack.status()).isEqualTo(200);
+        assertThat(ipstack.json().path("success").asBoolean(true)).isFalse();
+        assertThat(ipstack.json().path("error").path("type").asText()).isEqualTo("missing_access_key");
+        assertThat(get("/numverify/api/validate?number=1", null).json().path("error").path("code").asInt())
+            .isEqualTo(101);
+        assertThat(get("/clearbit/v2/combined/find?email=jane@example.com", null).status()).isEqualTo(401);
+    }
+
+    @Test
+    void injectsErrorsAtTheConfiguredRate() {
+        start(Map.of("ipstack", new StubProviderServer.Behaviour(Duration.ofMillis(1), Duration.ofMillis(5), 1, 0),
+            "numverify", FAST));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(get("/ipstack/8.8.8.8?access_key=key", null).status()).isEqualTo(500);
+        }
+        assertThat(get("/numverify/api/validate?access_key=key&number=1", null).status()).isEqualTo(200);
+    }
+
+    @Test
+    void answersTooManyRequestsBeyondTheRateLimit() {
+        start(Map.of("ipstack", new StubProviderServer.Behaviour(Duration.ofMillis(1), Duration.ofMillis(5), 0, 2)));
+
+        List<Response> responses = Flux.range(0, 5)
+            .concatMap(i -> HttpClient.create().port(stub.port()).get().uri("/ipstack/8.8.8.8?access_key=key")
+                .responseSingle((response, body) -> body.asString().defaultIfEmpty("")
+                    .map(text -> new Response(response.status().code(),
+                        response.responseHeaders().get(HttpHeaderNames.RETRY_AFTER), text))))
+            .collectList()
+            .block(TIMEOUT);
+
+        // Five calls span at most two one-second windows of two calls each
+        assertThat(responses).filteredOn(response -> response.status() == 429).isNotEmpty()
+            .allSatisfy(response -> assertThat(response.retryAfter()).isEqualTo("1"));
+        assertThat(responses).filteredOn(response -> response.status() == 200).hasSizeBetween(2, 4);
+    }
+
+    @Test
+    void delaysAnswersByTheConfiguredLatency() {
+        // A p99 equal to the median leaves no spread
+        Duration latency = Duration.ofMillis(150);
+        start(Map.of("ipstack", new StubProviderServer.Behaviour(latency, latency, 0, 0)));
+
+        long started = System.nanoTime();
+        assertThat(get("/ipstack/8.8.8.8?access_key=key", null).status()).isEqualTo(200);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(latency);
+    }
+
+    private void start(Map<String, StubProviderServer.Behaviour> behaviours) {
+        stub = new StubProviderServer(behaviours).start(0);
+    }
+
+    private Response get(String uri, String authorization) {
+        return HttpClient.create()
+            .port(stub.port())
+            .headers(headers -> {
+                if (authorization != null) {
+                    headers.set(HttpHeaderNames.AUTHORIZATION, authorization);
+                }
+            })
+            .get()
+            .uri(uri)
+            .responseSingle((response, body) -> body.asString().defaultIfEmpty("")
+                .map(text -> new Response(response.status().code(), null, text)))
+            .block(TIMEOUT);
+    }
+
+    private record Response(int status, String retryAfter, String body) {
+
+        JsonNode json() {
+            try {
+                return MAPPER.readTree(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.example.footprintx.phone;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PhonePrefixTrieTest {
+
+    private static final String HEADER = "prefix,country_code,country_name,location,carrier,line_type\n";
+    // +1 and +7 are shared: Canada and Kazakhstan are deeper rows that name their own country
+    private static final String PLAN = HEADER + """
+        # comments and blank lines are skipped
+
+        1,US,United States,,,
+        1212,,,New York,,
+        1416,CA,Canada,Toronto,,
+        1800,,,,,toll_free
+        7,RU,Russia,,,
+        79,,,,,mobile
+        7495,,,Moscow,,landline
+        77,KZ,Kazakhstan,,,
+        44,GB,United Kingdom,,,
+        447,,,,,mobile
+        4470,,,,,personal
+        4474,,,,Vodafone,
+        """;
+
+    @Test
+    void theLongestPrefixWins() throws IOException {
+        PhonePrefixTrie trie = load(PLAN);
+
+        assertThat(trie.lookup("+447012345678").lineType()).isEqualTo("personal");
+        assertThat(trie.lookup("+447912345678").lineType()).isEqualTo("mobile");
+        assertThat(trie.lookup("+442012345678").lineType()).isNull();
+        assertThat(trie.lookup("+74951234567").lineType()).isEqualTo("landline");
+        assertThat(trie.lookup("+79161234567").lineType()).isEqualTo("mobile");
+    }
+
+    @Test
+    void deeperRowsInheritTheColumnsTheyLeaveEmpty() throws IOException {
+        PhonePrefixTrie trie = load(PLAN);
+
+        assertThat(trie.lookup("+447400123456"))
+            .isEqualTo(new PhoneNumberInfo("+44", "GB", "United Kingdom", null, "Vodafone", "mobile"));
+        assertThat(trie.lookup("+12125550100"))
+            .isEqualTo(new PhoneNumberInfo("+1", "US", "United States", "New York", null, null));
+        assertThat(trie.lookup("+18005550100"))
+            .isEqualTo(new PhoneNumberInfo("+1", "US", "United States", null, null, "toll_free"));
+    }
+
+    @Test
+    void sharedCallingCodesResolveToTheCountryOfTheDeeperRow() throws IOException {
+        PhonePrefixTrie trie = load(PLAN);
+
+        // The calling code stays the shallowest country row, not the area code
+        assertThat(trie.lookup("+14165550100"))
+            .isEqualTo(new PhoneNumberInfo("+1", "CA", "Canada", "Toronto", null, null));
+        assertThat(trie.lookup("+13055550100").countryCode()).isEqualTo("US");
+        assertThat(trie.lookup("+77011234567"))
+            .isEqualTo(new PhoneNumberInfo("+7", "KZ", "Kazakhstan", null, null, null));
+        assertThat(trie.lookup("+74951234567").countryCode()).isEqualTo("RU");
+    }
+
+    @Test
+    void acceptsNumbersWithoutThePlus() throws IOException {
+        assertThat(load(PLAN).lookup("447400123456").carrier()).isEqualTo("Vodafone");
+    }
+
+    @Test
+    void returnsNullForUnknownPrefixesAndNonNumbers() throws IOException {
+        PhonePrefixTrie trie = load(PLAN);
+
+        assertThat(trie.lookup("+999123456")).isNull();
+        assertThat(trie.lookup("+")).isNull();
+        assertThat(trie.lookup("")).isNull();
+        assertThat(trie.lookup("+1415a550100")).isNull();
+        // More than the 15 digits E.164 allows
+        assertThat(trie.lookup("+1415555010012345")).isNull();
+    }
+
+    @Test
+    void countsPrefixes() throws IOException {
+        assertThat(load(PLAN).getPrefixCount()).isEqualTo(12);
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() throws IOException {
+        String plan = HEADER + IntStream.range(30_000, 33_000)
+            .mapToObj(prefix -> prefix + ",C" + prefix + ",,,,")
+            .collect(Collectors.joining("\n"));
+
+        PhonePrefixTrie trie = load(plan);
+
+        assertThat(trie.getPrefixCount()).isEqualTo(3_000);
+        assertThat(trie.lookup("+3000012345").countryCode()).isEqualTo("C30000");
+        assertThat(trie.lookup("+3299912345").countryCode()).isEqualTo("C32999");
+        assertThat(trie.lookup("+3300012345")).isNull();
+    }
+
+    @Test
+    void rejectsDuplicatePrefixes() {
+        assertThatThrownBy(() -> load(HEADER + "44,GB,,,,\n447,,,,,mobile\n44,GG,,,,\n"))
+            .isInstanceOf(IOException.class)
+            .hasMessage("plan line 4: prefix 44 is already defined on line 2");
+    }
+
+    @Test
+    void rejectsInvalidPrefixes() {
+        assertThatThrownBy(() -> load(HEADER + "+44,GB,,,,\n"))
+            .isInstanceOf(IOException.class)
+            .hasMessage("plan line 2: invalid prefix +44");
+        assertThatThrownBy(() -> load(HEADER + "4 4,GB,,,,\n"))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("invalid prefix");
+        assertThatThrownBy(() -> load(HEADER + ",GB,,,,\n"))
+            .isInstanceOf(IOException.class)
+            .hasMessage("plan line 2: invalid prefix null");
+        assertThatThrownBy(() -> load(HEADER + "4412345678901234,GB,,,,\n"))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("invalid prefix");
+    }
+
+    @Test
+    void rejectsFilesWithoutAPrefixColumn() {
+        assertThatThrownBy(() -> load("country_code,country_name\nGB,United Kingdom\n"))
+            .isInstanceOf(IOException.class)
+            .hasMessage("plan needs a prefix column");
+        assertThatThrownBy(() -> load(""))
+            .isInstanceOf(IOException.class)
+            .hasMessage("plan is empty");
+    }
+
+    private static PhonePrefixTrie load(String csv) throws IOException {
+        return PhonePrefixTrie.load(new BufferedReader(new StringReader(csv)), "plan");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.example.footprintx.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BulkheadTest {
+
+    @Test
+    void queuesCallersOverTheLimitAndRejectsWhenTheQueueIsFull() {
+        Bulkhead bulkhead = new Bulkhead("test", 2, 1);
+        Bulkhead.Permit first = bulkhead.acquire().block();
+        Bulkhead.Permit second = bulkhead.acquire().block();
+
+        StepVerifier.create(bulkhead.acquire())
+            .then(() -> {
+                assertThat(bulkhead.queuedCount()).isEqualTo(1);
+                StepVerifier.create(bulkhead.acquire())
+                    .verifyErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(ProviderRejectedException.class)
+                        .hasMessageContaining("too many queued requests"));
+                first.release();
+            })
+            .assertNext(third -> {
+                assertThat(bulkhead.activeCount()).isEqualTo(2);
+                assertThat(bulkhead.queuedCount()).isZero();
+            })
+            .verifyComplete();
+
+        second.release();
+        assertThat(bulkhead.activeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void releasingTwiceReturnsOnePermit() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0);
+        Bulkhead.Permit permit = bulkhead.acquire().block();
+        permit.release();
+        permit.release();
+
+        assertThat(bulkhead.activeCount()).isZero();
+        bulkhead.acquire().block();
+        assertThat(bulkhead.activeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void aCancelledWaiterLeavesTheQueueAndTakesNoPermit() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 10);
+        Bulkhead.Permit held = bulkhead.acquire().block();
+        Disposable waiter = bulkhead.acquire().subscribe();
+        assertThat(bulkhead.queuedCount()).isEqualTo(1);
+
+        waiter.dispose();
+        assertThat(bulkhead.queuedCount()).isZero();
+
+        held.release();
+        assertThat(bulkhead.activeCount()).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimitOrLeakPermits() {
+        int limit = 4;
+        Bulkhead bulkhead = new Bulkhead("test", limit, 100_000);
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger maxHolders = new AtomicInteger();
+
+        List<Mono<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Mono<Void> call = Mono.usingWhen(
+                    bulkhead.acquire().doOnNext(permit -> maxHolders.accumulateAndGet(holders.incrementAndGet(), Math::max)),
+                    permit -> Mono.delay(Duration.ofNanos(ThreadLocalRandom.current().nextLong(200_000))).then(),
+                    permit -> Mono.fromRunnable(() -> {
+                        holders.decrementAndGet();
+                        permit.release();
+                    }))
+                .subscribeOn(Schedulers.parallel());
+            // Some callers give up while waiting or while holding a permit
+            calls.add(i % 3 == 0
+                ? call.timeout(Duration.ofNanos(ThreadLocalRandom.current().nextLong(1_000_000)), Mono.empty())
+                : call);
+        }
+        Flux.merge(calls).blockLast(Duration.ofSeconds(60));
+
+        assertThat(maxHolders.get()).isLessThanOrEqualTo(limit).isPositive();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(bulkhead.activeCount()).isZero();
+            assertThat(bulkhead.queuedCount()).isZero();
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.footprintx.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000_000L);
+    // Opens at 50% failures over the last 4 calls, once 4 calls are recorded
+    private final CircuitBreaker breaker = new CircuitBreaker(50, 4, 4, OPEN_DURATION, 2, now::get);
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void opensAtTheFailureRateAndRejectsCalls() {
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void onlyTheLastWindowOfCallsCounts() {
+        breaker.onFailure();
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess();
+        }
+        // The early failure has left the window, so this is 1 failure in 4
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void letsTrialCallsThroughOnceTheOpenDurationHasPassed() {
+        trip();
+
+        now.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        now.addAndGet(1);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void aSuccessfulTrialCallCloses() {
+        trip();
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        // The window starts empty again
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aFailedTrialCallReopensForAnotherOpenDuration() {
+        trip();
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        now.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        now.addAndGet(1);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void anIgnoredTrialCallFreesItsSlot() {
+        trip();
+        now.addAndGet(OPEN_DURATION.toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onIgnored();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.example.footprintx.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class FairSchedulerTest {
+
+    private static final Caller.Priority INTERACTIVE = Caller.Priority.INTERACTIVE;
+    private static final Caller.Priority BULK = Caller.Priority.BULK;
+
+    // Users that were granted a permit, in order, and the permits not yet released
+    private final List<String> grants = new ArrayList<>();
+    private final Queue<FairScheduler.Permit> held = new ArrayDeque<>();
+
+    @Test
+    void aLightUserIsNotQueuedBehindAHeavyUsersBacklog() {
+        FairScheduler scheduler = new FairScheduler("test", 1, 1, 10, 100, user -> 1);
+        request(scheduler, "heavy", INTERACTIVE, 11);
+        request(scheduler, "light", INTERACTIVE, 1);
+
+        releaseAll();
+
+        assertThat(grants).hasSize(12);
+        // The heavy user's running call, then at most one more of theirs
+        assertThat(grants.indexOf("light")).isBetween(1, 2);
+    }
+
+    @Test
+    void usersAreInterleavedByWeight() {
+        FairScheduler scheduler = new FairScheduler("test", 1, 1, 10, 100,
+            user -> Map.of("double", 2.0).getOrDefault(user, 1.0));
+        request(scheduler, "other", INTERACTIVE, 1);
+        request(scheduler, "double", INTERACTIVE, 6);
+        request(scheduler, "single", INTERACTIVE, 6);
+
+        releaseAll();
+
+        List<String> firstSix = grants.subList(1, 7);
+        assertThat(firstSix).filteredOn("double"::equals).hasSize(4);
+        assertThat(firstSix).filteredOn("single"::equals).hasSize(2);
+    }
+
+    @Test
+    void interactiveCallsGoBeforeQueuedBulkCalls() {
+        FairScheduler scheduler = new FairScheduler("test", 1, 1, 10, 100, user -> 1);
+        request(scheduler, "batch", BULK, 4);
+        request(scheduler, "analyst", INTERACTIVE, 1);
+        assertThat(scheduler.queuedCount(BULK)).isEqualTo(3);
+
+        held.poll().release();
+
+        assertThat(grants).containsExactly("batch", "analyst");
+        assertThat(scheduler.activeCount(INTERACTIVE)).isEqualTo(1);
+        assertThat(scheduler.queuedCount(BULK)).isEqualTo(3);
+    }
+
+    @Test
+    void bulkCallsLeaveRoomForInteractiveOnes() {
+        FairScheduler scheduler = new FairScheduler("test", 4, 2, 10, 100, user -> 1);
+        request(scheduler, "batch", BULK, 4);
+        assertThat(scheduler.activeCount(BULK)).isEqualTo(2);
+        assertThat(scheduler.queuedCount(BULK)).isEqualTo(2);
+
+        request(scheduler, "analyst", INTERACTIVE, 2);
+
+        assertThat(scheduler.activeCount(INTERACTIVE)).isEqualTo(2);
+        assertThat(scheduler.queuedCount(INTERACTIVE)).isZero();
+        assertThat(scheduler.activeCount(BULK)).isEqualTo(2);
+    }
+
+    @Test
+    void oneUserHoldsAtMostMaxPerUserOfEachPriority() {
+        FairScheduler scheduler = new FairScheduler("test", 10, 10, 2, 100, user -> 1);
+        request(scheduler, "analyst", INTERACTIVE, 3);
+        assertThat(scheduler.activeCount(INTERACTIVE)).isEqualTo(2);
+        assertThat(scheduler.queuedCount(INTERACTIVE)).isEqualTo(1);
+
+        // The cap is per priority, so the analyst's own batch does not hold back their lookups
+        request(scheduler, "analyst", BULK, 1);
+        request(scheduler, "other", INTERACTIVE, 1);
+
+        assertThat(scheduler.activeCount(BULK)).isEqualTo(1);
+        assertThat(scheduler.activeCount(INTERACTIVE)).isEqualTo(3);
+        assertThat(scheduler.queuedCount(INTERACTIVE)).isEqualTo(1);
+        assertThat(grants).containsExactly("analyst", "analyst", "analyst", "other");
+    }
+
+    @Test
+    void rejectsCallersBeyondMaxQueued() {
+        FairScheduler scheduler = new FairScheduler("test", 1, 1, 10, 2, user -> 1);
+        request(scheduler, "analyst", INTERACTIVE, 1);
+        request(scheduler, "batch", BULK, 2);
+
+        StepVerifier.create(scheduler.acquire(new Caller("other", INTERACTIVE)))
+            .verifyErrorSatisfies(error -> assertThat(error)
+                .isInstanceOf(ProviderRejectedException.class)
+                .hasMessageContaining("scheduler queue full"));
+    }
+
+    @Test
+    void aCancelledWaiterLeavesTheQueueAndTakesNoPermit() {
+        FairScheduler scheduler = new FairScheduler("test", 1, 1, 10, 100, user -> 1);
+        request(scheduler, "analyst", INTERACTIVE, 1);
+        Disposable waiter = scheduler.acquire(new Caller("other", INTERACTIVE)).subscribe();
+        request(scheduler, "third", INTERACTIVE, 1);
+        assertThat(scheduler.queuedCount(INTERACTIVE)).isEqualTo(2);
+
+        waiter.dispose();
+        assertThat(scheduler.queuedCount(INTERACTIVE)).isEqualTo(1);
+
+        releaseAll();
+        assertThat(grants).containsExactly("analyst", "third");
+        assertThat(scheduler.activeCount(INTERACTIVE)).isZero();
+    }
+
+    @Test
+    void cancellingACallThatHoldsAPermitReturnsIt() {
+        FairScheduler scheduler = new FairScheduler("test", 1, 1, 10, 100, user -> 1);
+        Disposable call = Mono.usingWhen(
+                scheduler.acquire(new Caller("analyst", INTERACTIVE)),
+                permit -> Mono.never(),
+                permit -> Mono.fromRunnable(permit::release))
+            .subscribe();
+        request(scheduler, "other", INTERACTIVE, 1);
+        assertThat(grants).isEmpty();
+
+        call.dispose();
+
+        assertThat(grants).containsExactly("other");
+        assertThat(scheduler.activeCount(INTERACTIVE)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimitsOrLeakPermits() {
+        int limit = 4;
+        int maxBulk = 2;
+        FairScheduler scheduler = new FairScheduler("test", limit, maxBulk, 2, 100_000, user -> 1);
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger bulkHolders = new AtomicInteger();
+        AtomicInteger maxHolders = new AtomicInteger();
+        AtomicInteger maxBulkHolders = new AtomicInteger();
+
+        List<Mono<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Caller caller = new Caller("user-" + i % 5, i % 2 == 0 ? INTERACTIVE : BULK);
+            boolean bulk = caller.priority() == BULK;
+            Mono<Void> call = Mono.usingWhen(
+                    scheduler.acquire(caller).doOnNext(permit -> {
+                        maxHolders.accumulateAndGet(holders.incrementAndGet(), Math::max);
+                        if (bulk) {
+                            maxBulkHolders.accumulateAndGet(bulkHolders.incrementAndGet(), Math::max);
+                        }
+                    }),
+                    permit -> Mono.delay(Duration.ofNanos(ThreadLocalRandom.current().nextLong(200_000))).then(),
+                    permit -> Mono.fromRunnable(() -> {
+                        holders.decrementAndGet();
+                        if (bulk) {
+                            bulkHolders.decrementAndGet();
+                        }
+                        permit.release();
+                    }))
+                .subscribeOn(Schedulers.parallel());
+            // Some callers give up while waiting or while holding a permit
+            calls.add(i % 3 == 0
+                ? call.timeout(Duration.ofNanos(ThreadLocalRandom.current().nextLong(1_000_000)), Mono.empty())
+                : call);
+        }
+        Flux.merge(calls).blockLast(Duration.ofSeconds(60));
+
+        assertThat(maxHolders.get()).isLessThanOrEqualTo(limit).isPositive();
+        assertThat(maxBulkHolders.get()).isLessThanOrEqualTo(maxBulk);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            for (Caller.Priority priority : Caller.Priority.values()) {
+                assertThat(scheduler.activeCount(priority)).isZero();
+                assertThat(scheduler.queuedCount(priority)).isZero();
+            }
+        });
+    }
+
+    // Queues calls for the user, which record their grant and keep the permit until released
+    private void request(FairScheduler scheduler, String user, Caller.Priority priority, int calls) {
+        for (int i = 0; i < calls; i++) {
+            scheduler.acquire(new Caller(user, priority)).subscribe(permit -> {
+                grants.add(user);
+                held.add(permit);
+            });
+        }
+    }
+
+    // Finishes the running calls one at a time, oldest first, until none are left
+    private void releaseAll() {
+        FairScheduler.Permit permit;
+        while ((permit = held.poll()) != null) {
+            permit.release();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.example.footprintx.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs on virtual time: the response timeout, retry backoff and hedge delay are all driven by the test
+class ProviderGuardTest {
+
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(300);
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger cancels = new AtomicInteger();
+    private final CircuitBreaker breaker = new CircuitBreaker(50, 4, 4, Duration.ofMinutes(1), 1);
+
+    @Test
+    void retriesUpstreamFailuresWithBackoff() {
+        Supplier<Mono<String>> call = counting(() -> calls.get() < 3
+            ? Mono.error(serverError(503))
+            : Mono.just("ok"));
+
+        StepVerifier.withVirtualTime(() -> guard(2, null).protect(call))
+            .expectSubscription()
+            .then(() -> assertThat(calls).hasValue(1))
+            .thenAwait(Duration.ofSeconds(10))
+            .expectNext("ok")
+            .verifyComplete();
+        assertThat(calls).hasValue(3);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void retriesTimeoutsAndGivesUpWithTheLastFailure() {
+        Supplier<Mono<String>> call = counting(Mono::never);
+
+        StepVerifier.withVirtualTime(() -> guard(2, null).protect(call))
+            .expectSubscription()
+            .thenAwait(Duration.ofMinutes(1))
+            .verifyError(TimeoutException.class);
+        assertThat(calls).hasValue(3);
+        assertThat(cancels).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryLocalRejections() {
+        Supplier<Mono<String>> call = counting(() -> Mono.error(new ProviderRejectedException("test", "rate limit exceeded")));
+
+        StepVerifier.withVirtualTime(() -> guard(3, null).protect(call))
+            .expectSubscription()
+            .thenAwait(Duration.ofMinutes(1))
+            .verifyErrorSatisfies(error -> assertThat(error)
+                .isInstanceOf(ProviderRejectedException.class)
+                .hasMessageContaining("rate limit exceeded"));
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        Supplier<Mono<String>> call = counting(() -> Mono.error(serverError(404)));
+
+        StepVerifier.withVirtualTime(() -> guard(3, null).protect(call))
+            .expectSubscription()
+            .thenAwait(Duration.ofMinutes(1))
+            .verifyError(WebClientResponseException.NotFound.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void aHedgedRequestWinsAndCancelsTheSlowOne() {
+        Supplier<Mono<String>> call = counting(() -> calls.get() == 1
+            ? Mono.never()
+            : Mono.delay(Duration.ofMillis(50)).thenReturn("hedge"));
+
+        StepVerifier.withVirtualTime(() -> guard(0, HEDGE_DELAY).protect(call))
+            .expectSubscription()
+            .thenAwait(HEDGE_DELAY.minusMillis(1))
+            .then(() -> assertThat(calls).hasValue(1))
+            .thenAwait(Duration.ofMillis(1))
+            .then(() -> assertThat(calls).hasValue(2))
+            .thenAwait(Duration.ofMillis(50))
+            .expectNext("hedge")
+            .verifyComplete();
+        assertThat(cancels).hasValue(1);
+    }
+
+    @Test
+    void noHedgeIsSentWhenTheFirstRequestAnswersInTime() {
+        Supplier<Mono<String>> call = counting(() -> Mono.delay(Duration.ofMillis(100)).thenReturn("first"));
+
+        StepVerifier.withVirtualTime(() -> guard(0, HEDGE_DELAY).protect(call))
+            .expectSubscription()
+            .thenAwait(Duration.ofMillis(100))
+            .expectNext("first")
+            .verifyComplete();
+        assertThat(calls).hasValue(1);
+        assertThat(cancels).hasValue(0);
+    }
+
+    @Test
+    void upstreamFailuresOpenTheCircuitAndLaterCallsNeverReachTheProvider() {
+        ProviderGuard guard = guard(0, null);
+        Supplier<Mono<String>> call = counting(() -> Mono.error(serverError(500)));
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(guard.protect(call)).verifyError(WebClientResponseException.InternalServerError.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        StepVerifier.create(guard.protect(call))
+            .verifyErrorSatisfies(error -> assertThat(error)
+                .isInstanceOf(ProviderRejectedException.class)
+                .hasMessageContaining("circuit open"));
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void clientErrorsDoNotCountAgainstTheCircuit() {
+        ProviderGuard guard = guard(0, null);
+        Supplier<Mono<String>> call = counting(() -> Mono.error(serverError(404)));
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(guard.protect(call)).verifyError(WebClientResponseException.NotFound.class);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private ProviderGuard guard(int maxRetries, Duration hedgeDelay) {
+        return new ProviderGuard("test",
+            new TokenBucket(1_000, 1_000, Duration.ZERO),
+            new Bulkhead("test", 10, 10),
+            new FairScheduler("test", 10, 10, 10, 100, user -> 1),
+            breaker, RESPONSE_TIMEOUT, maxRetries, Duration.ofMillis(100), hedgeDelay,
+            new SimpleMeterRegistry());
+    }
+
+    // Counts upstream attempts and cancellations
+    private Supplier<Mono<String>> counting(Supplier<Mono<String>> upstream) {
+        return () -> {
+            calls.incrementAndGet();
+            return upstream.get().doOnCancel(cancels::incrementAndGet);
+        };
+    }
+
+    private static WebClientResponseException serverError(int status) {
+        return WebClientResponseException.create(status, "status " + status, HttpHeaders.EMPTY, new byte[0], null);
+    }
+}
\ No newline at end of file
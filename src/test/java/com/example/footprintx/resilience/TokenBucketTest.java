@@ -0,0 +1,77 @@
+package com.example.footprintx.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class TokenBucketTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    // Starts well away from zero so arithmetic around the start time is exercised
+    private final AtomicLong now = new AtomicLong(1_000_000_000_000L);
+
+    @Test
+    void allowsABurstAndThenRejects() {
+        TokenBucket bucket = new TokenBucket(10, 5, Duration.ZERO, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.reserve()).isZero();
+        }
+        assertThat(bucket.reserve()).isEqualTo(-1);
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(10, 5, Duration.ZERO, now::get);
+        drain(bucket);
+
+        now.addAndGet(99 * MILLI);
+        assertThat(bucket.reserve()).isEqualTo(-1);
+        now.addAndGet(MILLI);
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isEqualTo(-1);
+    }
+
+    @Test
+    void idleTimeRefillsAtMostTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 5, Duration.ZERO, now::get);
+        drain(bucket);
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertThat(drain(bucket)).isEqualTo(5);
+    }
+
+    @Test
+    void tellsCallersHowLongToWaitUpToMaxWait() {
+        TokenBucket bucket = new TokenBucket(10, 1, Duration.ofMillis(250), now::get);
+
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isEqualTo(100 * MILLI);
+        assertThat(bucket.reserve()).isEqualTo(200 * MILLI);
+        assertThat(bucket.reserve()).isEqualTo(-1);
+        // A rejection does not take a token, so the wait does not grow
+        assertThat(bucket.reserve()).isEqualTo(-1);
+
+        now.addAndGet(100 * MILLI);
+        assertThat(bucket.reserve()).isEqualTo(200 * MILLI);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(0, 1, Duration.ZERO));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(10, 0, Duration.ZERO));
+    }
+
+    private static int drain(TokenBucket bucket) {
+        int granted = 0;
+        while (bucket.reserve() == 0) {
+            granted++;
+        }
+        return granted;
+    }
+}
\ No newline at end of file
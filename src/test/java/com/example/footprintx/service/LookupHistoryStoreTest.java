@@ -0,0 +1,133 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.HistoryEntry;
+import com.example.footprintx.model.HistoryExportRow;
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class LookupHistoryStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch inserting = new CountDownLatch(1);
+    private volatile long insertMillis;
+    private JdbcTemplate jdbcTemplate;
+    private LookupHistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Batch inserts can be slowed down, and fail like a real database when they are interrupted
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:history-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "")) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> setter) {
+                inserting.countDown();
+                try {
+                    Thread.sleep(insertMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Insert interrupted", e);
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, setter);
+            }
+        };
+        store = new LookupHistoryStore(jdbcTemplate, new ObjectMapper(), meterRegistry, Schedulers.boundedElastic());
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "queueCapacity", 100_000);
+        ReflectionTestUtils.setField(store, "batchSize", 50);
+        ReflectionTestUtils.setField(store, "flushInterval", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(store, "retention", Duration.ofDays(1));
+        ReflectionTestUtils.setField(store, "maxRows", Long.MAX_VALUE);
+        ReflectionTestUtils.invokeMethod(store, "start");
+    }
+
+    // Not through the JdbcTemplate: with debug logging it reads the statement's warnings after the
+    // database is gone
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void stoppingWritesEverythingStillQueuedWithoutInterruptingAFlush() throws InterruptedException {
+        insertMillis = 5;
+        int entries = 2_000;
+        for (int i = 0; i < entries; i++) {
+            store.record("alice", "8.8.8.8", QueryType.IP, "ipstack", result("8.8.8.8", "session-" + i % 10));
+        }
+        assertThat(inserting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ReflectionTestUtils.invokeMethod(store, "stop");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lookup_history", Integer.class)).isEqualTo(entries);
+        assertThat(meterRegistry.get("osint.history.entries").tag("outcome", "written").counter().count()).isEqualTo(entries);
+        assertThat(meterRegistry.get("osint.history.entries").tag("outcome", "failed").counter().count()).isZero();
+    }
+
+    @Test
+    void usersOnlySeeTheirOwnLookups() {
+        store.record("alice", "8.8.8.8", QueryType.IP, "ipstack", result("8.8.8.8", "alice-session"));
+        store.record("alice", "1.1.1.1", QueryType.IP, "ipstack", result("1.1.1.1", "alice-session"));
+        store.record("bob", "8.8.8.8", QueryType.IP, "ipstack", result("8.8.8.8", "bob-session"));
+        await().atMost(Duration.ofSeconds(5)).until(
+            () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lookup_history", Integer.class) == 3);
+
+        StepVerifier.create(store.search("alice", null, null, null, null, 100).map(HistoryEntry::query).collectList())
+            .assertNext(queries -> assertThat(queries).containsExactlyInAnyOrder("8.8.8.8", "1.1.1.1"))
+            .verifyComplete();
+        StepVerifier.create(store.search("bob", "8.8.8.8", null, null, null, 100).map(HistoryEntry::sessionId))
+            .expectNext("bob-session")
+            .verifyComplete();
+        StepVerifier.create(store.export("bob", null, null, null, null, null).map(HistoryExportRow::sessionId))
+            .expectNext("bob-session")
+            .verifyComplete();
+        // Knowing another user's session id is not enough to read it
+        StepVerifier.create(store.export("bob", null, null, null, null, "alice-session")).verifyComplete();
+        StepVerifier.create(store.search("carol", null, null, null, null, 100)).verifyComplete();
+    }
+
+    @Test
+    void exportsPageThroughTheUsersRowsByIndex() {
+        // The statement export() runs for a user without further filters
+        String plan = jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT id FROM lookup_history WHERE username = ? AND id > ? ORDER BY id LIMIT 1000",
+            String.class, "alice", 0L);
+
+        assertThat(plan).contains("LOOKUP_HISTORY_USER_ID: USERNAME = ?1\n        AND ID > ?2");
+    }
+
+    private static OSINTResult result(String ip, String sessionId) {
+        OSINTResult result = new OSINTResult("IPStack", "ip", ip, sessionId);
+        result.setSuccess(true);
+        result.setMessage("IP geolocation lookup completed successfully");
+        result.setData(Map.of("ip", ip, "country_code", "US"));
+        return result;
+    }
+}
\ No newline at end of file
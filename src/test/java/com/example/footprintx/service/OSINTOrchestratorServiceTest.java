@@ -0,0 +1,329 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.graph.EntityGraphEngine;
+import com.example.footprintx.model.LookupRequest;
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.model.QueryType;
+import com.example.footprintx.provider.OSINTProvider;
+import com.example.footprintx.provider.ProviderRegistry;
+import com.example.footprintx.resilience.Caller;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+// Runs on virtual time with fake providers that answer after a fixed delay
+class OSINTOrchestratorServiceTest {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(10);
+
+    private final LookupHistoryStore historyStore = mock(LookupHistoryStore.class);
+
+    @Test
+    void fastModeStreamsResultsInCompletionOrder() {
+        FakeProvider slow = new FakeProvider("slow", QueryType.EMAIL, Duration.ofMillis(300));
+        FakeProvider fast = new FakeProvider("fast", QueryType.EMAIL, Duration.ofMillis(100));
+        OSINTOrchestratorService orchestrator = orchestrator(slow, fast);
+
+        StepVerifier.withVirtualTime(() -> lookup(orchestrator, "jane@example.com", "fast"))
+            .assertNext(start -> assertThat(start.getType()).isEqualTo("status"))
+            // Both providers are asked at once
+            .then(() -> assertThat(List.of(slow.calls, fast.calls)).allSatisfy(calls -> assertThat(calls).hasValue(1)))
+            .expectNoEvent(Duration.ofMillis(100))
+            .assertNext(result -> assertThat(result.getSource()).isEqualTo("fast"))
+            .expectNoEvent(Duration.ofMillis(200))
+            .assertNext(result -> assertThat(result.getSource()).isEqualTo("slow"))
+            .assertNext(end -> {
+                assertThat(end.getType()).isEqualTo("end");
+                assertThat(end.getData()).containsEntry("mode", "fast");
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void pacedModeAsksProvidersOneAfterAnotherInRegistrationOrder() {
+        FakeProvider slow = new FakeProvider("slow", QueryType.EMAIL, Duration.ofMillis(300));
+        FakeProvider fast = new FakeProvider("fast", QueryType.EMAIL, Duration.ofMillis(100));
+        OSINTOrchestratorService orchestrator = orchestrator(slow, fast);
+
+        // 500 ms before the start message, 1200 ms after each email result and 1000 ms before the end
+        StepVerifier.withVirtualTime(() -> lookup(orchestrator, "jane@example.com", "paced"))
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(500))
+            .assertNext(start -> assertThat(start.getType()).isEqualTo("status"))
+            .then(() -> assertThat(fast.calls).hasValue(0))
+            .expectNoEvent(Duration.ofMillis(1500))
+            .assertNext(result -> assertThat(result.getSource()).isEqualTo("slow"))
+            .then(() -> assertThat(fast.calls).hasValue(1))
+            .expectNoEvent(Duration.ofMillis(1300))
+            .assertNext(result -> assertThat(result.getSource()).isEqualTo("fast"))
+            .expectNoEvent(Duration.ofMillis(1000))
+            .assertNext(end -> assertThat(end.getData()).containsEntry("mode", "paced"))
+            .verifyComplete();
+    }
+
+    @Test
+    void theConfiguredModeAppliesWhenTheRequestHasNone() {
+        FakeProvider provider = new FakeProvider("fast", QueryType.EMAIL, Duration.ofMillis(100));
+        OSINTOrchestratorService orchestrator = orchestrator(provider);
+        ReflectionTestUtils.setField(orchestrator, "defaultMode", "paced");
+
+        StepVerifier.withVirtualTime(() -> lookup(orchestrator, "jane@example.com", null))
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(500))
+            .expectNextCount(1)
+            .thenAwait(Duration.ofSeconds(5))
+            .expectNextCount(1)
+            .assertNext(end -> assertThat(end.getData()).containsEntry("mode", "paced"))
+            .verifyComplete();
+    }
+
+    @Test
+    void aProviderThatMissesTheDeadlineBecomesAFailureWithoutHoldingUpTheOthers() {
+        FakeProvider hanging = new FakeProvider("hanging", QueryType.IP, null);
+        FakeProvider fast = new FakeProvider("fast", QueryType.IP, Duration.ofMillis(100));
+        OSINTOrchestratorService orchestrator = orchestrator(hanging, fast);
+
+        StepVerifier.withVirtualTime(() -> lookup(orchestrator, "8.8.8.8", "fast"))
+            .expectNextCount(1)
+            .expectNoEvent(Duration.ofMillis(100))
+            .assertNext(result -> assertThat(result.getSource()).isEqualTo("fast"))
+            .expectNoEvent(DEADLINE.minusMillis(100))
+            .assertNext(result -> {
+                assertThat(result.getSource()).isEqualTo("HANGING");
+                assertThat(result.getType()).isEqualTo("ip");
+                assertThat(result.isSuccess()).isFalse();
+                assertThat(result.getMessage()).isEqualTo("HANGING did not respond within 10000 ms");
+            })
+            .assertNext(end -> assertThat(end.getType()).isEqualTo("end"))
+            .verifyComplete();
+        assertThat(hanging.cancels).hasValue(1);
+    }
+
+    @Test
+    void aFailingProviderBecomesAFailureResult() {
+        FakeProvider failing = new FakeProvider("failing", QueryType.IP, Duration.ofMillis(50),
+            new IllegalStateException("boom"));
+        FakeProvider ok = new FakeProvider("ok", QueryType.IP, Duration.ofMillis(100));
+        OSINTOrchestratorService orchestrator = orchestrator(failing, ok);
+
+        StepVerifier.withVirtualTime(() -> lookup(orchestrator, "8.8.8.8", "fast"))
+            .expectNextCount(1)
+            .thenAwait(Duration.ofMillis(100))
+            .assertNext(result -> {
+                assertThat(result.getSource()).isEqualTo("FAILING");
+                assertThat(result.isSuccess()).isFalse();
+                assertThat(result.getMessage()).isEqualTo("FAILING lookup failed");
+            })
+            .assertNext(result -> assertThat(result.isSuccess()).isTrue())
+            .assertNext(end -> assertThat(end.getType()).isEqualTo("end"))
+            .verifyComplete();
+    }
+
+    @Test
+    void onlyProvidersForTheDetectedTypeAreAsked() {
+        FakeProvider email = new FakeProvider("email", QueryType.EMAIL, Duration.ofMillis(10));
+        FakeProvider ip = new FakeProvider("ip", QueryType.IP, Duration.ofMillis(10));
+        OSINTOrchestratorService orchestrator = orchestrator(email, ip);
+
+        StepVerifier.withVirtualTime(() -> lookup(orchestrator, "2001:db8::1", "fast"))
+            .expectNextCount(1)
+            .thenAwait(Duration.ofMillis(10))
+            .assertNext(result -> assertThat(result.getSource()).isEqualTo("ip"))
+            .expectNextCount(1)
+            .verifyComplete();
+        assertThat(email.calls).hasValue(0);
+    }
+
+    @Test
+    void aQueryTypeWithoutProvidersGetsAnErrorResult() {
+        OSINTOrchestratorService orchestrator = orchestrator(new FakeProvider("ip", QueryType.IP, Duration.ZERO));
+
+        StepVerifier.create(lookup(orchestrator, "jane@example.com", "fast"))
+            .expectNextCount(1)
+            .assertNext(result -> {
+                assertThat(result.getSource()).isEqualTo("System");
+                assertThat(result.getType()).isEqualTo("error");
+                assertThat(result.getMessage()).isEqualTo("No providers available for email queries yet");
+            })
+            .assertNext(end -> assertThat(end.getType()).isEqualTo("end"))
+            .verifyComplete();
+    }
+
+    @Test
+    void resultsAreRecordedForTheCallerInTheContext() {
+        OSINTOrchestratorService orchestrator = orchestrator(
+            new FakeProvider("ip", QueryType.IP, Duration.ZERO),
+            new FakeProvider("hanging", QueryType.IP, null));
+
+        StepVerifier.withVirtualTime(() -> lookup(orchestrator, "8.8.8.8", "fast"))
+            .expectNextCount(2)
+            .thenAwait(DEADLINE)
+            .expectNextCount(2)
+            .verifyComplete();
+
+        // The deadline failure is history too
+        verify(historyStore).record(eq("analyst"), eq("8.8.8.8"), eq(QueryType.IP), eq("ip"), any());
+        verify(historyStore).record(eq("analyst"), eq("8.8.8.8"), eq(QueryType.IP), eq("hanging"),
+            argThat(result -> !result.isSuccess()));
+    }
+
+    @Test
+    void batchesRunAtMostBatchConcurrencyRequestsAtOnce() {
+        FakeProvider provider = new FakeProvider("ip", QueryType.IP, Duration.ofSeconds(1));
+        OSINTOrchestratorService orchestrator = orchestrator(provider);
+        ReflectionTestUtils.setField(orchestrator, "batchConcurrency", 2);
+        Flux<LookupRequest> requests = Flux.range(1, 6).map(i -> new LookupRequest("10.0.0." + i, null));
+
+        StepVerifier.withVirtualTime(() -> batch(orchestrator, requests))
+            .expectSubscription()
+            .then(() -> assertThat(provider.active).hasValue(2))
+            .expectNoEvent(Duration.ofSeconds(1))
+            .expectNextCount(2)
+            // Two more seconds for the remaining four, two at a time
+            .thenAwait(Duration.ofSeconds(2))
+            .expectNextCount(4)
+            .verifyComplete();
+        assertThat(provider.maxActive).hasValue(2);
+        assertThat(provider.calls).hasValue(6);
+    }
+
+    @Test
+    void batchesSkipBlankLinesAndAnswerUnknownQueriesWithAnError() {
+        FakeProvider provider = new FakeProvider("ip", QueryType.IP, Duration.ofMillis(10));
+        OSINTOrchestratorService orchestrator = orchestrator(provider);
+        Flux<LookupRequest> requests = Flux.just(
+            new LookupRequest("8.8.8.8", null),
+            new LookupRequest("", null),
+            new LookupRequest("   ", null),
+            new LookupRequest(null, null),
+            new LookupRequest("?!", null),
+            new LookupRequest("1.1.1.1", null));
+
+        List<OSINTResult> results = new ArrayList<>();
+        StepVerifier.withVirtualTime(() -> batch(orchestrator, requests))
+            .thenAwait(Duration.ofMillis(10))
+            .recordWith(() -> results)
+            .expectNextCount(3)
+            .verifyComplete();
+
+        assertThat(results).extracting(OSINTResult::getQuery).containsExactlyInAnyOrder("8.8.8.8", "1.1.1.1", "?!");
+        assertThat(results).filteredOn(result -> "System".equals(result.getSource())).singleElement()
+            .satisfies(result -> {
+                assertThat(result.getType()).isEqualTo("error");
+                assertThat(result.isSuccess()).isFalse();
+            });
+        assertThat(provider.calls).hasValue(2);
+        // Every result of one batch shares its id
+        assertThat(results).extracting(OSINTResult::getSessionId).doesNotContainNull().containsOnly(
+            results.get(0).getSessionId());
+    }
+
+    @Test
+    void batchResultsAreRecordedForTheBulkCaller() {
+        OSINTOrchestratorService orchestrator = orchestrator(new FakeProvider("ip", QueryType.IP, Duration.ZERO));
+
+        StepVerifier.create(batch(orchestrator, Flux.just(new LookupRequest("8.8.8.8", null))))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        verify(historyStore).record(eq("batch-user"), eq("8.8.8.8"), eq(QueryType.IP), eq("ip"), any());
+    }
+
+    private OSINTOrchestratorService orchestrator(OSINTProvider... providers) {
+        OSINTOrchestratorService orchestrator = new OSINTOrchestratorService(new ProviderRegistry(List.of(providers)),
+            new SimpleMeterRegistry(), historyStore, mock(EntityGraphEngine.class));
+        ReflectionTestUtils.setField(orchestrator, "defaultMode", "fast");
+        ReflectionTestUtils.setField(orchestrator, "lookupDeadline", DEADLINE);
+        ReflectionTestUtils.setField(orchestrator, "batchConcurrency", 32);
+        return orchestrator;
+    }
+
+    private static Flux<OSINTResult> lookup(OSINTOrchestratorService orchestrator, String query, String mode) {
+        return orchestrator.performLookup(query, null, mode, "session-1")
+            .contextWrite(Caller.interactive("analyst"));
+    }
+
+    private static Flux<OSINTResult> batch(OSINTOrchestratorService orchestrator, Flux<LookupRequest> requests) {
+        return orchestrator.performBatchLookup(requests)
+            .contextWrite(Caller.bulk("batch-user"));
+    }
+
+    // Answers every query of its type successfully after the delay, on the (virtual) parallel scheduler.
+    // Without a delay it never answers; with an error it fails instead.
+    private static class FakeProvider implements OSINTProvider {
+
+        final String name;
+        final QueryType queryType;
+        final Duration delay;
+        final RuntimeException error;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger cancels = new AtomicInteger();
+        // Lookups running at the same time, and the most there ever were
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        FakeProvider(String name, QueryType queryType, Duration delay) {
+            this(name, queryType, delay, null);
+        }
+
+        FakeProvider(String name, QueryType queryType, Duration delay, RuntimeException error) {
+            this.name = name;
+            this.queryType = queryType;
+            this.delay = delay;
+            this.error = error;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return name.toUpperCase(Locale.ROOT);
+        }
+
+        @Override
+        public Set<QueryType> getQueryTypes() {
+            return Set.of(queryType);
+        }
+
+        @Override
+        public Mono<OSINTResult> lookup(String query, QueryType queryType, String sessionId) {
+            calls.incrementAndGet();
+            if (delay == null) {
+                return Mono.<OSINTResult>never().doOnCancel(cancels::incrementAndGet);
+            }
+            return Mono.delay(delay)
+                .map(tick -> {
+                    if (error != null) {
+                        throw error;
+                    }
+                    OSINTResult result = new OSINTResult(name, queryType.getKey(), query, sessionId);
+                    result.setSuccess(true);
+                    return result;
+                })
+                .doOnSubscribe(subscription -> maxActive.accumulateAndGet(active.incrementAndGet(), Math::max))
+                // Before the orchestrator sees the result; doFinally would run after it asked for the next call
+                .doOnTerminate(active::decrementAndGet)
+                .doOnCancel(active::decrementAndGet);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.OSINTResult;
+import com.example.footprintx.phone.PhoneMetadataEngine;
+import com.example.footprintx.resilience.ProviderGuardRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each phone.local-mode against a stubbed Numverify that answers for whatever number it is asked about
+class PhoneInfoServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String PLAN = """
+        prefix,country_code,country_name,location,carrier,line_type
+        1,US,United States,,,
+        1416,CA,Canada,Toronto,,
+        7,RU,Russia,,,
+        79,,,,,mobile
+        77,KZ,Kazakhstan,,,
+        """;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Numbers Numverify was asked about
+    private final List<String> remoteCalls = new CopyOnWriteArrayList<>();
+    private volatile HttpStatus remoteStatus = HttpStatus.OK;
+
+    @Test
+    void offAlwaysAsksNumverify() {
+        PhoneInfoService service = service("off");
+
+        OSINTResult result = lookup(service, "+7 916 123 45 67");
+
+        assertThat(remoteCalls).containsExactly("+79161234567");
+        assertThat(result.getSource()).isEqualTo("Numverify");
+        assertThat(result.isSuccess()).as(result.getMessage()).isTrue();
+        // Nothing from the plan is mixed in
+        assertThat(result.getData())
+            .containsEntry("carrier", "Stub Mobile")
+            .doesNotContainKey("country_prefix");
+    }
+
+    @Test
+    void preferAnswersCompleteNumbersLocally() {
+        PhoneInfoService service = service("prefer");
+
+        OSINTResult result = lookup(service, "+7 916 123 45 67");
+
+        assertThat(remoteCalls).isEmpty();
+        assertThat(result.getSource()).isEqualTo("Numbering plan (local)");
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getData())
+            .containsEntry("country_prefix", "+7")
+            .containsEntry("country_code", "RU")
+            .containsEntry("line_type", "mobile");
+    }
+
+    @Test
+    void preferAsksNumverifyForMissingFieldsAndMergesTheAnswers() {
+        PhoneInfoService service = service("prefer");
+
+        // The plan knows the country and city but not the line type
+        OSINTResult result = lookup(service, "+1 416 555 0100");
+
+        assertThat(remoteCalls).containsExactly("+14165550100");
+        assertThat(result.getSource()).isEqualTo("Numverify");
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getData())
+            .containsEntry("country_prefix", "+1")
+            .containsEntry("country_code", "CA")
+            .containsEntry("country_name", "Canada")
+            .containsEntry("location", "Toronto")
+            .containsEntry("carrier", "Stub Mobile")
+            .containsEntry("line_type", "mobile");
+    }
+
+    @Test
+    void preferFallsBackToThePlanWhenNumverifyFails() {
+        PhoneInfoService service = service("prefer");
+        remoteStatus = HttpStatus.BAD_REQUEST;
+
+        OSINTResult result = lookup(service, "+7 701 123 45 67");
+
+        assertThat(remoteCalls).containsExactly("+77011234567");
+        assertThat(result.getSource()).isEqualTo("Numbering plan (local)");
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getMessage()).startsWith("Phone details from the numbering plan only");
+        assertThat(result.getData())
+            .containsEntry("country_prefix", "+7")
+            .containsEntry("country_code", "KZ")
+            .doesNotContainKey("line_type");
+    }
+
+    @Test
+    void preferAsksNumverifyForUnknownPrefixes() {
+        PhoneInfoService service = service("prefer");
+
+        OSINTResult result = lookup(service, "+44 20 7946 0018");
+
+        assertThat(remoteCalls).containsExactly("+442079460018");
+        assertThat(result.getSource()).isEqualTo("Numverify");
+        assertThat(result.getData()).doesNotContainKey("country_prefix");
+    }
+
+    @Test
+    void onlyNeverAsksNumverify() {
+        PhoneInfoService service = service("only");
+
+        OSINTResult canada = lookup(service, "+1 416 555 0100");
+        OSINTResult unitedStates = lookup(service, "+1 212 555 0100");
+        OSINTResult kazakhstan = lookup(service, "+7 701 123 45 67");
+        OSINTResult unknown = lookup(service, "+44 20 7946 0018");
+
+        assertThat(remoteCalls).isEmpty();
+        // Incomplete answers are returned as they are
+        assertThat(canada.getData())
+            .containsEntry("country_code", "CA")
+            .containsEntry("location", "Toronto")
+            .doesNotContainKey("line_type");
+        assertThat(unitedStates.getData()).containsEntry("country_code", "US").containsEntry("country_prefix", "+1");
+        assertThat(kazakhstan.getData()).containsEntry("country_code", "KZ").containsEntry("country_prefix", "+7");
+        assertThat(unknown.getSource()).isEqualTo("Numbering plan (local)");
+        assertThat(unknown.isSuccess()).isFalse();
+        assertThat(unknown.getMessage()).isEqualTo("Number does not match any known country prefix");
+    }
+
+    private OSINTResult lookup(PhoneInfoService service, String number) {
+        OSINTResult result = service.lookupPhone(number, "session-1").block(TIMEOUT);
+        assertThat(result).isNotNull();
+        assertThat(result.getQuery()).isEqualTo(number);
+        return result;
+    }
+
+    private PhoneInfoService service(String mode) {
+        PhoneMetadataEngine engine = new PhoneMetadataEngine(
+            new ByteArrayResource(PLAN.getBytes(StandardCharsets.UTF_8)), mode, meterRegistry);
+        ProviderResultCache cache = new ProviderResultCache(100, Duration.ofSeconds(30),
+            new ProviderCacheSpillStore(null, null, Schedulers.boundedElastic()), meterRegistry);
+        ProviderGuardRegistry guards = new ProviderGuardRegistry(
+            new MockEnvironment().withProperty("api.numverify.retry.max-retries", "0"), meterRegistry);
+        PhoneInfoService service = new PhoneInfoService(numverify(), cache, guards, engine);
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        ReflectionTestUtils.setField(service, "apiUrl", "http://numverify.test/api/validate");
+        ReflectionTestUtils.setField(service, "cacheTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "requiredFields", new String[] {"country_code", "line_type"});
+        return service;
+    }
+
+    // Answers like Numverify, without a location, so merged results show where each field came from
+    private WebClient numverify() {
+        return WebClient.builder()
+            .exchangeFunction(request -> {
+                String number = UriUtils.decode(UriComponentsBuilder.fromUri(request.url()).build()
+                    .getQueryParams().getFirst("number"), StandardCharsets.UTF_8);
+                remoteCalls.add(number);
+                String body = remoteStatus.is2xxSuccessful()
+                    ? """
+                        {"valid":true,"number":"%s","international_format":"+%s","location":"",
+                         "carrier":"Stub Mobile","line_type":"mobile"}
+                        """.formatted(number.substring(1), number.substring(1))
+                    : "{}";
+                return Mono.just(ClientResponse.create(remoteStatus)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+            })
+            .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.OSINTResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ProviderResultCacheTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final Duration NEGATIVE_TTL = Duration.ofMillis(200);
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger cancels = new AtomicInteger();
+
+    @Test
+    void concurrentLookupsShareOneUpstreamCall() {
+        ProviderResultCache cache = cache(100, disabledSpillStore());
+        Sinks.One<OSINTResult> upstream = Sinks.one();
+        List<Mono<OSINTResult>> lookups = IntStream.range(0, 10)
+            .mapToObj(i -> lookup(cache, "8.8.8.8", "session-" + i, counting(upstream.asMono())))
+            .toList();
+
+        StepVerifier.create(Flux.merge(lookups).collectList())
+            .then(() -> {
+                assertThat(calls).hasValue(1);
+                upstream.tryEmitValue(result("8.8.8.8", true));
+            })
+            .assertNext(results -> {
+                assertThat(results).extracting(OSINTResult::getCacheStatus)
+                    .containsOnlyOnce("miss")
+                    .filteredOn("coalesced"::equals).hasSize(9);
+                // Each caller gets its own copy with its own session
+                assertThat(results).extracting(OSINTResult::getSessionId)
+                    .containsExactlyInAnyOrderElementsOf(IntStream.range(0, 10).mapToObj(i -> "session-" + i).toList());
+            })
+            .verifyComplete();
+
+        StepVerifier.create(lookup(cache, "8.8.8.8", "later", counting(Mono.never())))
+            .assertNext(result -> assertThat(result.getCacheStatus()).isEqualTo("hit"))
+            .verifyComplete();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthersRunning() {
+        ProviderResultCache cache = cache(100, disabledSpillStore());
+        Sinks.One<OSINTResult> upstream = Sinks.one();
+        Disposable first = lookup(cache, "8.8.8.8", "first", counting(upstream.asMono())).subscribe();
+
+        StepVerifier.create(lookup(cache, "8.8.8.8", "second", counting(upstream.asMono())))
+            .then(first::dispose)
+            .then(() -> {
+                assertThat(cancels).hasValue(0);
+                upstream.tryEmitValue(result("8.8.8.8", true));
+            })
+            .assertNext(result -> {
+                assertThat(result.getSessionId()).isEqualTo("second");
+                assertThat(result.getCacheStatus()).isEqualTo("coalesced");
+            })
+            .verifyComplete();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void cancellingTheLastCallerCancelsTheCallAndLetsTheNextOneThrough() {
+        ProviderResultCache cache = cache(100, disabledSpillStore());
+        Supplier<Mono<OSINTResult>> loader = counting(Mono.defer(() -> calls.get() == 1
+            ? Mono.never()
+            : Mono.just(result("8.8.8.8", true))));
+
+        lookup(cache, "8.8.8.8", "first", loader).subscribe().dispose();
+        assertThat(cancels).hasValue(1);
+
+        StepVerifier.create(lookup(cache, "8.8.8.8", "second", loader))
+            .assertNext(result -> assertThat(result.getCacheStatus()).isEqualTo("miss"))
+            .verifyComplete();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void failedResultsAreOnlyCachedForTheNegativeTtl() {
+        ProviderResultCache cache = cache(100, disabledSpillStore());
+        lookup(cache, "1.1.1.1", "s", counting(Mono.just(result("1.1.1.1", false)))).block();
+        lookup(cache, "8.8.8.8", "s", counting(Mono.just(result("8.8.8.8", true)))).block();
+
+        assertThat(lookup(cache, "1.1.1.1", "s", counting(Mono.never())).block().getCacheStatus()).isEqualTo("hit");
+        assertThat(calls).hasValue(2);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(
+            lookup(cache, "1.1.1.1", "s", counting(Mono.just(result("1.1.1.1", true)))).block().getCacheStatus())
+            .isEqualTo("miss"));
+        assertThat(lookup(cache, "8.8.8.8", "s", counting(Mono.never())).block().getCacheStatus()).isEqualTo("hit");
+    }
+
+    @Test
+    void errorsAreNotCached() {
+        ProviderResultCache cache = cache(100, disabledSpillStore());
+        StepVerifier.create(lookup(cache, "8.8.8.8", "s", counting(Mono.error(new IllegalStateException("down")))))
+            .verifyErrorMessage("down");
+
+        StepVerifier.create(lookup(cache, "8.8.8.8", "s", counting(Mono.just(result("8.8.8.8", true)))))
+            .assertNext(result -> assertThat(result.getCacheStatus()).isEqualTo("miss"))
+            .verifyComplete();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void evictedEntriesAreServedFromTheSpillStore() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:spill-test;DB_CLOSE_DELAY=-1", "sa", ""));
+        ProviderCacheSpillStore spillStore = new ProviderCacheSpillStore(jdbcTemplate, new ObjectMapper(),
+            Schedulers.boundedElastic());
+        ReflectionTestUtils.setField(spillStore, "enabled", true);
+        ReflectionTestUtils.invokeMethod(spillStore, "createTable");
+        ProviderResultCache cache = cache(1, spillStore);
+
+        lookup(cache, "1.1.1.1", "s", counting(Mono.just(result("1.1.1.1", true)))).block();
+        lookup(cache, "8.8.8.8", "s", counting(Mono.just(result("8.8.8.8", true)))).block();
+        await().atMost(Duration.ofSeconds(5)).until(
+            () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM provider_cache", Integer.class) == 1);
+
+        for (String query : List.of("1.1.1.1", "8.8.8.8")) {
+            StepVerifier.create(lookup(cache, query, "s", counting(Mono.never())))
+                .assertNext(result -> {
+                    assertThat(result.getCacheStatus()).isEqualTo("hit");
+                    assertThat(result.getData()).containsEntry("ip", query);
+                })
+                .verifyComplete();
+        }
+        assertThat(calls).hasValue(2);
+    }
+
+    private ProviderResultCache cache(long maxEntries, ProviderCacheSpillStore spillStore) {
+        return new ProviderResultCache(maxEntries, NEGATIVE_TTL, spillStore, new SimpleMeterRegistry());
+    }
+
+    private static ProviderCacheSpillStore disabledSpillStore() {
+        return new ProviderCacheSpillStore(null, null, Schedulers.boundedElastic());
+    }
+
+    private static Mono<OSINTResult> lookup(ProviderResultCache cache, String query, String sessionId,
+                                            Supplier<Mono<OSINTResult>> loader) {
+        return cache.lookup("ipstack", query, TTL, query, sessionId, loader);
+    }
+
+    // Counts upstream calls and cancellations
+    private Supplier<Mono<OSINTResult>> counting(Mono<OSINTResult> upstream) {
+        return () -> {
+            calls.incrementAndGet();
+            return upstream.doOnCancel(cancels::incrementAndGet);
+        };
+    }
+
+    private static OSINTResult result(String ip, boolean success) {
+        OSINTResult result = new OSINTResult("IPStack", "ip", ip, null);
+        result.setSuccess(success);
+        result.setMessage(success ? "IP geolocation lookup completed successfully" : "IPStack lookup failed");
+        Map<String, Object> data = success ? Map.of("ip", ip, "country_code", "US") : Collections.emptyMap();
+        result.setData(data);
+        return result;
+    }
+}
\ No newline at end of file
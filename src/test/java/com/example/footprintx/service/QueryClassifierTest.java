@@ -0,0 +1,100 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.ClassifiedQuery;
+import com.example.footprintx.model.QueryType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryClassifierTest {
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource(delimiter = '|', textBlock = """
+        # IPv4, and version-like or out-of-range dotted numbers that are not addresses
+        8.8.8.8                                    | IP       | 8.8.8.8
+        ' 192.168.0.1 '                            | IP       | 192.168.0.1
+        255.255.255.255                            | IP       | 255.255.255.255
+        256.1.1.1                                  | UNKNOWN  |
+        1.2.3                                      | UNKNOWN  |
+        1.2.3.4.5                                  | UNKNOWN  |
+        1.2.3.                                     | UNKNOWN  |
+        # IPv6 literals are normalized to their RFC 5952 form
+        2001:DB8:0:0:0:0:0:1                       | IP       | 2001:db8::1
+        2001:db8::1                                | IP       | 2001:db8::1
+        ::1                                        | IP       | ::1
+        # IPv4-mapped addresses are looked up as the IPv4 address they carry
+        ::ffff:192.0.2.1                           | IP       | 192.0.2.1
+        # The unspecified address is still a literal; malformed compressions are not
+        ::                                         | IP       | ::
+        :::                                        | UNKNOWN  |
+        1::2::3                                    | UNKNOWN  |
+        std::string                                | UNKNOWN  |
+        # Emails keep their plus tags
+        john.doe+osint@example.com                 | EMAIL    | john.doe+osint@example.com
+        John.Doe+OSINT@Example.COM                 | EMAIL    | john.doe+osint@example.com
+        a+b+c@mail.example.co.uk                   | EMAIL    | a+b+c@mail.example.co.uk
+        user@localhost                             | UNKNOWN  |
+        user@@example.com                          | UNKNOWN  |
+        user@example.c0m                           | UNKNOWN  |
+        # E.164, international "00" and local numbers
+        +14155552671                               | PHONE    | +14155552671
+        +44 20 7946 0958                           | PHONE    | +442079460958
+        0044 20 7946 0958                          | PHONE    | +442079460958
+        (415) 555-2671                             | PHONE    | +4155552671
+        020 7946 0958                              | PHONE    |
+        0123                                       | UNKNOWN  |
+        1234567890123456                           | UNKNOWN  |
+        # Hex digests of the usual lengths, against handles that happen to be hex
+        d41d8cd98f00b204e9800998ecf8427e           | HASH     | d41d8cd98f00b204e9800998ecf8427e
+        DA39A3EE5E6B4B0D3255BFEF95601890AFD80709   | HASH     | da39a3ee5e6b4b0d3255bfef95601890afd80709
+        e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855 | HASH | e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855
+        d41d8cd98f00b204e9800998ecf8427            | UNKNOWN  |
+        cafe1234                                   | USERNAME | cafe1234
+        john_doe99                                 | USERNAME | john_doe99
+        @John.Doe                                  | USERNAME | john.doe
+        ab1                                        | USERNAME | ab1
+        a1                                         | UNKNOWN  |
+        # Domains, including internationalized ones, which are normalized to their ASCII form
+        example.com                                | DOMAIN   | example.com
+        Sub.Example.CO.uk                          | DOMAIN   | sub.example.co.uk
+        xn--mnchen-3ya.de                          | DOMAIN   | xn--mnchen-3ya.de
+        münchen.de                                 | DOMAIN   | xn--mnchen-3ya.de
+        MÜNCHEN.DE                                 | DOMAIN   | xn--mnchen-3ya.de
+        пример.рф                                  | DOMAIN   | xn--e1afmkfd.xn--p1ai
+        -bad.example.com                           | UNKNOWN  |
+        bad-.example.com                           | UNKNOWN  |
+        # Names
+        Jane Doe                                   | NAME     | Jane Doe
+        '  Jane   O''Neil  '                       | NAME     | Jane O'Neil
+        deadbeef                                   | NAME     | deadbeef
+        ''                                         | UNKNOWN  |
+        '   '                                      | UNKNOWN  |
+        """)
+    void detectsTheTypeAndNormalizes(String query, QueryType type, String normalized) {
+        assertThat(QueryClassifier.classify(query)).isEqualTo(type);
+
+        ClassifiedQuery classified = QueryClassifier.classify(query, null);
+        assertThat(classified.type()).isEqualTo(type);
+        if (normalized != null) {
+            assertThat(classified.normalized()).isEqualTo(normalized);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} as {1} -> {2}")
+    @CsvSource(delimiter = '|', textBlock = """
+        8.8.8.8                | username | USERNAME | 8.8.8.8
+        john                   | EMAIL    | EMAIL    | john
+        ' +1 415 555 2671 '    | ' phone' | PHONE    | +14155552671
+        # auto and unrecognized types fall back to detection
+        8.8.8.8                | auto     | IP       | 8.8.8.8
+        8.8.8.8                | unknown  | IP       | 8.8.8.8
+        8.8.8.8                | bogus    | IP       | 8.8.8.8
+        """)
+    void anExplicitTypeOverridesDetection(String query, String explicitType, QueryType type, String normalized) {
+        ClassifiedQuery classified = QueryClassifier.classify(query, explicitType);
+
+        assertThat(classified.type()).isEqualTo(type);
+        assertThat(classified.normalized()).isEqualTo(normalized);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.example.footprintx.service;
+
+import com.example.footprintx.model.LookupRequest;
+import com.example.footprintx.model.OSINTResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionRegistryTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final OSINTOrchestratorService orchestrator = mock(OSINTOrchestratorService.class);
+    // The running lookup of each session, which the test feeds, and how often it was cancelled
+    private final Map<String, Sinks.Many<OSINTResult>> lookups = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> cancels = new ConcurrentHashMap<>();
+    private final AtomicLong nanos = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        when(orchestrator.performLookup(anyString(), any(), any(), anyString())).thenAnswer(invocation -> {
+            String sessionId = invocation.getArgument(3);
+            Sinks.Many<OSINTResult> lookup = Sinks.many().unicast().onBackpressureBuffer();
+            lookups.put(sessionId, lookup);
+            AtomicInteger cancelled = cancels.computeIfAbsent(sessionId, key -> new AtomicInteger());
+            return lookup.asFlux().doOnCancel(cancelled::incrementAndGet);
+        });
+    }
+
+    @Test
+    void resumingReplaysOnlyLaterEventsWithoutAskingTheProvidersAgain() {
+        SessionRegistry registry = registry(10, 64);
+        LookupSession session = registry.create(new LookupRequest("8.8.8.8", null), "analyst");
+
+        // The first connection sees two results and drops
+        StepVerifier.create(registry.stream(session, 0))
+            .then(() -> emit(session, "IPStack", "Clearbit", "Numverify"))
+            .assertNext(event -> assertThat(event.id()).isEqualTo(1))
+            .assertNext(event -> assertThat(event.id()).isEqualTo(2))
+            .thenCancel()
+            .verify(TIMEOUT);
+
+        StepVerifier.create(registry.stream(session, 2))
+            .assertNext(event -> {
+                assertThat(event.id()).isEqualTo(3);
+                assertThat(event.result().getSource()).isEqualTo("Numverify");
+            })
+            .then(() -> {
+                emit(session, "System");
+                lookups.get(session.getId()).tryEmitComplete();
+            })
+            .assertNext(event -> assertThat(event.id()).isEqualTo(4))
+            .verifyComplete();
+
+        verify(orchestrator, times(1)).performLookup(anyString(), any(), any(), anyString());
+        assertThat(cancels.get(session.getId())).hasValue(0);
+        assertThat(session.isCompleted()).isTrue();
+    }
+
+    @Test
+    void resumingAfterTheReplayBufferStartsAtTheOldestEventStillKept() {
+        SessionRegistry registry = registry(10, 2);
+        LookupSession session = registry.create(new LookupRequest("8.8.8.8", null), "analyst");
+        registry.stream(session, 0).subscribe().dispose();
+        emit(session, "a", "b", "c", "d", "e");
+        lookups.get(session.getId()).tryEmitComplete();
+
+        StepVerifier.create(registry.stream(session, 1))
+            .assertNext(event -> assertThat(event.id()).isEqualTo(4))
+            .assertNext(event -> assertThat(event.id()).isEqualTo(5))
+            .verifyComplete();
+    }
+
+    @Test
+    void sessionsExpireAfterTheTtlWithoutAccess() {
+        SessionRegistry registry = registry(10, 64);
+        LookupSession session = registry.create(new LookupRequest("8.8.8.8", null), "analyst");
+        AtomicBoolean streamEnded = new AtomicBoolean();
+        registry.stream(session, 0).subscribe(event -> { }, error -> { }, () -> streamEnded.set(true));
+
+        // Each access restarts the TTL
+        advance(TTL.minusMinutes(1));
+        assertThat(registry.get(session.getId())).isSameAs(session);
+        advance(TTL.minusMinutes(1));
+        assertThat(registry.get(session.getId())).isSameAs(session);
+
+        advance(TTL.plusSeconds(1));
+        assertThat(registry.get(session.getId())).isNull();
+
+        // The running lookup is cancelled and open streams end
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            registry.get(session.getId());
+            assertThat(cancels.get(session.getId())).hasValue(1);
+        });
+        assertThat(streamEnded).isTrue();
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void theRegistryNeverHoldsMoreThanMaxSizeSessions() {
+        SessionRegistry registry = registry(2, 64);
+        List<LookupSession> sessions = Stream.of("1.1.1.1", "8.8.8.8", "9.9.9.9", "1.0.0.1")
+            .map(query -> {
+                LookupSession session = registry.create(new LookupRequest(query, null), "analyst");
+                registry.stream(session, 0).subscribe();
+                return session;
+            })
+            .toList();
+
+        await().atMost(TIMEOUT).untilAsserted(() -> assertThat(registry.size()).isEqualTo(2));
+        // Evicted sessions are gone for good, with their lookups cancelled
+        List<LookupSession> evicted = sessions.stream()
+            .filter(session -> registry.get(session.getId()) == null)
+            .toList();
+        assertThat(evicted).hasSize(2);
+        assertThat(evicted).allSatisfy(session ->
+            assertThat(cancels.get(session.getId())).hasValue(1));
+    }
+
+    @Test
+    void aSessionClosedBeforeItWasStreamedNeverStartsItsLookup() {
+        SessionRegistry registry = registry(10, 64);
+        LookupSession session = registry.create(new LookupRequest("8.8.8.8", null), "analyst");
+        session.close();
+
+        StepVerifier.create(registry.stream(session, 0))
+            .verifyComplete();
+        verify(orchestrator, never()).performLookup(anyString(), any(), any(), anyString());
+    }
+
+    private SessionRegistry registry(long maxSize, int replaySize) {
+        return new SessionRegistry(orchestrator, new SimpleMeterRegistry(), TTL, maxSize, replaySize, nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private void emit(LookupSession session, String... sources) {
+        for (String source : sources) {
+            lookups.get(session.getId()).tryEmitNext(
+                new OSINTResult(source, "ip", session.getRequest().getQuery(), session.getId()));
+        }
+    }
+}
\ No newline at end of file